@@ -0,0 +1,144 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load client: N concurrent clients (one virtual thread each) repeatedly read
+ * product pages and order pages with a shared access token, then report throughput and
+ * latency percentiles for the measurement window.
+ *
+ * Usage: java scripts/ConcurrencyBenchmark.java [baseUrl] [clients] [warmupSeconds] [durationSeconds]
+ */
+public class ConcurrencyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:9242";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int warmupSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int durationSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String token = login(httpClient, baseUrl);
+
+        AtomicBoolean measuring = new AtomicBoolean(false);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Recorder> recorders = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Recorder recorder = new Recorder();
+            recorders.add(recorder);
+            threads.add(Thread.ofVirtual().start(() -> {
+                while (running.get()) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + nextPath()))
+                            .header("Authorization", "Bearer " + token)
+                            .timeout(Duration.ofSeconds(30))
+                            .build();
+                    long started = System.nanoTime();
+                    int status;
+                    try {
+                        status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    if (measuring.get()) {
+                        recorder.record(System.nanoTime() - started, status);
+                    }
+                }
+            }));
+        }
+
+        Thread.sleep(warmupSeconds * 1000L);
+        measuring.set(true);
+        long measureStart = System.nanoTime();
+        Thread.sleep(durationSeconds * 1000L);
+        measuring.set(false);
+        double elapsedSeconds = (System.nanoTime() - measureStart) / 1e9;
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        report(recorders, clients, elapsedSeconds);
+    }
+
+    private static String nextPath() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(10) < 8) {
+            return "/api/products?page=" + random.nextInt(7) + "&size=20";
+        }
+        return "/api/orders?page=0&size=10";
+    }
+
+    private static String login(HttpClient httpClient, String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"admin@orderflow.com\",\"password\":\"admin123\"}"))
+                .build();
+        for (int attempt = 0; attempt < 60; attempt++) {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = Pattern.compile("\"accessToken\":\"([^\"]+)\"").matcher(response.body());
+            if (response.statusCode() == 200 && matcher.find()) {
+                return matcher.group(1);
+            }
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException("Could not log in to " + baseUrl);
+    }
+
+    private static void report(List<Recorder> recorders, int clients, double elapsedSeconds) {
+        int total = recorders.stream().mapToInt(r -> r.count).sum();
+        long[] latencies = new long[total];
+        int offset = 0;
+        int errors = 0;
+        int rejected = 0;
+        for (Recorder recorder : recorders) {
+            System.arraycopy(recorder.latencies, 0, latencies, offset, recorder.count);
+            offset += recorder.count;
+            errors += recorder.errors;
+            rejected += recorder.rejected;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("clients=%d requests=%d throughput=%.0f req/s p50=%.1f ms p99=%.1f ms max=%.1f ms errors=%d rejected503=%d%n",
+                clients, total, total / elapsedSeconds, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                total > 0 ? latencies[total - 1] / 1e6 : 0, errors, rejected);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static final class Recorder {
+        long[] latencies = new long[1024];
+        int count;
+        int errors;
+        int rejected;
+
+        void record(long nanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (status == 503) {
+                rejected++;
+            } else if (status < 200 || status >= 300) {
+                errors++;
+            }
+        }
+    }
+}
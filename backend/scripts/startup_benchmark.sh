@@ -0,0 +1,98 @@
+#!/bin/bash
+
+# Startup benchmark: measures time from JVM launch to the first successful request.
+# Compares the plain jar against the fast-startup mode (Spring AOT + AppCDS + prebuilt OpenAPI).
+#
+# Build first:  ./mvnw -Pfast-startup package -DskipTests
+# Then run:     scripts/startup_benchmark.sh [runs]
+
+RUNS=${1:-5}
+PORT=${PORT:-9242}
+PROBE_URL=${PROBE_URL:-"http://localhost:$PORT/api/ping"}
+JAR=$(ls target/order-management-backend-*.jar 2>/dev/null | head -1)
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+if [ -z "$JAR" ]; then
+    echo "No jar found in target/, build with: ./mvnw -Pfast-startup package -DskipTests"
+    exit 1
+fi
+
+if ! unzip -l "$JAR" | grep -q "__BeanDefinitions"; then
+    echo "$JAR has no AOT output, build with: ./mvnw -Pfast-startup package -DskipTests"
+    exit 1
+fi
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# Extracts the jar and records the class data sharing archive with a training run
+prepare_cds() {
+    echo "Preparing CDS archive..."
+    java -Djarmode=tools -jar "$JAR" extract --destination "$WORK_DIR/application" > /dev/null || exit 1
+    SPRING_PROFILES_ACTIVE=prod,fast-startup java \
+        -XX:ArchiveClassesAtExit="$WORK_DIR/application/application.jsa" \
+        -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+        -jar "$WORK_DIR/application/$(basename "$JAR")" \
+        --server.port="$PORT" --app.seed.mode=skip --app.journal.directory="$WORK_DIR/training-journal" \
+        > "$WORK_DIR/training.log" 2>&1 || { cat "$WORK_DIR/training.log"; exit 1; }
+}
+
+# Starts the application, polls until the probe succeeds, prints elapsed milliseconds
+measure() {
+    local profiles=$1
+    shift
+    local journal_dir="$WORK_DIR/journal-$RANDOM"
+    local start
+    start=$(now_ms)
+    SPRING_PROFILES_ACTIVE=$profiles java "$@" \
+        --server.port="$PORT" --app.journal.directory="$journal_dir" > "$WORK_DIR/app.log" 2>&1 &
+    local pid=$!
+    local elapsed=""
+    for _ in $(seq 1 6000); do
+        if curl -sf -o /dev/null "$PROBE_URL"; then
+            elapsed=$(( $(now_ms) - start ))
+            break
+        fi
+        if ! kill -0 "$pid" 2>/dev/null; then
+            break
+        fi
+        sleep 0.01
+    done
+    kill "$pid" 2>/dev/null
+    wait "$pid" 2>/dev/null
+    rm -rf "$journal_dir"
+    if [ -z "$elapsed" ]; then
+        echo "Application did not answer $PROBE_URL, last log lines:" >&2
+        tail -20 "$WORK_DIR/app.log" >&2
+        exit 1
+    fi
+    echo "$elapsed"
+}
+
+# Runs a mode RUNS times and prints min / median / max
+benchmark() {
+    local name=$1
+    shift
+    local results=()
+    for run in $(seq 1 "$RUNS"); do
+        results+=("$(measure "$@")") || exit 1
+        echo "  $name run $run: ${results[-1]} ms"
+    done
+    local sorted
+    sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+    printf '%-14s min %6d ms   median %6d ms   max %6d ms\n' "$name" \
+        "${sorted[0]}" "${sorted[$(( RUNS / 2 ))]}" "${sorted[-1]}" >> "$WORK_DIR/summary"
+}
+
+prepare_cds
+
+echo "Measuring time to first successful request on $PROBE_URL ($RUNS runs per mode)"
+benchmark "default" prod -jar "$JAR"
+benchmark "fast-startup" prod,fast-startup \
+    -XX:SharedArchiveFile="$WORK_DIR/application/application.jsa" -Dspring.aot.enabled=true \
+    -jar "$WORK_DIR/application/$(basename "$JAR")"
+
+echo
+cat "$WORK_DIR/summary"
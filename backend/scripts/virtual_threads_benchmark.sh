@@ -0,0 +1,45 @@
+#!/bin/bash
+
+# Compares platform-thread and virtual-thread request handling under the same load:
+# throughput and latency percentiles with N concurrent clients (default 1000).
+# Virtual-thread runs log pinned carrier threads (-Djdk.tracePinnedThreads=short).
+#
+# Build first:  ./mvnw package -DskipTests
+# Then run:     scripts/virtual_threads_benchmark.sh [clients] [warmupSeconds] [durationSeconds]
+
+CLIENTS=${1:-1000}
+WARMUP=${2:-10}
+DURATION=${3:-30}
+PORT=${PORT:-9242}
+JAR=$(ls target/order-management-backend-*.jar 2>/dev/null | head -1)
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+if [ -z "$JAR" ]; then
+    echo "No jar found in target/, build with: ./mvnw package -DskipTests"
+    exit 1
+fi
+
+# Starts the app in one mode, runs the load client against it, prints the result line
+run_mode() {
+    local name=$1
+    shift
+    java "$@" -jar "$JAR" --server.port="$PORT" --spring.profiles.active=prod \
+        --app.journal.enabled=false > "$WORK_DIR/$name.log" 2>&1 &
+    local pid=$!
+    for _ in $(seq 1 240); do
+        curl -sf -o /dev/null "http://localhost:$PORT/actuator/health" && break
+        sleep 0.5
+    done
+    local result
+    result=$(java scripts/ConcurrencyBenchmark.java "http://localhost:$PORT" "$CLIENTS" "$WARMUP" "$DURATION")
+    kill "$pid"
+    wait "$pid" 2>/dev/null
+    local pinned
+    pinned=$(grep -c "onPinned" "$WORK_DIR/$name.log")
+    printf '%-9s %s pinnedEvents=%s\n' "$name" "$result" "$pinned"
+}
+
+echo "Running $CLIENTS clients, ${WARMUP}s warmup, ${DURATION}s measurement per mode"
+run_mode platform -Dspring.threads.virtual.enabled=false
+run_mode virtual -Dspring.threads.virtual.enabled=true -Djdk.tracePinnedThreads=short
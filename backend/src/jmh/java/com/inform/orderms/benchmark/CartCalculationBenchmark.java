@@ -0,0 +1,128 @@
+package com.inform.orderms.benchmark;
+
+import com.inform.orderms.OrderManagementBackendApplication;
+import com.inform.orderms.dto.CartCalculationRequest;
+import com.inform.orderms.dto.CartCalculationResponse;
+import com.inform.orderms.dto.CartItem;
+import com.inform.orderms.dto.OrderSummaryResponse;
+import com.inform.orderms.model.Money;
+import com.inform.orderms.model.Order;
+import com.inform.orderms.model.OrderItem;
+import com.inform.orderms.model.Product;
+import com.inform.orderms.model.Role;
+import com.inform.orderms.repository.ProductRepository;
+import com.inform.orderms.service.OrderService;
+import com.inform.orderms.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Service calls that need the application around them, on an in-memory H2 database seeded with
+ * a catalog of {@value #CATALOG_SIZE} products. {@code calculateCartTotal} looks up every cart
+ * item; {@code convertToOrderSummaryResponse} maps a five-item order and resolves its user's
+ * email through the user cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartCalculationBenchmark {
+
+    private static final int CATALOG_SIZE = 1000;
+
+    @Param({"5", "50"})
+    private int cartSize;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private CartCalculationRequest cart;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(OrderManagementBackendApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "spring.h2.console.enabled=false",
+                        "logging.level.org.springframework.security=WARN",
+                        "app.seed.mode=skip")
+                .run();
+        orderService = context.getBean(OrderService.class);
+
+        List<Product> catalog = context.getBean(ProductRepository.class).saveAll(
+                IntStream.range(0, CATALOG_SIZE).mapToObj(CartCalculationBenchmark::product).toList());
+        cart = new CartCalculationRequest(IntStream.range(0, cartSize)
+                .mapToObj(i -> new CartItem(catalog.get(i * (CATALOG_SIZE / cartSize)).getId(), 1 + i % 3))
+                .toList());
+
+        UUID userId = context.getBean(UserService.class)
+                .createUser("benchmark@orderflow.com", "benchmark", "Benchmark", Role.RoleName.CUSTOMER)
+                .getId();
+        order = order(userId, catalog.subList(0, 5));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CartCalculationResponse calculateCartTotal() {
+        return orderService.calculateCartTotal(cart);
+    }
+
+    @Benchmark
+    public OrderSummaryResponse convertToOrderSummaryResponse() {
+        return orderService.convertToOrderSummaryResponse(order);
+    }
+
+    private static Product product(int index) {
+        Product product = new Product();
+        product.setName("Product " + index);
+        product.setPrice(Money.ofCents(1999 + index));
+        product.setStock(1_000_000);
+        return product;
+    }
+
+    private static Order order(UUID userId, List<Product> products) {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setUserId(userId);
+        order.setCreatedAt(LocalDateTime.now());
+        order.setOrderItems(products.stream().map(product -> {
+            OrderItem item = new OrderItem();
+            item.setId(UUID.randomUUID());
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setUnitPrice(product.getPrice());
+            item.setQuantity(2);
+            return item;
+        }).toList());
+        order.setTotalPrice(products.stream()
+                .map(product -> product.getPrice().times(2))
+                .reduce(Money.ZERO, Money::plus));
+        return order;
+    }
+}
@@ -0,0 +1,91 @@
+package com.inform.orderms.benchmark;
+
+import com.inform.orderms.security.VerifiedClaims;
+import com.inform.orderms.security.VerifiedTokenCache;
+import com.inform.orderms.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request. {@code legacyFilter} reproduces the old filter, which
+ * verified the token three times and rebuilt the key and parser for each; {@code verify} is
+ * the single parse with the cached key and parser; {@code cachedVerify} is a repeat request
+ * served by {@link VerifiedTokenCache}. {@code generate} is the cost of issuing a token at login.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final String SECRET = "orderflow-jwt-secret-key-for-secure-token-generation-and-validation-2024";
+
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache verifiedTokenCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", TimeUnit.DAYS.toMillis(7));
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+        verifiedTokenCache = new VerifiedTokenCache(jwtUtil, new SimpleMeterRegistry(), true, 10_000, 1_000_000,
+                TimeUnit.DAYS.toMillis(7));
+        token = jwtUtil.generateToken(USER_ID, "admin@orderflow.com", Set.of("ADMIN"));
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateToken(USER_ID, "admin@orderflow.com", Set.of("ADMIN"));
+    }
+
+    @Benchmark
+    public Optional<VerifiedClaims> cachedVerify() {
+        return verifiedTokenCache.verify(token);
+    }
+
+    @Benchmark
+    public Optional<VerifiedClaims> verify() {
+        return jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public String legacyFilter() {
+        if (legacyParse(token) != null && !legacyParse(token).getExpiration().before(new Date())) {
+            return legacyParse(token).getSubject();
+        }
+        return null;
+    }
+
+    private static Claims legacyParse(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
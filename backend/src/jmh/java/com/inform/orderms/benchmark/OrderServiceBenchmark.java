@@ -0,0 +1,68 @@
+package com.inform.orderms.benchmark;
+
+import com.inform.orderms.model.Money;
+import com.inform.orderms.model.OrderItem;
+import com.inform.orderms.model.Product;
+import com.inform.orderms.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Order total calculation on a typical basket and on bulk orders. Pure computation, so the
+ * service is built without repositories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    @Param({"3", "1000"})
+    private int itemCount;
+
+    private OrderService orderService;
+    private List<OrderItem> orderItems;
+
+    @Setup
+    public void setUp() {
+        orderService = new OrderService(null, null, null, null, null, null, new SimpleMeterRegistry());
+        orderItems = IntStream.range(0, itemCount).mapToObj(OrderServiceBenchmark::orderItem).toList();
+    }
+
+    @Benchmark
+    public Money calculateOrderTotalPrice() {
+        return orderService.calculateOrderTotalPrice(orderItems);
+    }
+
+    private static OrderItem orderItem(int index) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("Product " + index);
+        product.setPrice(Money.ofCents(1999 + index));
+        product.setStock(100);
+
+        OrderItem item = new OrderItem();
+        item.setId(UUID.randomUUID());
+        item.setProduct(product);
+        item.setUnitPrice(product.getPrice());
+        item.setQuantity(1 + index % 5);
+        return item;
+    }
+}
@@ -0,0 +1,110 @@
+package com.inform.orderms.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.inform.orderms.dto.CartCalculationRequest;
+import com.inform.orderms.dto.CartItem;
+import com.inform.orderms.dto.OrderItemResponse;
+import com.inform.orderms.dto.OrderSummaryResponse;
+import com.inform.orderms.dto.PageResponse;
+import com.inform.orderms.model.Money;
+import com.inform.orderms.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * JSON against CBOR for the bulk reads integration services make: a page of products, a page
+ * of order summaries with their items, and reading a cart request body. Mappers are built with
+ * the same builder and date settings the application uses. Body sizes for each format and page
+ * size are printed once per trial, before the first iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageSerializationBenchmark {
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    @Param({"100", "1000"})
+    private int pageSize;
+
+    private ObjectMapper mapper;
+    private PageResponse<Product> products;
+    private PageResponse<OrderSummaryResponse> orders;
+    private byte[] cart;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = format.equals("cbor")
+                ? Jackson2ObjectMapperBuilder.cbor()
+                : Jackson2ObjectMapperBuilder.json();
+        mapper = builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+        products = page(IntStream.range(0, pageSize).mapToObj(PageSerializationBenchmark::product).toList());
+        orders = page(IntStream.range(0, pageSize).mapToObj(PageSerializationBenchmark::order).toList());
+        cart = mapper.writeValueAsBytes(new CartCalculationRequest(IntStream.range(0, 20)
+                .mapToObj(i -> new CartItem(UUID.randomUUID(), i + 1))
+                .toList()));
+
+        System.out.printf("%n%s, %d per page: products %,d B, orders %,d B, cart %,d B%n", format, pageSize,
+                mapper.writeValueAsBytes(products).length, mapper.writeValueAsBytes(orders).length, cart.length);
+    }
+
+    @Benchmark
+    public byte[] writeProducts() throws IOException {
+        return mapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] writeOrders() throws IOException {
+        return mapper.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public CartCalculationRequest readCart() throws IOException {
+        return mapper.readValue(cart, CartCalculationRequest.class);
+    }
+
+    private <T> PageResponse<T> page(List<T> content) {
+        return new PageResponse<>(content, 0, pageSize, 50L * pageSize, 50, true, false);
+    }
+
+    private static Product product(int index) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("Product " + index);
+        product.setPrice(Money.ofCents(1999 + 100L * index));
+        product.setStock(index % 500);
+        return product;
+    }
+
+    private static OrderSummaryResponse order(int index) {
+        List<OrderItemResponse> items = IntStream.range(0, 3)
+                .mapToObj(i -> new OrderItemResponse(UUID.randomUUID(), UUID.randomUUID(), "Product " + i,
+                        Money.ofCents(2450), i + 1))
+                .toList();
+        return new OrderSummaryResponse(UUID.randomUUID(), LocalDateTime.of(2024, 5, 1, 12, 0).plusMinutes(index),
+                Money.ofCents(14700), UUID.randomUUID(), "customer" + index + "@example.com", 6, items);
+    }
+}
@@ -0,0 +1,120 @@
+package com.inform.orderms.benchmark;
+
+import com.inform.orderms.model.Money;
+import com.inform.orderms.model.Product;
+import com.inform.orderms.model.Promotion;
+import com.inform.orderms.pricing.LinePrice;
+import com.inform.orderms.pricing.PriceList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compiling the active promotions of a {@value #CATALOG_SIZE} product catalog and pricing a
+ * {@value #CART_SIZE} line cart against the result. Pricing should cost the same with no
+ * promotions as with thousands; only compilation grows with the number of rules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromotionPricingBenchmark {
+
+    private static final int CATALOG_SIZE = 2000;
+    private static final int CART_SIZE = 20;
+
+    @Param({"0", "5000"})
+    private int ruleCount;
+
+    private List<Promotion> promotions;
+    private LocalDateTime now;
+    private PriceList priceList;
+    private List<Product> cart;
+
+    @Setup
+    public void setUp() {
+        List<Product> catalog = IntStream.range(0, CATALOG_SIZE).mapToObj(PromotionPricingBenchmark::product).toList();
+        now = LocalDateTime.now();
+        promotions = IntStream.range(0, ruleCount).mapToObj(i -> promotion(i, catalog, now)).toList();
+        priceList = PriceList.compile(promotions, now);
+        cart = IntStream.range(0, CART_SIZE).mapToObj(i -> catalog.get(i * (CATALOG_SIZE / CART_SIZE))).toList();
+    }
+
+    @Benchmark
+    public PriceList compile() {
+        return PriceList.compile(promotions, now);
+    }
+
+    @Benchmark
+    public long priceCart() {
+        long totalCents = 0;
+        for (int i = 0; i < cart.size(); i++) {
+            LinePrice line = priceList.price(cart.get(i), 1 + i % 7);
+            totalCents += line.total().cents();
+        }
+        return totalCents;
+    }
+
+    private static Product product(int index) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("Product " + index);
+        product.setPrice(Money.ofCents(1999 + index));
+        product.setStock(1_000_000);
+        return product;
+    }
+
+    // Every kind of rule, spread over the catalog, with a few store-wide ones and some already ended
+    private static Promotion promotion(int index, List<Product> catalog, LocalDateTime now) {
+        Promotion promotion = new Promotion();
+        promotion.setId(UUID.randomUUID());
+        promotion.setName("Promotion " + index);
+        promotion.setProductId(index % 100 == 0 ? null : catalog.get(index % catalog.size()).getId());
+        promotion.setStartsAt(now.minusDays(1));
+        promotion.setEndsAt(index % 10 == 0 ? now.minusHours(1) : now.plusDays(1 + index % 30));
+        switch (index % 5) {
+            case 0 -> {
+                promotion.setType(Promotion.Type.PERCENTAGE);
+                promotion.setPercentOff(5 + index % 20);
+            }
+            case 1 -> {
+                promotion.setType(Promotion.Type.FIXED_AMOUNT);
+                promotion.setAmount(Money.ofCents(50 + index % 200));
+            }
+            case 2 -> {
+                promotion.setType(Promotion.Type.BUY_X_GET_Y);
+                promotion.setProductId(catalog.get(index % catalog.size()).getId());
+                promotion.setBuyQuantity(2 + index % 3);
+                promotion.setFreeQuantity(1);
+            }
+            case 3 -> {
+                promotion.setType(Promotion.Type.VOLUME_TIER);
+                promotion.setProductId(catalog.get(index % catalog.size()).getId());
+                promotion.setMinQuantity(2 + index % 8);
+                promotion.setAmount(Money.ofCents(1500 + index % 400));
+            }
+            default -> {
+                promotion.setType(Promotion.Type.PRICE_OVERRIDE);
+                promotion.setProductId(catalog.get(index % catalog.size()).getId());
+                promotion.setAmount(Money.ofCents(1800 + index % 150));
+            }
+        }
+        return promotion;
+    }
+}
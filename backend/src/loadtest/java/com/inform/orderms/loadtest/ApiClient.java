@@ -0,0 +1,115 @@
+package com.inform.orderms.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Sends requests and records their latency under an endpoint name such as
+ * {@code GET /api/products/{id}}. Latency runs from the time the request was due, not from
+ * when it was sent, so a stalled generator or a slow token refresh shows up in the numbers
+ * instead of silently lowering the offered load.
+ */
+final class ApiClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentMap<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private volatile long measureFrom = Long.MAX_VALUE;
+
+    record Response(int status, byte[] body) {
+
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /** Requests due before this {@link System#nanoTime()} (the warmup) are not recorded. */
+    void measureFrom(long nanoTime) {
+        measureFrom = nanoTime;
+    }
+
+    Map<String, EndpointStats> stats() {
+        return stats;
+    }
+
+    Response get(String endpoint, String path, String authorization, long due) {
+        return send(endpoint, request(path, authorization).GET(), due);
+    }
+
+    Response post(String endpoint, String path, String authorization, Object body, long due) {
+        return post(endpoint, path, authorization, body, Map.of(), due);
+    }
+
+    Response post(String endpoint, String path, String authorization, Object body, Map<String, String> headers,
+                  long due) {
+        HttpRequest.Builder request = request(path, authorization)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json(body)));
+        headers.forEach(request::header);
+        return send(endpoint, request, due);
+    }
+
+    JsonNode read(Response response) {
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            return objectMapper.missingNode();
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String authorization) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Accept", "application/json")
+                .timeout(TIMEOUT);
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        return request;
+    }
+
+    private Response send(String endpoint, HttpRequest.Builder request, long due) {
+        Response response;
+        try {
+            HttpResponse<byte[]> httpResponse = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            response = new Response(httpResponse.statusCode(), httpResponse.body());
+        } catch (IOException e) {
+            response = new Response(-1, new byte[0]);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response = new Response(-1, new byte[0]);
+        }
+        if (due >= measureFrom) {
+            stats.computeIfAbsent(endpoint, EndpointStats::new).record(response.status(), System.nanoTime() - due);
+        }
+        return response;
+    }
+
+    private byte[] json(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Request body is not serializable", e);
+        }
+    }
+}
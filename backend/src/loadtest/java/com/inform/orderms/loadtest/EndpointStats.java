@@ -0,0 +1,48 @@
+package com.inform.orderms.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and failures for one endpoint. Successful responses go into an HDR histogram in
+ * microseconds; anything else is counted by status, with {@code -1} for requests that never got
+ * a response.
+ */
+final class EndpointStats {
+
+    private final String endpoint;
+    private final Recorder latencies = new Recorder(3);
+    private final Map<Integer, LongAdder> failures = new ConcurrentHashMap<>();
+
+    EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    void record(int status, long latencyNanos) {
+        if (status >= 200 && status < 400) {
+            latencies.recordValue(Math.max(1, latencyNanos / 1000));
+        } else {
+            failures.computeIfAbsent(status, key -> new LongAdder()).increment();
+        }
+    }
+
+    /** Everything recorded so far; only called once the run has finished. */
+    Histogram histogram() {
+        return latencies.getIntervalHistogram();
+    }
+
+    Map<Integer, Long> failures() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        failures.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+}
@@ -0,0 +1,145 @@
+package com.inform.orderms.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * Open-model load generator for a running backend. Sessions arrive as a Poisson process at
+ * {@code --rate} per second whether or not earlier ones have finished, so a slow server sees
+ * queues build up the way it would in production instead of the generator backing off. Each
+ * session runs one {@link Scenario} as one of {@code --users} virtual users, on its own virtual
+ * thread. After {@code --warmup}, latencies are recorded for {@code --duration} and written by
+ * {@link Report}. {@code --max-sessions} caps sessions in flight; arrivals over the cap are
+ * dropped and reported.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ApiClient api = new ApiClient(options.baseUrl());
+        Session.Catalog catalog = catalog(api, options);
+        List<VirtualUser> users = IntStream.range(0, options.users())
+                .mapToObj(i -> new VirtualUser(options.credentials().get(i % options.credentials().size()),
+                        options.tokenRefresh()))
+                .toList();
+        Scenario[] mix = weighted(options.mix());
+
+        System.out.printf("%s%nCatalog: %d products, %d search terms%n", options.describe(),
+                catalog.productIds().size(), catalog.searchTerms().size());
+
+        SplittableRandom random = new SplittableRandom(options.seed());
+        double meanGapNanos = 1e9 / options.rate();
+        AtomicInteger inFlight = new AtomicInteger();
+        long sessions = 0;
+        long dropped = 0;
+
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        api.measureFrom(measureFrom);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long next = start;
+            while (next < end) {
+                long wait;
+                while ((wait = next - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                SplittableRandom sessionRandom = random.split();
+                VirtualUser user = users.get(sessionRandom.nextInt(users.size()));
+                Scenario scenario = mix[sessionRandom.nextInt(mix.length)];
+                boolean measured = next >= measureFrom;
+                if (inFlight.get() >= options.maxSessions()) {
+                    if (measured) {
+                        dropped++;
+                    }
+                } else {
+                    if (measured) {
+                        sessions++;
+                    }
+                    inFlight.incrementAndGet();
+                    long arrival = next;
+                    executor.execute(() -> {
+                        try {
+                            scenario.run(new Session(api, user, catalog, options.thinkTime(), sessionRandom, arrival));
+                        } catch (RuntimeException e) {
+                            System.err.println(scenario + " session failed: " + e);
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    });
+                }
+                next += (long) (-meanGapNanos * Math.log(1 - random.nextDouble()));
+            }
+            System.out.printf("Arrivals stopped, waiting for %d sessions in flight%n", inFlight.get());
+        }
+
+        Report report = new Report(options, api.stats(), options.duration(), sessions, dropped);
+        System.out.println();
+        System.out.print(report.summary());
+        System.out.println("Report written to " + report.write());
+    }
+
+    /**
+     * Logs in as the first configured user (retrying while the application starts) and reads the
+     * catalog once, for product ids and search terms. Nothing here is recorded.
+     */
+    private static Session.Catalog catalog(ApiClient api, LoadTestOptions options) throws InterruptedException {
+        VirtualUser reader = new VirtualUser(options.credentials().getFirst(), options.duration());
+        for (int attempt = 0; attempt < 60; attempt++) {
+            String authorization = reader.authorization(api);
+            if (authorization != null) {
+                ApiClient.Response response = api.get(Scenario.PRODUCTS, "/api/products?page=0&size=1000&fields=id,name",
+                        authorization, System.nanoTime());
+                if (response.ok()) {
+                    return catalog(api.read(response).path("content"));
+                }
+            }
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException("Could not log in and read the catalog at " + options.baseUrl());
+    }
+
+    private static Session.Catalog catalog(JsonNode products) {
+        List<String> ids = new ArrayList<>();
+        Set<String> terms = new LinkedHashSet<>();
+        for (JsonNode product : products) {
+            ids.add(product.path("id").asText());
+            String word = product.path("name").asText().split("\\s+")[0].toLowerCase(Locale.ROOT);
+            if (word.length() >= 3) {
+                terms.add(word);
+            }
+        }
+        if (ids.isEmpty() || terms.isEmpty()) {
+            throw new IllegalStateException("The catalog is empty; start the application with seeding enabled");
+        }
+        return new Session.Catalog(List.copyOf(ids), List.copyOf(terms));
+    }
+
+    /** One slot per unit of weight, so a uniform pick follows the mix. */
+    private static Scenario[] weighted(Map<Scenario, Integer> mix) {
+        List<Scenario> slots = new ArrayList<>();
+        mix.forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(scenario);
+            }
+        });
+        return slots.toArray(Scenario[]::new);
+    }
+}
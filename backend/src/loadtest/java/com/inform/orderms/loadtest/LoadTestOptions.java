@@ -0,0 +1,124 @@
+package com.inform.orderms.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Workload settings, parsed from {@code --name=value} arguments. Two runs with the same options
+ * (including {@code --seed}) issue the same sequence of scenarios, carts and think times, so
+ * results from different builds can be compared directly.
+ */
+record LoadTestOptions(
+        String baseUrl,
+        double rate,
+        int users,
+        Duration thinkTime,
+        Duration warmup,
+        Duration duration,
+        Duration tokenRefresh,
+        int maxSessions,
+        long seed,
+        Map<Scenario, Integer> mix,
+        List<Credentials> credentials,
+        Path output) {
+
+    record Credentials(String email, String password) {
+    }
+
+    private static final String DEFAULT_CREDENTIALS =
+            "rodrigo.perez@orderflow.com:password123,andrea.torrez@orderflow.com:password123,"
+                    + "jorge.robles@orderflow.com:password123";
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        String port = values.getOrDefault("port", "9242");
+        LoadTestOptions options = new LoadTestOptions(
+                values.getOrDefault("base-url", "http://localhost:" + port),
+                Double.parseDouble(values.getOrDefault("rate", "20")),
+                Integer.parseInt(values.getOrDefault("users", "50")),
+                duration(values.getOrDefault("think-time", "500ms")),
+                duration(values.getOrDefault("warmup", "30s")),
+                duration(values.getOrDefault("duration", "2m")),
+                duration(values.getOrDefault("token-refresh", "60s")),
+                Integer.parseInt(values.getOrDefault("max-sessions", "5000")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                mix(values.getOrDefault("mix", Scenario.defaultMix())),
+                credentials(values.getOrDefault("credentials", DEFAULT_CREDENTIALS)),
+                Path.of(values.getOrDefault("output", "target/loadtest")));
+
+        values.keySet().removeAll(List.of("base-url", "port", "rate", "users", "think-time", "warmup", "duration",
+                "token-refresh", "max-sessions", "seed", "mix", "credentials", "output"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        if (options.rate <= 0 || options.users <= 0 || options.maxSessions <= 0) {
+            throw new IllegalArgumentException("rate, users and max-sessions must be positive");
+        }
+        return options;
+    }
+
+    /** Accepts {@code 500ms}, {@code 30s} and {@code 2m}. */
+    static Duration duration(String value) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        long amount = Long.parseLong(text.substring(0, text.length() - 1));
+        return switch (text.charAt(text.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Expected a duration like 500ms, 30s or 2m, got: " + value);
+        };
+    }
+
+    /** Parses {@code browse:35,search:20,...}; scenarios left out get no traffic. */
+    static Map<Scenario, Integer> mix(String value) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected scenario:weight, got: " + entry);
+            }
+            weights.put(Scenario.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("The traffic mix needs at least one positive weight");
+        }
+        return weights;
+    }
+
+    static List<Credentials> credentials(String value) {
+        List<Credentials> credentials = new ArrayList<>();
+        for (String entry : value.split(",")) {
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected email:password, got: " + entry);
+            }
+            credentials.add(new Credentials(entry.substring(0, separator).trim(), entry.substring(separator + 1)));
+        }
+        return List.copyOf(credentials);
+    }
+
+    /** The options as they are printed at the top of every report. */
+    String describe() {
+        return String.format(Locale.ROOT,
+                "base-url=%s rate=%.1f/s users=%d think-time=%dms warmup=%ds duration=%ds token-refresh=%ds "
+                        + "max-sessions=%d seed=%d mix=%s",
+                baseUrl, rate, users, thinkTime.toMillis(), warmup.toSeconds(), duration.toSeconds(),
+                tokenRefresh.toSeconds(), maxSessions, seed, mix);
+    }
+}
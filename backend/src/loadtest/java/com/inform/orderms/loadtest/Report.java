@@ -0,0 +1,132 @@
+package com.inform.orderms.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-endpoint results of a run, in a directory named after its start time:
+ * <ul>
+ *   <li>{@code summary.txt}: the options, then successful requests, throughput, p50/p99/p99.9/max
+ *       in milliseconds and failures for each endpoint and in total</li>
+ *   <li>{@code summary.csv}: the same table, for comparing runs side by side</li>
+ *   <li>{@code <endpoint>.hgrm}: the full HDR percentile distribution in milliseconds, which
+ *       plots directly in the HdrHistogram plotter</li>
+ * </ul>
+ */
+final class Report {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadTestOptions options;
+    private final Duration measured;
+    private final long sessions;
+    private final long dropped;
+    private final List<Row> rows = new ArrayList<>();
+    private final Row total;
+
+    private record Row(String endpoint, Histogram histogram, Map<Integer, Long> failures) {
+
+        long failed() {
+            return failures.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    Report(LoadTestOptions options, Map<String, EndpointStats> stats, Duration measured, long sessions, long dropped) {
+        this.options = options;
+        this.measured = measured;
+        this.sessions = sessions;
+        this.dropped = dropped;
+
+        Histogram all = new Histogram(3);
+        Map<Integer, Long> allFailures = new TreeMap<>();
+        stats.values().stream()
+                .sorted(Comparator.comparing(EndpointStats::endpoint))
+                .forEach(endpoint -> {
+                    Row row = new Row(endpoint.endpoint(), endpoint.histogram(), endpoint.failures());
+                    rows.add(row);
+                    all.add(row.histogram());
+                    row.failures().forEach((status, count) -> allFailures.merge(status, count, Long::sum));
+                });
+        total = new Row("Total", all, allFailures);
+    }
+
+    String summary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(options.describe()).append('\n');
+        summary.append(String.format(Locale.ROOT, "Measured %d s, %,d sessions started, %,d dropped at max-sessions%n%n",
+                measured.toSeconds(), sessions, dropped));
+        summary.append(String.format(Locale.ROOT, "%-28s %10s %9s %9s %9s %9s %9s %8s%n",
+                "Endpoint", "OK", "OK/s", "p50 ms", "p99 ms", "p99.9 ms", "Max ms", "Failed"));
+        for (Row row : rows) {
+            summary.append(line(row));
+        }
+        summary.append(line(total));
+
+        for (Row row : rows) {
+            if (!row.failures().isEmpty()) {
+                summary.append(String.format(Locale.ROOT, "%nFailures for %s by status (-1: no response): %s",
+                        row.endpoint(), row.failures()));
+            }
+        }
+        return summary.append('\n').toString();
+    }
+
+    /** Writes the report files and returns their directory. */
+    Path write() throws IOException {
+        Path directory = options.output().resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("summary.txt"), summary());
+
+        List<String> csv = new ArrayList<>();
+        csv.add("endpoint,ok,ok_per_s,p50_ms,p99_ms,p999_ms,max_ms,failed");
+        for (Row row : rows) {
+            csv.add(csv(row));
+        }
+        csv.add(csv(total));
+        Files.write(directory.resolve("summary.csv"), csv);
+
+        for (Row row : rows) {
+            Path file = directory.resolve(row.endpoint().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+                row.histogram().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+        return directory;
+    }
+
+    private String line(Row row) {
+        Histogram histogram = row.histogram();
+        return String.format(Locale.ROOT, "%-28s %,10d %9.1f %9.2f %9.2f %9.2f %9.2f %,8d%n",
+                row.endpoint(), histogram.getTotalCount(), throughput(row), millis(histogram, 50), millis(histogram, 99),
+                millis(histogram, 99.9), histogram.getMaxValue() / MICROS_PER_MILLI, row.failed());
+    }
+
+    private String csv(Row row) {
+        Histogram histogram = row.histogram();
+        return String.format(Locale.ROOT, "\"%s\",%d,%.2f,%.3f,%.3f,%.3f,%.3f,%d",
+                row.endpoint(), histogram.getTotalCount(), throughput(row), millis(histogram, 50), millis(histogram, 99),
+                millis(histogram, 99.9), histogram.getMaxValue() / MICROS_PER_MILLI, row.failed());
+    }
+
+    private double throughput(Row row) {
+        return row.histogram().getTotalCount() / (measured.toNanos() / 1e9);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+}
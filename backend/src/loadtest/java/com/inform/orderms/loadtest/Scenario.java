@@ -0,0 +1,127 @@
+package com.inform.orderms.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The traffic mix. Each arrival runs one scenario, chosen by weight. The default weights keep
+ * reads far ahead of writes; {@code --mix} replaces them for a run.
+ */
+enum Scenario {
+
+    /** A returning visitor signing in again. */
+    LOGIN(5) {
+        @Override
+        void run(Session session) {
+            session.user().login(session.api());
+        }
+    },
+
+    /** A catalog page, then one of its products. */
+    BROWSE(35) {
+        @Override
+        void run(Session session) {
+            JsonNode page = session.get(PRODUCTS, "/api/products?page=" + session.random().nextInt(5) + "&size=20");
+            session.think();
+            String productId = page != null && page.path("content").size() > 0
+                    ? page.path("content").get(session.random().nextInt(page.path("content").size())).path("id").asText()
+                    : session.productId();
+            session.get(PRODUCT, "/api/products/" + productId);
+        }
+    },
+
+    /** A product search by name. */
+    SEARCH(20) {
+        @Override
+        void run(Session session) {
+            session.get(PRODUCTS, "/api/products?size=20&search="
+                    + URLEncoder.encode(session.searchTerm(), StandardCharsets.UTF_8));
+        }
+    },
+
+    /** Pricing a cart while it is being filled. */
+    CART(15) {
+        @Override
+        void run(Session session) {
+            session.post(CALCULATE, "/api/orders/calculate", cart(session), Map.of());
+        }
+    },
+
+    /** Pricing a cart, then placing it as an order with an idempotency key. */
+    ORDER(5) {
+        @Override
+        void run(Session session) {
+            Map<String, Object> cart = cart(session);
+            session.post(CALCULATE, "/api/orders/calculate", cart, Map.of());
+            session.think();
+            UUID key = new UUID(session.random().nextLong(), session.random().nextLong());
+            session.post(PLACE_ORDER, "/api/orders", cart, Map.of("Idempotency-Key", key.toString()));
+        }
+    },
+
+    /** The order list, then the details of one order. */
+    ORDERS(15) {
+        @Override
+        void run(Session session) {
+            JsonNode page = session.get(ORDERS_PAGE, "/api/orders?page=0&size=10");
+            if (page != null && page.path("content").size() > 0) {
+                session.think();
+                JsonNode order = page.path("content").get(session.random().nextInt(page.path("content").size()));
+                session.get(ORDER_BY_ID, "/api/orders/" + order.path("id").asText());
+            }
+        }
+    },
+
+    /** The dashboard: recent orders, the whole catalog and a ping, back to back. */
+    DASHBOARD(5) {
+        @Override
+        void run(Session session) {
+            session.get(ORDERS_PAGE, "/api/orders?page=0&size=50&sortBy=createdAt&sortDir=desc");
+            session.get(PRODUCTS, "/api/products?page=0&size=100&sortBy=name&sortDir=asc");
+            session.get(PING, "/api/ping");
+        }
+    };
+
+    static final String PRODUCTS = "GET /api/products";
+    static final String PRODUCT = "GET /api/products/{id}";
+    static final String CALCULATE = "POST /api/orders/calculate";
+    static final String PLACE_ORDER = "POST /api/orders";
+    static final String ORDERS_PAGE = "GET /api/orders";
+    static final String ORDER_BY_ID = "GET /api/orders/{id}";
+    static final String PING = "GET /api/ping";
+
+    private final int defaultWeight;
+
+    Scenario(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+
+    abstract void run(Session session);
+
+    static String defaultMix() {
+        List<String> weights = new ArrayList<>();
+        for (Scenario scenario : values()) {
+            weights.add(scenario.name().toLowerCase() + ":" + scenario.defaultWeight);
+        }
+        return String.join(",", weights);
+    }
+
+    /** One to five distinct products, one or two of each. */
+    private static Map<String, Object> cart(Session session) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        int items = Math.min(1 + session.random().nextInt(5), session.productCount());
+        while (quantities.size() < items) {
+            quantities.put(session.productId(), 1 + session.random().nextInt(2));
+        }
+        List<Map<String, Object>> cartItems = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> cartItems.add(Map.of("productId", productId, "quantity", quantity)));
+        return Map.of("items", cartItems);
+    }
+}
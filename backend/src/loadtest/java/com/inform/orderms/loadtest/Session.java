@@ -0,0 +1,93 @@
+package com.inform.orderms.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One arrival: a virtual user running a single scenario. Keeps the time the next request is
+ * due, which starts at the scheduled arrival and moves forward by the think time after each
+ * response. All randomness comes from the session's own split of the run's seeded generator.
+ */
+final class Session {
+
+    record Catalog(List<String> productIds, List<String> searchTerms) {
+    }
+
+    private final ApiClient api;
+    private final VirtualUser user;
+    private final Catalog catalog;
+    private final Duration thinkTime;
+    private final SplittableRandom random;
+    private long due;
+
+    Session(ApiClient api, VirtualUser user, Catalog catalog, Duration thinkTime, SplittableRandom random,
+            long arrival) {
+        this.api = api;
+        this.user = user;
+        this.catalog = catalog;
+        this.thinkTime = thinkTime;
+        this.random = random;
+        this.due = arrival;
+    }
+
+    SplittableRandom random() {
+        return random;
+    }
+
+    VirtualUser user() {
+        return user;
+    }
+
+    ApiClient api() {
+        return api;
+    }
+
+    int productCount() {
+        return catalog.productIds().size();
+    }
+
+    String productId() {
+        return catalog.productIds().get(random.nextInt(catalog.productIds().size()));
+    }
+
+    String searchTerm() {
+        return catalog.searchTerms().get(random.nextInt(catalog.searchTerms().size()));
+    }
+
+    JsonNode get(String endpoint, String path) {
+        String authorization = user.authorization(api);
+        if (authorization == null) {
+            return null;
+        }
+        ApiClient.Response response = api.get(endpoint, path, authorization, due);
+        due = System.nanoTime();
+        return response.ok() ? api.read(response) : null;
+    }
+
+    JsonNode post(String endpoint, String path, Object body, Map<String, String> headers) {
+        String authorization = user.authorization(api);
+        if (authorization == null) {
+            return null;
+        }
+        ApiClient.Response response = api.post(endpoint, path, authorization, body, headers, due);
+        due = System.nanoTime();
+        return response.ok() ? api.read(response) : null;
+    }
+
+    /** Waits an exponentially distributed think time before the next request. */
+    void think() {
+        long mean = thinkTime.toNanos();
+        if (mean > 0) {
+            due += (long) (-mean * Math.log(1 - random.nextDouble()));
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.inform.orderms.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One simulated client with its own token pair. Sessions of the same user reuse its access
+ * token; once the token is older than the refresh interval (or expired) the next session
+ * renews it through {@code /api/auth/refresh}, falling back to a fresh login if that fails.
+ * A lock rather than {@code synchronized} keeps the waiting virtual threads off the carrier
+ * while one of them talks to the server.
+ */
+final class VirtualUser {
+
+    static final String LOGIN = "POST /api/auth/login";
+    static final String REFRESH = "POST /api/auth/refresh";
+
+    private final LoadTestOptions.Credentials credentials;
+    private final Duration refreshAfter;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private String accessToken;
+    private String refreshToken;
+    private long issuedAt;
+    private long expiresAt;
+
+    VirtualUser(LoadTestOptions.Credentials credentials, Duration refreshAfter) {
+        this.credentials = credentials;
+        this.refreshAfter = refreshAfter;
+    }
+
+    /** The {@code Authorization} header for the next request, or null if the user cannot log in. */
+    String authorization(ApiClient api) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (accessToken == null) {
+                login(api, now);
+            } else if (now - issuedAt >= refreshAfter.toNanos() || now >= expiresAt) {
+                refresh(api, now);
+            }
+            return accessToken == null ? null : "Bearer " + accessToken;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Logs in again regardless of the current token, as a returning visitor would. */
+    boolean login(ApiClient api) {
+        lock.lock();
+        try {
+            return login(api, System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean login(ApiClient api, long due) {
+        ApiClient.Response response = api.post(LOGIN, "/api/auth/login", null,
+                Map.of("email", credentials.email(), "password", credentials.password()), due);
+        return accept(api, response, due);
+    }
+
+    private void refresh(ApiClient api, long due) {
+        if (refreshToken == null) {
+            login(api, due);
+            return;
+        }
+        ApiClient.Response response = api.post(REFRESH, "/api/auth/refresh", null,
+                Map.of("refreshToken", refreshToken), due);
+        if (!accept(api, response, due)) {
+            login(api, System.nanoTime());
+        }
+    }
+
+    private boolean accept(ApiClient api, ApiClient.Response response, long due) {
+        if (!response.ok()) {
+            accessToken = null;
+            return false;
+        }
+        JsonNode body = api.read(response);
+        accessToken = body.path("accessToken").asText(null);
+        refreshToken = body.path("refreshToken").asText(null);
+        issuedAt = due;
+        expiresAt = due + Duration.ofSeconds(body.path("expiresIn").asLong(0)).toNanos();
+        return accessToken != null;
+    }
+}
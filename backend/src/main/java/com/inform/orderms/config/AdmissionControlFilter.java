@@ -0,0 +1,89 @@
+package com.inform.orderms.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inform.orderms.dto.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps how many API requests run at once so that, with virtual threads, thousands of
+ * requests cannot all pile onto the connection pool and time out there together. Excess
+ * requests wait in a fair queue for up to {@code queue-timeout} and then get 503.
+ * With platform threads the Tomcat pool already bounds concurrency, so this is off by default.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final Semaphore permits;
+    private final long queueTimeoutNanos;
+    private final ObjectMapper objectMapper;
+    private final Counter rejectedCounter;
+
+    public AdmissionControlFilter(
+            @Value("${app.admission.enabled:${spring.threads.virtual.enabled:false}}") boolean enabled,
+            @Value("${app.admission.max-concurrent-requests:#{${spring.datasource.hikari.maximum-pool-size:10} * 2}}") int maxConcurrentRequests,
+            @Value("${app.admission.queue-timeout:2s}") Duration queueTimeout,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.objectMapper = objectMapper;
+        this.rejectedCounter = Counter.builder("http.admission.rejected")
+                .description("API requests refused because the admission queue timed out")
+                .register(meterRegistry);
+        Gauge.builder("http.admission.waiting", permits, Semaphore::getQueueLength)
+                .description("API requests waiting for an admission permit")
+                .register(meterRegistry);
+        Gauge.builder("http.admission.available", permits, Semaphore::availablePermits)
+                .description("Free admission permits")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            rejectedCounter.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    new ErrorResponse("OVERLOADED", "Server is busy, please retry shortly"));
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.inform.orderms.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Local Caffeine caches. Caches are registered up front so Spring Boot binds their hit/miss
+ * statistics to {@code cache.gets} metrics at startup.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS_BY_ID = "usersById";
+    public static final String USERS_BY_EMAIL = "usersByEmail";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.users.ttl:10m}") Duration usersTtl,
+                                     @Value("${app.cache.users.maximum-size:10000}") long usersMaximumSize) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        for (String name : List.of(USERS_BY_ID, USERS_BY_EMAIL)) {
+            cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                    .maximumSize(usersMaximumSize)
+                    .expireAfterWrite(usersTtl)
+                    .recordStats()
+                    .build());
+        }
+        return cacheManager;
+    }
+}
@@ -1,9 +1,14 @@
 package com.inform.orderms.config;
 
+import com.inform.orderms.model.LocationStock;
+import com.inform.orderms.model.Money;
 import com.inform.orderms.model.Product;
 import com.inform.orderms.model.Role;
+import com.inform.orderms.model.Warehouse;
 import com.inform.orderms.repository.ProductRepository;
 import com.inform.orderms.repository.RoleRepository;
+import com.inform.orderms.service.InventoryService;
+import com.inform.orderms.service.ProductService;
 import com.inform.orderms.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,7 +16,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -20,15 +26,45 @@ public class DataLoader implements CommandLineRunner {
     private final UserService userService;
     private final RoleRepository roleRepository;
     private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final InventoryService inventoryService;
+
+    @Value("${app.seed.mode:eager}")
+    private SeedMode seedMode;
+
+    public enum SeedMode {
+        /** Seed before the application reports ready. */
+        EAGER,
+        /** Seed on a background thread so startup does not wait for password hashing and inserts. */
+        DEFERRED,
+        /** Do not seed; data comes from the journal or another instance. */
+        SKIP
+    }
 
     @Override
     public void run(String... args) throws Exception {
+        switch (seedMode) {
+            case EAGER -> seed();
+            case DEFERRED -> Thread.ofPlatform().name("data-loader").daemon().start(this::seedQuietly);
+            case SKIP -> log.info("Skipping DataLoader initialization (app.seed.mode=skip)");
+        }
+    }
+
+    private void seed() {
         log.info("Running DataLoader initialization...");
         initializeRoles();
         createDefaultUsers();
         createDefaultProducts();
     }
 
+    private void seedQuietly() {
+        try {
+            seed();
+        } catch (Exception e) {
+            log.error("Deferred DataLoader initialization failed", e);
+        }
+    }
+
     private void initializeRoles() {
         for (Role.RoleName roleName : Role.RoleName.values()) {
             if (roleRepository.findByName(roleName).isEmpty()) {
@@ -94,16 +130,46 @@ public class DataLoader implements CommandLineRunner {
                 "rubber stamp", "slipper"
             };
 
+            List<Warehouse> warehouses = createDefaultWarehouses();
+            List<Product> products = new ArrayList<>(productNames.length);
+            List<int[]> quantities = new ArrayList<>(productNames.length);
             for (String productName : productNames) {
+                // Split over the warehouses, with at least one unit somewhere
+                int[] quantity = new int[warehouses.size()];
+                int stock = 0;
+                for (int i = 0; i < quantity.length; i++) {
+                    quantity[i] = (int) (Math.random() * 34) + (i == 0 ? 1 : 0);
+                    stock += quantity[i];
+                }
                 Product product = new Product();
                 product.setName(productName);
-                product.setPrice(BigDecimal.valueOf(10 + Math.random() * 990).setScale(2, BigDecimal.ROUND_HALF_UP));
-                product.setStock((int) (Math.random() * 100) + 1);
-                productRepository.save(product);
+                product.setPrice(Money.ofCents(1_000 + (long) (Math.random() * 99_000)));
+                product.setStock(stock);
+                product.setStockedByLocation(true);
+                products.add(product);
+                quantities.add(quantity);
+            }
+            List<Product> savedProducts = productService.createProducts(products);
+
+            List<LocationStock> locations = new ArrayList<>(savedProducts.size() * warehouses.size());
+            for (int p = 0; p < savedProducts.size(); p++) {
+                for (int w = 0; w < warehouses.size(); w++) {
+                    locations.add(new LocationStock(null, warehouses.get(w).getId(), savedProducts.get(p).getId(),
+                            quantities.get(p)[w], null));
+                }
             }
-            log.info("Created {} default products", productNames.length);
+            inventoryService.createLocationStock(locations);
+            log.info("Created {} default products in {} warehouses", productNames.length, warehouses.size());
         } else {
             log.info("Products already exist, skipping product creation");
         }
     }
+
+    private List<Warehouse> createDefaultWarehouses() {
+        List<Warehouse> warehouses = new ArrayList<>();
+        warehouses.add(inventoryService.createWarehouse(new Warehouse(null, "Central", 50, null)));
+        warehouses.add(inventoryService.createWarehouse(new Warehouse(null, "North", 320, null)));
+        warehouses.add(inventoryService.createWarehouse(new Warehouse(null, "South", 540, null)));
+        return warehouses;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.inform.orderms.config;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.inform.orderms.dto.FieldSelection;
+import com.inform.orderms.dto.OrderSummaryResponse;
+import com.inform.orderms.model.Product;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Puts the types that support {@code fields=} selection behind the {@value FieldSelection#FILTER}
+ * filter. The application's mapper serializes every property by default; {@link FieldSelectionAdvice}
+ * narrows it per response.
+ * <p>
+ * Also serves {@code application/cbor} for clients that ask for it, with the same modules, mix-ins
+ * and settings as JSON, so both formats carry the same properties.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldSelectionCustomizer() {
+        return builder -> builder
+                .mixIn(Product.class, FieldFiltered.class)
+                .mixIn(OrderSummaryResponse.class, FieldFiltered.class)
+                .filters(new SimpleFilterProvider().addFilter(FieldSelection.FILTER, SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    /**
+     * Replaces the default CBOR converter, whose mapper is built without Boot's customizers. JSON
+     * stays ahead of it in the converter list, so clients that accept any type still get JSON.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @JsonFilter(FieldSelection.FILTER)
+    interface FieldFiltered {
+    }
+}
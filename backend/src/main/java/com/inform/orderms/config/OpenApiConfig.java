@@ -6,9 +6,12 @@ import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.License;
 import io.swagger.v3.oas.models.security.SecurityRequirement;
 import io.swagger.v3.oas.models.security.SecurityScheme;
+import io.swagger.v3.oas.models.servers.Server;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 @Configuration
 public class OpenApiConfig {
 
@@ -18,8 +21,11 @@ public class OpenApiConfig {
                 .info(new Info()
                         .title("Order Management System API")
                         .version("v1.0")
-                        .description("REST API for managing products and orders")
+                        .description("REST API for managing products and orders. Product and order endpoints also "
+                                + "read and write CBOR: send Accept or Content-Type application/cbor.")
                         .license(new License().name("Apache 2.0").url("http://springdoc.org")))
+                // Relative, so the document generated at build time is valid wherever it is served
+                .servers(List.of(new Server().url("/")))
                 .addSecurityItem(new SecurityRequirement().addList("Bearer Authentication"))
                 .components(new Components()
                         .addSecuritySchemes("Bearer Authentication", createAPIKeyScheme()));
@@ -0,0 +1,109 @@
+package com.inform.orderms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to a separate replica connection pool so that listing
+ * traffic no longer competes with checkout for primary connections. Callers that
+ * committed a write within the read-your-writes window keep reading from the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+@Slf4j
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${app.datasource.replica.url}") String url,
+            @Value("${app.datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${app.datasource.replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${app.datasource.replica.read-your-writes-window:2s}") Duration window) {
+        return new ReadYourWritesTracker(window);
+    }
+
+    /**
+     * Takes the pools as plain data sources: statement tracing wraps each pool in a proxy, and
+     * must not wrap this bean, since it reads connection metadata on checkout and would make the
+     * lazy proxy fetch a connection before the transaction marks it read-only.
+     */
+    @Bean
+    @Primary
+    public DataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                        @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                        @Value("${app.datasource.replica.url}") String replicaUrl,
+                                        ReadYourWritesTracker readYourWritesTracker) {
+        ReplicaRoutingDataSource readOnlyDataSource = new ReplicaRoutingDataSource(readYourWritesTracker);
+        readOnlyDataSource.setTargetDataSources(Map.of(
+                Route.PRIMARY, primaryDataSource,
+                Route.REPLICA, replicaDataSource
+        ));
+        readOnlyDataSource.setDefaultTargetDataSource(primaryDataSource);
+        readOnlyDataSource.afterPropertiesSet();
+
+        // The lazy proxy defers fetching a physical connection until the first statement,
+        // by which point the transaction has marked the connection read-only.
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(readOnlyDataSource);
+        log.info("Read-only transactions routed to replica pool ({})", replicaUrl);
+        return dataSource;
+    }
+
+    enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    static class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+        private final ReadYourWritesTracker readYourWritesTracker;
+
+        ReplicaRoutingDataSource(ReadYourWritesTracker readYourWritesTracker) {
+            this.readYourWritesTracker = readYourWritesTracker;
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return readYourWritesTracker.requiresPrimary() ? Route.PRIMARY : Route.REPLICA;
+        }
+    }
+}
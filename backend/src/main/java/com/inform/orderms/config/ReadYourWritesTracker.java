@@ -0,0 +1,62 @@
+package com.inform.orderms.config;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers when each caller last committed a write, so their reads can be pinned to the
+ * primary until the replica has had time to catch up. Writes without an authenticated
+ * caller (seeding, background jobs) pin every reader for the same window.
+ */
+public class ReadYourWritesTracker implements TransactionExecutionListener {
+
+    private static final String SYSTEM_KEY = "";
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final Map<String, Long> lastWriteNanos = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure == null && !transaction.isReadOnly()) {
+            recordWrite();
+        }
+    }
+
+    public void recordWrite() {
+        long now = System.nanoTime();
+        lastWriteNanos.put(currentCallerKey(), now);
+        if (lastWriteNanos.size() > PURGE_THRESHOLD) {
+            lastWriteNanos.values().removeIf(writtenAt -> now - writtenAt > windowNanos);
+        }
+    }
+
+    public boolean requiresPrimary() {
+        long now = System.nanoTime();
+        return isWithinWindow(lastWriteNanos.get(SYSTEM_KEY), now)
+                || isWithinWindow(lastWriteNanos.get(currentCallerKey()), now);
+    }
+
+    private boolean isWithinWindow(Long writtenAt, long now) {
+        return writtenAt != null && now - writtenAt < windowNanos;
+    }
+
+    private String currentCallerKey() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return SYSTEM_KEY;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,97 @@
+package com.inform.orderms.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Span exporter that logs the span tree of every request slower than the threshold: the
+ * request, each service call and each SQL statement with its duration, indented by nesting.
+ * Child spans end before their request, so they are held per trace until the root span
+ * arrives; traces whose root never arrives expire after a minute.
+ */
+@Slf4j
+public class SlowTraceLogger implements SpanExporter {
+
+    private static final AttributeKey<String> QUERY = AttributeKey.stringKey("jdbc.query[0]");
+    private static final int MAX_QUERY_LENGTH = 160;
+
+    private final long thresholdNanos;
+    private final Cache<String, List<SpanData>> pending = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .maximumSize(10_000)
+            .build();
+
+    public SlowTraceLogger(Duration threshold) {
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        for (SpanData span : spans) {
+            if (span.getParentSpanContext().isValid() && !span.getParentSpanContext().isRemote()) {
+                pending.asMap().computeIfAbsent(span.getTraceId(), traceId -> new ArrayList<>()).add(span);
+                continue;
+            }
+            List<SpanData> children = pending.asMap().remove(span.getTraceId());
+            if (duration(span) >= thresholdNanos && log.isWarnEnabled()) {
+                log.warn("Slow request {} took {} (trace {}):{}", span.getName(), millis(duration(span)),
+                        span.getTraceId(), breakdown(span, children == null ? List.of() : children));
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        pending.invalidateAll();
+        return CompletableResultCode.ofSuccess();
+    }
+
+    static String breakdown(SpanData root, List<SpanData> spans) {
+        Map<String, List<SpanData>> byParent = spans.stream()
+                .sorted(Comparator.comparingLong(SpanData::getStartEpochNanos))
+                .collect(Collectors.groupingBy(SpanData::getParentSpanId));
+        StringBuilder breakdown = new StringBuilder();
+        append(breakdown, root, byParent, 1);
+        return breakdown.toString();
+    }
+
+    private static void append(StringBuilder breakdown, SpanData span, Map<String, List<SpanData>> byParent, int depth) {
+        breakdown.append('\n').append("  ".repeat(depth)).append(millis(duration(span))).append("  ").append(span.getName());
+        String query = span.getAttributes().get(QUERY);
+        if (query != null) {
+            String line = query.replaceAll("\\s+", " ");
+            breakdown.append("  ").append(line.length() > MAX_QUERY_LENGTH ? line.substring(0, MAX_QUERY_LENGTH) + "..." : line);
+        }
+        for (SpanData child : byParent.getOrDefault(span.getSpanId(), List.of())) {
+            append(breakdown, child, byParent, depth + 1);
+        }
+    }
+
+    private static long duration(SpanData span) {
+        return span.getEndEpochNanos() - span.getStartEpochNanos();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f ms", nanos / 1e6);
+    }
+}
@@ -0,0 +1,46 @@
+package com.inform.orderms.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Serves the OpenAPI document generated at build time by the {@code fast-startup} Maven
+ * profile (bundled as {@code static/openapi.json}) when springdoc is switched off at runtime.
+ * The document stays under {@code /v3/api-docs} and Swagger UI is served from its webjar.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.openapi.precomputed", havingValue = "true")
+public class StaticOpenApiConfig implements WebMvcConfigurer {
+
+    private static final String SWAGGER_UI_WEBJAR = "META-INF/resources/webjars/swagger-ui/";
+    private static final String SWAGGER_UI_POM = "META-INF/maven/org.webjars/swagger-ui/pom.properties";
+
+    @Override
+    public void addViewControllers(ViewControllerRegistry registry) {
+        registry.addViewController("/v3/api-docs").setViewName("forward:/openapi.json");
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // Our initializer points the UI at /v3/api-docs; everything else comes from the webjar
+        registry.addResourceHandler("/swagger-ui/**")
+                .addResourceLocations("classpath:/swagger-ui/",
+                        "classpath:/" + SWAGGER_UI_WEBJAR + swaggerUiVersion() + "/");
+    }
+
+    private static String swaggerUiVersion() {
+        try {
+            return PropertiesLoaderUtils.loadProperties(new ClassPathResource(SWAGGER_UI_POM)).getProperty("version");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Swagger UI webjar not found on the classpath", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.inform.orderms.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Span exporters beyond the ones Spring Boot configures from properties (OTLP when
+ * {@code management.otlp.tracing.endpoint} is set). Every {@code SpanExporter} bean receives
+ * all sampled spans, so another backend is plugged in by declaring its exporter as a bean.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.tracing.slow-request-threshold")
+    public SlowTraceLogger slowTraceLogger(@Value("${app.tracing.slow-request-threshold}") Duration threshold) {
+        return new SlowTraceLogger(threshold);
+    }
+}
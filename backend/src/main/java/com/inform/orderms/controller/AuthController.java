@@ -7,6 +7,10 @@ import com.inform.orderms.dto.RefreshTokenRequest;
 import com.inform.orderms.dto.ValidationResponse;
 import com.inform.orderms.dto.UserDto;
 import com.inform.orderms.model.User;
+import com.inform.orderms.security.PasswordHasher;
+import com.inform.orderms.security.PasswordHashingOverloadedException;
+import com.inform.orderms.security.VerifiedClaims;
+import com.inform.orderms.security.VerifiedTokenCache;
 import com.inform.orderms.service.UserService;
 import com.inform.orderms.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -17,10 +21,15 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -30,6 +39,8 @@ public class AuthController {
 
     private final UserService userService;
     private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final PasswordHasher passwordHasher;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
@@ -38,29 +49,48 @@ public class AuthController {
     @Operation(summary = "User login", description = "Authenticate user and return JWT access token")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Login successful"),
-        @ApiResponse(responseCode = "401", description = "Invalid credentials")
+        @ApiResponse(responseCode = "401", description = "Invalid credentials"),
+        @ApiResponse(responseCode = "503", description = "Too many concurrent logins, retry after the Retry-After delay")
     })
-    public ResponseEntity<?> login(
+    public CompletableFuture<ResponseEntity<?>> login(
             @Parameter(description = "Login credentials") @Valid @RequestBody LoginRequest loginRequest) {
         
         Optional<User> userOpt = userService.findByEmail(loginRequest.getEmail());
         
         if (userOpt.isEmpty()) {
-            return ResponseEntity.status(401).body("Invalid email or password");
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body("Invalid email or password"));
         }
         
         User user = userOpt.get();
         
-        if (!userService.validatePassword(loginRequest.getPassword(), user.getPassword())) {
-            return ResponseEntity.status(401).body("Invalid email or password");
+        // BCrypt runs on the password hashing executor, not on this request thread
+        return passwordHasher.verify(loginRequest.getPassword(), user.getPassword())
+                .<ResponseEntity<?>>thenApply(verification -> {
+                    if (!verification.matched()) {
+                        return ResponseEntity.status(401).body("Invalid email or password");
+                    }
+                    verification.upgradedHash().ifPresent(hash -> userService.updatePasswordHash(user.getId(), hash));
+                    
+                    UserDto userDto = userService.convertToDto(user);
+                    String token = jwtUtil.generateToken(user.getId(), user.getEmail(), userDto.getRoles());
+                    String refreshToken = jwtUtil.generateRefreshToken(user.getEmail());
+                    LoginResponse response = new LoginResponse(token, refreshToken, jwtExpiration / 1000, userDto); // Convert to seconds
+                    
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(this::loginFailed);
+    }
+
+    private ResponseEntity<?> loginFailed(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+        if (cause instanceof PasswordHashingOverloadedException) {
+            ErrorResponse errorResponse = new ErrorResponse("LOGIN_OVERLOADED", "Too many logins in progress, please retry shortly");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(errorResponse);
         }
-        
-        String token = jwtUtil.generateToken(user.getEmail());
-        String refreshToken = jwtUtil.generateRefreshToken(user.getEmail());
-        UserDto userDto = userService.convertToDto(user);
-        LoginResponse response = new LoginResponse(token, refreshToken, jwtExpiration / 1000, userDto); // Convert to seconds
-        
-        return ResponseEntity.ok(response);
+        ErrorResponse errorResponse = new ErrorResponse("LOGIN_ERROR", "Login failed");
+        return ResponseEntity.internalServerError().body(errorResponse);
     }
 
     @GetMapping("/validate")
@@ -77,9 +107,9 @@ public class AuthController {
         
         String token = authHeader.substring(7);
         
-        if (jwtUtil.validateToken(token)) {
-            String email = jwtUtil.getEmailFromToken(token);
-            ValidationResponse validationResponse = new ValidationResponse(true, email);
+        Optional<VerifiedClaims> claims = verifiedTokenCache.verify(token);
+        if (claims.isPresent()) {
+            ValidationResponse validationResponse = new ValidationResponse(true, claims.get().email());
             return ResponseEntity.ok(validationResponse);
         } else {
             ErrorResponse errorResponse = new ErrorResponse("INVALID_TOKEN", "Token is invalid or expired");
@@ -87,6 +117,22 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/logout")
+    @Operation(summary = "Logout", description = "Revoke the presented access token so it is rejected from now on")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Token revoked"),
+        @ApiResponse(responseCode = "401", description = "Authorization header missing or invalid format")
+    })
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            ErrorResponse errorResponse = new ErrorResponse("INVALID_HEADER", "Authorization header missing or invalid format");
+            return ResponseEntity.status(401).body(errorResponse);
+        }
+
+        verifiedTokenCache.revoke(authHeader.substring(7));
+        return ResponseEntity.ok(Map.of("message", "Logged out"));
+    }
+
     @PostMapping("/refresh")
     @Operation(summary = "Refresh access token", description = "Generate a new access token using a valid refresh token")
     @ApiResponses(value = {
@@ -96,19 +142,19 @@ public class AuthController {
     public ResponseEntity<?> refreshToken(
             @Parameter(description = "Refresh token request") @Valid @RequestBody RefreshTokenRequest request) {
         try {
-            String refreshToken = request.getRefreshToken();
+            Optional<VerifiedClaims> claims = verifiedTokenCache.verify(request.getRefreshToken());
             
-            if (!jwtUtil.validateToken(refreshToken)) {
+            if (claims.isEmpty()) {
                 ErrorResponse errorResponse = new ErrorResponse("INVALID_REFRESH_TOKEN", "Refresh token is invalid or expired");
                 return ResponseEntity.status(401).body(errorResponse);
             }
             
-            if (!jwtUtil.isRefreshToken(refreshToken)) {
+            if (!claims.get().isRefreshToken()) {
                 ErrorResponse errorResponse = new ErrorResponse("INVALID_TOKEN_TYPE", "Token is not a refresh token");
                 return ResponseEntity.status(401).body(errorResponse);
             }
             
-            String email = jwtUtil.getEmailFromToken(refreshToken);
+            String email = claims.get().email();
             Optional<User> userOpt = userService.findByEmail(email);
             
             if (userOpt.isEmpty()) {
@@ -116,10 +162,10 @@ public class AuthController {
                 return ResponseEntity.status(401).body(errorResponse);
             }
             
-            String newAccessToken = jwtUtil.generateToken(email);
-            String newRefreshToken = jwtUtil.generateRefreshToken(email);
             User user = userOpt.get();
             UserDto userDto = userService.convertToDto(user);
+            String newAccessToken = jwtUtil.generateToken(user.getId(), email, userDto.getRoles());
+            String newRefreshToken = jwtUtil.generateRefreshToken(email);
             LoginResponse response = new LoginResponse(newAccessToken, newRefreshToken, jwtExpiration / 1000, userDto);
             
             return ResponseEntity.ok(response);
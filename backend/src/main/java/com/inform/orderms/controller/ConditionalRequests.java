@@ -0,0 +1,118 @@
+package com.inform.orderms.controller;
+
+import com.inform.orderms.service.CatalogResponseCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * {@code If-None-Match} handling for controllers that know a resource's ETag before loading it.
+ * Tagged responses are marked {@code private, no-cache} instead of Spring Security's default
+ * {@code no-store}, so browsers keep them and revalidate with the ETag. JSON and CBOR bodies of
+ * the same resource get different tags, and tagged responses vary by {@code Accept}.
+ */
+final class ConditionalRequests {
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Whether the client's {@code If-None-Match} header lists the given ETag (weak comparison, as
+     * required for {@code If-None-Match}) or is {@code *}.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || stripWeak(trimmed).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The format the response body will be written in: CBOR when the client's {@code Accept}
+     * header ranks it above JSON, JSON otherwise. Mirrors the converter order, where JSON comes
+     * first, so wildcards resolve to JSON.
+     */
+    static MediaType negotiate(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return MediaType.APPLICATION_JSON;
+        }
+        try {
+            List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(accepted);
+            for (MediaType mediaType : accepted) {
+                if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                    return MediaType.APPLICATION_JSON;
+                }
+                if (mediaType.includes(MediaType.APPLICATION_CBOR)) {
+                    return MediaType.APPLICATION_CBOR;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Left to content negotiation, which rejects it
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * Derives the ETag of the CBOR body from the JSON body's ETag; a strong ETag names exact bytes.
+     */
+    static String variant(String etag, MediaType contentType) {
+        return MediaType.APPLICATION_CBOR.equals(contentType)
+                ? etag.substring(0, etag.length() - 1) + "-cbor\""
+                : etag;
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT)
+                .eTag(etag).build();
+    }
+
+    static <T> ResponseEntity<T> ok(String etag, T body) {
+        return ResponseEntity.ok().cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).eTag(etag).body(body);
+    }
+
+    /**
+     * Writes a pre-serialized 200 response, gzip-encoded when the client accepts it and a
+     * compressed body is available. Used instead of returning a body, so the handler returns null.
+     */
+    static void write(HttpServletResponse response, CatalogResponseCache.SerializedResponse body,
+                      String acceptEncoding) throws IOException {
+        boolean gzip = body.gzipped() != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+        byte[] bytes = gzip ? body.gzipped() : body.body();
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(body.contentType().toString());
+        response.setHeader(HttpHeaders.ETAG, body.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE.getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    static <T> ResponseEntity<T> okOrNotModified(String ifNoneMatch, String etag, T body) {
+        return matches(ifNoneMatch, etag) ? notModified(etag) : ok(etag, body);
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
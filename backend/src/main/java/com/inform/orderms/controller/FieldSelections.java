@@ -0,0 +1,30 @@
+package com.inform.orderms.controller;
+
+import com.inform.orderms.dto.FieldSelection;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Set;
+
+/**
+ * Parses a {@code fields=} parameter and registers the selection for response serialization.
+ */
+final class FieldSelections {
+
+    private FieldSelections() {
+    }
+
+    static FieldSelection select(HttpServletRequest request, String fields, Set<String> allowed) {
+        FieldSelection selection;
+        try {
+            selection = FieldSelection.parse(fields, allowed);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (!selection.isAll()) {
+            request.setAttribute(FieldSelection.ATTRIBUTE, selection);
+        }
+        return selection;
+    }
+}
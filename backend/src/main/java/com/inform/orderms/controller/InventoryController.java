@@ -0,0 +1,98 @@
+package com.inform.orderms.controller;
+
+import com.inform.orderms.dto.ErrorResponse;
+import com.inform.orderms.dto.LocationStockRequest;
+import com.inform.orderms.model.LocationStock;
+import com.inform.orderms.model.Warehouse;
+import com.inform.orderms.service.InventoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/inventory")
+@RequiredArgsConstructor
+@Tag(name = "Inventory", description = "Warehouses and the stock each holds per product. Requires the ADMIN role.")
+@SecurityRequirement(name = "Bearer Authentication")
+public class InventoryController {
+
+    private final InventoryService inventoryService;
+
+    @GetMapping("/warehouses")
+    @Operation(summary = "Get all warehouses", description = "Retrieve all warehouses, nearest first.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved warehouses"),
+        @ApiResponse(responseCode = "403", description = "Caller is not an admin")
+    })
+    public ResponseEntity<List<Warehouse>> getWarehouses() {
+        return ResponseEntity.ok(inventoryService.getWarehouses());
+    }
+
+    @PostMapping("/warehouses")
+    @Operation(summary = "Create warehouse", description = "Create a warehouse; its distance ranks it for the nearest allocation policy.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Warehouse created successfully"),
+        @ApiResponse(responseCode = "400", description = "Name missing or distance negative"),
+        @ApiResponse(responseCode = "403", description = "Caller is not an admin")
+    })
+    public ResponseEntity<?> createWarehouse(
+            @Parameter(description = "Warehouse details") @RequestBody Warehouse warehouse) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(inventoryService.createWarehouse(warehouse));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("BAD_REQUEST", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/products/{productId}/locations")
+    @Operation(summary = "Get location stock of a product", description = "Retrieve the stock a product has at each warehouse.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved location stock"),
+        @ApiResponse(responseCode = "403", description = "Caller is not an admin")
+    })
+    public ResponseEntity<List<LocationStock>> getLocationStock(
+            @Parameter(description = "Product ID") @PathVariable UUID productId) {
+        return ResponseEntity.ok(inventoryService.getLocationStock(productId));
+    }
+
+    @PutMapping("/warehouses/{warehouseId}/products/{productId}")
+    @Operation(summary = "Set location stock",
+            description = "Set the stock of a product at a warehouse. The product's stock becomes the sum over its "
+                    + "warehouses, and orders for it are allocated to them from then on.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Location stock set successfully"),
+        @ApiResponse(responseCode = "400", description = "Quantity missing or negative"),
+        @ApiResponse(responseCode = "403", description = "Caller is not an admin"),
+        @ApiResponse(responseCode = "404", description = "Warehouse or product not found"),
+        @ApiResponse(responseCode = "409", description = "Product or its stock at the warehouse changed concurrently")
+    })
+    public ResponseEntity<?> setLocationStock(
+            @Parameter(description = "Warehouse ID") @PathVariable UUID warehouseId,
+            @Parameter(description = "Product ID") @PathVariable UUID productId,
+            @Parameter(description = "Stock held at the warehouse") @Valid @RequestBody LocationStockRequest request) {
+        try {
+            return ResponseEntity.ok(inventoryService.setLocationStock(warehouseId, productId, request.getQuantity()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("BAD_REQUEST", e.getMessage()));
+        } catch (ObjectOptimisticLockingFailureException | DataIntegrityViolationException e) {
+            // A stale product version, or another request created the same location first
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse("CONFLICT",
+                    "Stock of product " + productId + " changed concurrently, reload and retry"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -3,31 +3,43 @@ package com.inform.orderms.controller;
 import com.inform.orderms.dto.CartCalculationRequest;
 import com.inform.orderms.dto.CartCalculationResponse;
 import com.inform.orderms.dto.ErrorResponse;
+import com.inform.orderms.dto.FieldSelection;
+import com.inform.orderms.dto.OrderRequestResponse;
 import com.inform.orderms.dto.OrderSummaryResponse;
 import com.inform.orderms.dto.PageResponse;
 import com.inform.orderms.model.Order;
 import com.inform.orderms.model.User;
+import com.inform.orderms.security.VerifiedClaims;
+import com.inform.orderms.service.IdempotencyKeyConflictException;
+import com.inform.orderms.service.OrderIdempotencyService;
+import com.inform.orderms.service.OrderQueueFullException;
+import com.inform.orderms.service.OrderRequestService;
 import com.inform.orderms.service.OrderService;
+import com.inform.orderms.service.ResourceVersions;
 import com.inform.orderms.service.UserService;
-import com.inform.orderms.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -40,12 +52,18 @@ import java.util.UUID;
 @SecurityRequirement(name = "Bearer Authentication")
 public class OrderController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final OrderService orderService;
+    private final OrderRequestService orderRequestService;
+    private final OrderIdempotencyService orderIdempotencyService;
+    private final ResourceVersions resourceVersions;
     private final UserService userService;
-    private final JwtUtil jwtUtil;
 
     @GetMapping
-    @Operation(summary = "Get all orders", description = "Retrieve a paginated list of all orders with optional search filters")
+    @Operation(summary = "Get all orders", description = "Retrieve a paginated list of all orders with optional search filters. "
+            + "fields= limits what is read and returned; leaving out orderItems and totalItems skips the item query.")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved orders")
     public ResponseEntity<PageResponse<OrderSummaryResponse>> getAllOrders(
             @Parameter(description = "General search query (searches user email or total price if numeric)") @RequestParam(required = false) String search,
@@ -57,13 +75,16 @@ public class OrderController {
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Number of items per page") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "Sort field") @RequestParam(defaultValue = "createdAt") String sortBy,
-            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "desc") String sortDir) {
-        
+            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "desc") String sortDir,
+            @Parameter(description = "Comma-separated fields to return (id, createdAt, totalPrice, userId, userEmail, totalItems, orderItems); all when omitted") @RequestParam(required = false) String fields,
+            HttpServletRequest httpRequest) {
+
+        FieldSelection selection = FieldSelections.select(httpRequest, fields, FieldSelection.ORDER_FIELDS);
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<OrderSummaryResponse> orders = orderService.searchOrders(search, userId, minPrice, maxPrice, startDate, endDate, pageable);
+        Page<OrderSummaryResponse> orders = orderService.searchOrders(search, userId, minPrice, maxPrice, startDate, endDate, pageable, selection);
         
         PageResponse<OrderSummaryResponse> response = new PageResponse<>(
                 orders.getContent(),
@@ -79,38 +100,106 @@ public class OrderController {
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get order by ID", description = "Retrieve an order by its unique identifier")
+    @Operation(summary = "Get order by ID", description = "Retrieve an order by its unique identifier. "
+            + "With fields= the order is returned in the list's summary shape, limited to those fields; "
+            + "leaving out orderItems and totalItems skips the item query.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Order found"),
+        @ApiResponse(responseCode = "304", description = "Order and its products unchanged since the ETag in If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Order not found")
     })
-    public ResponseEntity<Order> getOrderById(
-            @Parameter(description = "Order ID") @PathVariable UUID id) {
+    public ResponseEntity<?> getOrderById(
+            @Parameter(description = "Order ID") @PathVariable UUID id,
+            @Parameter(description = "Comma-separated fields to return (id, createdAt, totalPrice, userId, userEmail, totalItems, orderItems); full order when omitted") @RequestParam(required = false) String fields,
+            @Parameter(description = "ETag of a previous response") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletRequest httpRequest) {
+        FieldSelection selection = FieldSelections.select(httpRequest, fields, FieldSelection.ORDER_FIELDS);
+        MediaType format = ConditionalRequests.negotiate(httpRequest);
+        Optional<String> knownETag = resourceVersions.orderETag(id)
+                .map(selection::tag)
+                .map(etag -> ConditionalRequests.variant(etag, format));
+        if (knownETag.isPresent() && ConditionalRequests.matches(ifNoneMatch, knownETag.get())) {
+            return ConditionalRequests.notModified(knownETag.get());
+        }
+
+        if (!selection.isAll()) {
+            // Tagged only once a full read has recorded the order's versions
+            return orderService.getOrderSummaryById(id, selection)
+                    .map(summary -> knownETag.isPresent()
+                            ? ConditionalRequests.ok(knownETag.get(), summary)
+                            : ResponseEntity.ok(summary))
+                    .orElse(ResponseEntity.notFound().build());
+        }
+
+        long catalogVersion = resourceVersions.catalogVersion();
         return orderService.getOrderById(id)
-                .map(order -> ResponseEntity.ok(order))
+                .map(order -> ConditionalRequests.okOrNotModified(ifNoneMatch,
+                        ConditionalRequests.variant(resourceVersions.orderETag(order, catalogVersion), format), order))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    @Operation(summary = "Create new order", description = "Create a new order with products. Total price is calculated automatically.")
+    @Operation(summary = "Create new order", description = "Create a new order with products. Total price is calculated automatically. "
+            + "With async=true the order is queued and a request id is returned to poll at /api/orders/requests/{id}. "
+            + "Requests repeated with the same Idempotency-Key create the order once; repeats get the same order back "
+            + "with Idempotent-Replayed: true, or with async=true a request that completes with the same orderId.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Order created successfully"),
+        @ApiResponse(responseCode = "202", description = "Order request accepted for processing (async=true)"),
         @ApiResponse(responseCode = "400", description = "Invalid order data or insufficient stock"),
-        @ApiResponse(responseCode = "401", description = "Unauthorized - invalid or missing token")
+        @ApiResponse(responseCode = "401", description = "Unauthorized - invalid or missing token"),
+        @ApiResponse(responseCode = "409", description = "Idempotency-Key reused for different items, or its first request is still running"),
+        @ApiResponse(responseCode = "503", description = "Order queue full, retry after the Retry-After delay (async=true)")
     })
     public ResponseEntity<?> createOrder(
             @Parameter(description = "Cart items with products and quantities") @Valid @RequestBody CartCalculationRequest request,
-            @RequestHeader("Authorization") String authHeader) {
+            @Parameter(description = "Queue the order and return immediately") @RequestParam(defaultValue = "false") boolean async,
+            @Parameter(description = "Client-chosen key that makes retries of this order safe") @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @AuthenticationPrincipal VerifiedClaims claims) {
         try {
-            UUID userId = getUserIdFromToken(authHeader);
+            UUID userId = getUserId(claims);
+            if (async) {
+                OrderRequestService.OrderRequest accepted = orderRequestService.submit(request, userId, idempotencyKey);
+                return ResponseEntity.accepted()
+                        .location(URI.create("/api/orders/requests/" + accepted.id()))
+                        .body(toResponse(accepted));
+            }
+            if (idempotencyKey != null) {
+                OrderIdempotencyService.Result result = orderIdempotencyService.createOrder(request, userId, idempotencyKey);
+                return ResponseEntity.status(HttpStatus.CREATED)
+                        .header(IDEMPOTENT_REPLAYED, String.valueOf(result.replayed()))
+                        .body(result.order());
+            }
             Order createdOrder = orderService.createOrderFromCart(request, userId);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
+        } catch (IdempotencyKeyConflictException e) {
+            ErrorResponse errorResponse = new ErrorResponse("IDEMPOTENCY_KEY_CONFLICT", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        } catch (OrderQueueFullException e) {
+            ErrorResponse errorResponse = new ErrorResponse("ORDER_QUEUE_FULL", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(errorResponse);
         } catch (RuntimeException e) {
             ErrorResponse errorResponse = new ErrorResponse("BAD_REQUEST", e.getMessage());
             return ResponseEntity.badRequest().body(errorResponse);
         }
     }
 
+    @GetMapping("/requests/{id}")
+    @Operation(summary = "Get order request status", description = "Poll an order submitted with async=true: PENDING, CREATED (with orderId) or REJECTED (with message)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Order request found"),
+        @ApiResponse(responseCode = "404", description = "Order request not found, expired or owned by another user")
+    })
+    public ResponseEntity<OrderRequestResponse> getOrderRequest(
+            @Parameter(description = "Order request ID") @PathVariable UUID id,
+            @AuthenticationPrincipal VerifiedClaims claims) {
+        return orderRequestService.findRequest(id, getUserId(claims))
+                .map(request -> ResponseEntity.ok(toResponse(request)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/calculate")
     @Operation(summary = "Calculate cart total", description = "Calculate total price and validate stock for cart items before order creation")
     @ApiResponses(value = {
@@ -128,19 +217,21 @@ public class OrderController {
         }
     }
 
-    private UUID getUserIdFromToken(String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+    private OrderRequestResponse toResponse(OrderRequestService.OrderRequest request) {
+        return new OrderRequestResponse(request.id(), request.status().name(), request.orderId(), request.message(),
+                request.submittedAt(), request.completedAt());
+    }
+
+    private UUID getUserId(VerifiedClaims claims) {
+        if (claims == null) {
             throw new RuntimeException("Authorization header missing or invalid format");
         }
-        
-        String token = authHeader.substring(7);
-        
-        if (!jwtUtil.validateToken(token)) {
-            throw new RuntimeException("Invalid or expired token");
+        if (claims.userId() != null) {
+            return claims.userId();
         }
-        
-        String email = jwtUtil.getEmailFromToken(token);
-        Optional<User> userOpt = userService.findByEmail(email);
+
+        // Tokens issued before the uid claim existed
+        Optional<User> userOpt = userService.findByEmail(claims.email());
         
         if (userOpt.isEmpty()) {
             throw new RuntimeException("User not found");
@@ -1,27 +1,39 @@
 package com.inform.orderms.controller;
 
+import com.inform.orderms.dto.ErrorResponse;
+import com.inform.orderms.dto.FieldSelection;
 import com.inform.orderms.dto.PageResponse;
 import com.inform.orderms.dto.ProductCreateRequest;
+import com.inform.orderms.model.Money;
 import com.inform.orderms.model.Product;
+import com.inform.orderms.service.CatalogResponseCache;
 import com.inform.orderms.service.ProductService;
+import com.inform.orderms.service.ResourceVersions;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -32,10 +44,16 @@ import java.util.UUID;
 public class ProductController {
 
     private final ProductService productService;
+    private final ResourceVersions resourceVersions;
+    private final CatalogResponseCache catalogResponseCache;
 
     @GetMapping
-    @Operation(summary = "Get all products", description = "Retrieve a paginated list of all products with optional search filters")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved products")
+    @Operation(summary = "Get all products", description = "Retrieve a paginated list of all products with optional search filters. "
+            + "fields=id,name,price,stock limits the columns read and returned.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved products"),
+        @ApiResponse(responseCode = "304", description = "No product changed since the ETag in If-None-Match")
+    })
     public ResponseEntity<PageResponse<Product>> getAllProducts(
             @Parameter(description = "General search query (searches name and converts to price if numeric)") @RequestParam(required = false) String search,
             @Parameter(description = "Search by product name (case-insensitive)") @RequestParam(required = false) String name,
@@ -46,13 +64,38 @@ public class ProductController {
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Number of items per page") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "Sort field") @RequestParam(defaultValue = "name") String sortBy,
-            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir) {
-        
+            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir,
+            @Parameter(description = "Comma-separated fields to return (id, name, price, stock); all when omitted") @RequestParam(required = false) String fields,
+            @Parameter(description = "ETag of a previous response") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletRequest httpRequest, HttpServletResponse httpResponse) throws IOException {
+
+        FieldSelection selection = FieldSelections.select(httpRequest, fields, FieldSelection.PRODUCT_FIELDS);
+        String direction = sortDir.equalsIgnoreCase("desc") ? "desc" : "asc";
+        MediaType format = ConditionalRequests.negotiate(httpRequest);
+        String etag = ConditionalRequests.variant(resourceVersions.catalogETag(search, name, minPrice, maxPrice,
+                minStock, maxStock, page, size, sortBy, direction, selection), format);
+        if (ConditionalRequests.matches(ifNoneMatch, etag)) {
+            return ConditionalRequests.notModified(etag);
+        }
+
+        // Unfiltered pages are the hot ones; filtered searches are too varied to be worth caching
+        boolean cacheable = search == null && name == null && minPrice == null && maxPrice == null
+                && minStock == null && maxStock == null && selection.isAll();
+        String cacheKey = CatalogResponseCache.pageKey(page, size, sortBy, direction);
+        if (cacheable) {
+            Optional<CatalogResponseCache.SerializedResponse> cached = catalogResponseCache.get(cacheKey, format, etag);
+            if (cached.isPresent()) {
+                ConditionalRequests.write(httpResponse, cached.get(), acceptEncoding);
+                return null;
+            }
+        }
+
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<Product> products = productService.searchProducts(search, name, minPrice, maxPrice, minStock, maxStock, pageable);
+        Page<Product> products = productService.searchProducts(search, name, minPrice, maxPrice, minStock, maxStock, pageable, selection);
         
         PageResponse<Product> response = new PageResponse<>(
                 products.getContent(),
@@ -63,21 +106,62 @@ public class ProductController {
                 products.isFirst(),
                 products.isLast()
         );
-        
-        return ResponseEntity.ok(response);
+
+        if (cacheable) {
+            ConditionalRequests.write(httpResponse, catalogResponseCache.put(cacheKey, format, etag, response), acceptEncoding);
+            return null;
+        }
+        return ConditionalRequests.ok(etag, response);
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get product by ID", description = "Retrieve a product by its unique identifier")
+    @Operation(summary = "Get product by ID", description = "Retrieve a product by its unique identifier. "
+            + "fields=id,name,price,stock limits the columns read and returned.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Product found"),
+        @ApiResponse(responseCode = "304", description = "Product unchanged since the ETag in If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Product not found")
     })
     public ResponseEntity<Product> getProductById(
-            @Parameter(description = "Product ID") @PathVariable UUID id) {
-        return productService.getProductById(id)
-                .map(product -> ResponseEntity.ok(product))
-                .orElse(ResponseEntity.notFound().build());
+            @Parameter(description = "Product ID") @PathVariable UUID id,
+            @Parameter(description = "Comma-separated fields to return (id, name, price, stock); all when omitted") @RequestParam(required = false) String fields,
+            @Parameter(description = "ETag of a previous response") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletRequest httpRequest, HttpServletResponse httpResponse) throws IOException {
+        FieldSelection selection = FieldSelections.select(httpRequest, fields, FieldSelection.PRODUCT_FIELDS);
+        String cacheKey = CatalogResponseCache.productKey(id);
+        MediaType format = ConditionalRequests.negotiate(httpRequest);
+        Optional<String> knownETag = resourceVersions.productETag(id)
+                .map(selection::tag)
+                .map(etag -> ConditionalRequests.variant(etag, format));
+        if (knownETag.isPresent()) {
+            if (ConditionalRequests.matches(ifNoneMatch, knownETag.get())) {
+                return ConditionalRequests.notModified(knownETag.get());
+            }
+            Optional<CatalogResponseCache.SerializedResponse> cached = selection.isAll()
+                    ? catalogResponseCache.get(cacheKey, format, knownETag.get())
+                    : Optional.empty();
+            if (cached.isPresent()) {
+                ConditionalRequests.write(httpResponse, cached.get(), acceptEncoding);
+                return null;
+            }
+        }
+
+        long catalogVersion = resourceVersions.catalogVersion();
+        Optional<Product> product = productService.getProductById(id, selection);
+        if (product.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = ConditionalRequests.variant(
+                selection.tag(resourceVersions.productETag(product.get(), catalogVersion)), format);
+        if (ConditionalRequests.matches(ifNoneMatch, etag)) {
+            return ConditionalRequests.notModified(etag);
+        }
+        if (!selection.isAll()) {
+            return ConditionalRequests.ok(etag, product.get());
+        }
+        ConditionalRequests.write(httpResponse, catalogResponseCache.put(cacheKey, format, etag, product.get()), acceptEncoding);
+        return null;
     }
 
     @PostMapping
@@ -87,7 +171,7 @@ public class ProductController {
             @Parameter(description = "Product details") @Valid @RequestBody ProductCreateRequest request) {
         Product product = new Product();
         product.setName(request.getName());
-        product.setPrice(request.getPrice());
+        product.setPrice(Money.of(request.getPrice()));
         product.setStock(request.getStock());
         
         Product createdProduct = productService.createProduct(product);
@@ -98,14 +182,21 @@ public class ProductController {
     @Operation(summary = "Update product", description = "Update an existing product with new details")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Product updated successfully"),
-        @ApiResponse(responseCode = "404", description = "Product not found")
+        @ApiResponse(responseCode = "400", description = "Negative stock, or no warehouse holds a product stocked per warehouse"),
+        @ApiResponse(responseCode = "404", description = "Product not found"),
+        @ApiResponse(responseCode = "409", description = "Product or its stock changed concurrently")
     })
-    public ResponseEntity<Product> updateProduct(
+    public ResponseEntity<?> updateProduct(
             @Parameter(description = "Product ID") @PathVariable UUID id,
             @Parameter(description = "Updated product details") @RequestBody Product productDetails) {
         try {
             Product updatedProduct = productService.updateProduct(id, productDetails);
             return ResponseEntity.ok(updatedProduct);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("BAD_REQUEST", e.getMessage()));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponse("CONFLICT", "Product " + id + " changed concurrently, reload and retry"));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -0,0 +1,114 @@
+package com.inform.orderms.controller;
+
+import com.inform.orderms.dto.ErrorResponse;
+import com.inform.orderms.dto.PageResponse;
+import com.inform.orderms.model.Promotion;
+import com.inform.orderms.service.PromotionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/promotions")
+@RequiredArgsConstructor
+@Tag(name = "Promotion", description = "Promotions applied when carts are priced. Requires the ADMIN role.")
+@SecurityRequirement(name = "Bearer Authentication")
+public class PromotionController {
+
+    private final PromotionService promotionService;
+
+    @GetMapping
+    @Operation(summary = "Get all promotions", description = "Retrieve a paginated list of promotions, including ones not active yet or ended.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved promotions"),
+        @ApiResponse(responseCode = "403", description = "Caller is not an admin")
+    })
+    public ResponseEntity<PageResponse<Promotion>> getAllPromotions(
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Number of items per page") @RequestParam(defaultValue = "10") int size) {
+        Page<Promotion> promotions = promotionService.getPromotions(PageRequest.of(page, size, Sort.by("name")));
+        PageResponse<Promotion> response = new PageResponse<>(
+                promotions.getContent(),
+                promotions.getNumber(),
+                promotions.getSize(),
+                promotions.getTotalElements(),
+                promotions.getTotalPages(),
+                promotions.isFirst(),
+                promotions.isLast()
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get promotion by ID", description = "Retrieve a promotion by its unique identifier.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Promotion found"),
+        @ApiResponse(responseCode = "404", description = "Promotion not found")
+    })
+    public ResponseEntity<Promotion> getPromotionById(
+            @Parameter(description = "Promotion ID") @PathVariable UUID id) {
+        return promotionService.getPromotionById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    @Operation(summary = "Create promotion", description = "Create a promotion. It applies to carts priced after the change commits.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Promotion created successfully"),
+        @ApiResponse(responseCode = "400", description = "Fields do not fit the promotion type"),
+        @ApiResponse(responseCode = "403", description = "Caller is not an admin")
+    })
+    public ResponseEntity<?> createPromotion(
+            @Parameter(description = "Promotion details") @RequestBody Promotion promotion) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(promotionService.createPromotion(promotion));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("BAD_REQUEST", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Update promotion", description = "Replace the details of an existing promotion.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Promotion updated successfully"),
+        @ApiResponse(responseCode = "400", description = "Fields do not fit the promotion type"),
+        @ApiResponse(responseCode = "403", description = "Caller is not an admin"),
+        @ApiResponse(responseCode = "404", description = "Promotion not found")
+    })
+    public ResponseEntity<?> updatePromotion(
+            @Parameter(description = "Promotion ID") @PathVariable UUID id,
+            @Parameter(description = "Updated promotion details") @RequestBody Promotion details) {
+        try {
+            return ResponseEntity.ok(promotionService.updatePromotion(id, details));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("BAD_REQUEST", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete promotion", description = "Delete a promotion by its unique identifier.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Promotion deleted successfully"),
+        @ApiResponse(responseCode = "403", description = "Caller is not an admin")
+    })
+    public ResponseEntity<Void> deletePromotion(
+            @Parameter(description = "Promotion ID") @PathVariable UUID id) {
+        promotionService.deletePromotion(id);
+        return ResponseEntity.noContent().build();
+    }
+}
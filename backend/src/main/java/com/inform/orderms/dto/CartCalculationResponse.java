@@ -1,16 +1,17 @@
 package com.inform.orderms.dto;
 
+import com.inform.orderms.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 @Data
 @AllArgsConstructor
 public class CartCalculationResponse {
     private List<CartItemDetails> items;
-    private BigDecimal totalPrice;
+    private Money totalPrice;
+    private Money totalDiscount;
     private Integer totalItems;
     
     @Data
@@ -18,9 +19,10 @@ public class CartCalculationResponse {
     public static class CartItemDetails {
         private String productId;
         private String productName;
-        private BigDecimal unitPrice;
+        private Money unitPrice;
         private Integer quantity;
-        private BigDecimal itemTotal;
+        private Money discount;
+        private Money itemTotal;
         private boolean available;
         private Integer availableStock;
     }
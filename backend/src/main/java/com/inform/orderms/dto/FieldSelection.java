@@ -0,0 +1,103 @@
+package com.inform.orderms.dto;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * The top-level fields a client asked for with {@code fields=a,b,c}. Selections drive both
+ * what is fetched and, through the {@value #FILTER} Jackson filter, what is serialized.
+ */
+public final class FieldSelection {
+
+    /** Jackson filter id applied to responses that support field selection. */
+    public static final String FILTER = "fields";
+
+    /** Request attribute under which a controller leaves the selection for serialization. */
+    public static final String ATTRIBUTE = FieldSelection.class.getName();
+
+    public static final Set<String> PRODUCT_FIELDS = Set.of("id", "name", "price", "stock");
+    public static final Set<String> ORDER_FIELDS = Set.of("id", "createdAt", "totalPrice", "userId", "userEmail",
+            "totalItems", "orderItems");
+
+    private static final FieldSelection ALL = new FieldSelection(null);
+
+    private final SortedSet<String> fields;
+
+    private FieldSelection(SortedSet<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Parses a comma-separated field list; a missing or blank list selects every field.
+     *
+     * @throws IllegalArgumentException when a field is not one of {@code allowed}
+     */
+    public static FieldSelection parse(String fields, Set<String> allowed) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        SortedSet<String> selected = new TreeSet<>();
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(trimmed)) {
+                throw new IllegalArgumentException("Unknown field '" + trimmed + "', expected any of " + new TreeSet<>(allowed));
+            }
+            selected.add(trimmed);
+        }
+        return selected.isEmpty() ? ALL : new FieldSelection(Collections.unmodifiableSortedSet(selected));
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * The given columns that are selected, always including {@code required} ones.
+     */
+    public List<String> columns(List<String> candidates, String... required) {
+        List<String> requiredColumns = Arrays.asList(required);
+        return candidates.stream()
+                .filter(column -> includes(column) || requiredColumns.contains(column))
+                .toList();
+    }
+
+    /**
+     * Derives the ETag of this selection's representation from the full representation's ETag.
+     */
+    public String tag(String etag) {
+        if (fields == null) {
+            return etag;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(toString().getBytes(StandardCharsets.UTF_8));
+        return etag.substring(0, etag.length() - 1) + "-" + Long.toHexString(crc.getValue()) + "\"";
+    }
+
+    public FilterProvider filterProvider() {
+        return new SimpleFilterProvider().addFilter(FILTER, fields == null
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+    }
+
+    @Override
+    public String toString() {
+        return fields == null ? "*" : String.join(",", fields);
+    }
+}
@@ -0,0 +1,13 @@
+package com.inform.orderms.dto;
+
+import lombok.Data;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+@Data
+public class LocationStockRequest {
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 0, message = "Quantity must not be negative")
+    private Integer quantity;
+}
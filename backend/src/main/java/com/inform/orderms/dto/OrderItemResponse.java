@@ -1,9 +1,9 @@
 package com.inform.orderms.dto;
 
+import com.inform.orderms.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.util.UUID;
 
 @Data
@@ -12,16 +12,23 @@ public class OrderItemResponse {
     private UUID id;
     private UUID productId;
     private String productName;
-    private BigDecimal unitPrice;
+    private Money unitPrice;
     private Integer quantity;
-    private BigDecimal itemTotal;
+    private Money discount;
+    private Money itemTotal;
 
-    public OrderItemResponse(UUID id, UUID productId, String productName, BigDecimal unitPrice, Integer quantity) {
+    public OrderItemResponse(UUID id, UUID productId, String productName, Money unitPrice, Integer quantity) {
+        this(id, productId, productName, unitPrice, quantity, Money.ZERO);
+    }
+
+    public OrderItemResponse(UUID id, UUID productId, String productName, Money unitPrice, Integer quantity,
+                             Money discount) {
         this.id = id;
         this.productId = productId;
         this.productName = productName;
         this.unitPrice = unitPrice;
         this.quantity = quantity;
-        this.itemTotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        this.discount = discount;
+        this.itemTotal = unitPrice.times(quantity).minus(discount);
     }
-}
\ No newline at end of file
+}
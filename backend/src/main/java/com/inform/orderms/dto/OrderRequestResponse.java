@@ -0,0 +1,18 @@
+package com.inform.orderms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class OrderRequestResponse {
+    private UUID requestId;
+    private String status;
+    private UUID orderId;
+    private String message;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+}
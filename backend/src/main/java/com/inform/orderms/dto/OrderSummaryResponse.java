@@ -1,9 +1,9 @@
 package com.inform.orderms.dto;
 
+import com.inform.orderms.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -13,13 +13,13 @@ import java.util.UUID;
 public class OrderSummaryResponse {
     private UUID id;
     private LocalDateTime createdAt;
-    private BigDecimal totalPrice;
+    private Money totalPrice;
     private UUID userId;
     private String userEmail;
     private Integer totalItems;
     private List<OrderItemResponse> orderItems;
 
-    public OrderSummaryResponse(UUID id, LocalDateTime createdAt, BigDecimal totalPrice, UUID userId, String userEmail, List<OrderItemResponse> orderItems) {
+    public OrderSummaryResponse(UUID id, LocalDateTime createdAt, Money totalPrice, UUID userId, String userEmail, List<OrderItemResponse> orderItems) {
         this.id = id;
         this.createdAt = createdAt;
         this.totalPrice = totalPrice;
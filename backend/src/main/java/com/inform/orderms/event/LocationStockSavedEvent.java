@@ -0,0 +1,9 @@
+package com.inform.orderms.event;
+
+import com.inform.orderms.model.LocationStock;
+
+/**
+ * Published inside the transaction that set the stock of a product at a warehouse.
+ */
+public record LocationStockSavedEvent(LocationStock locationStock) {
+}
@@ -0,0 +1,14 @@
+package com.inform.orderms.event;
+
+import com.inform.orderms.inventory.Allocation;
+import com.inform.orderms.model.Order;
+import com.inform.orderms.model.Product;
+
+import java.util.List;
+
+/**
+ * Published inside the creating transaction once the order and the stock decrements of
+ * its products, and of the locations allocated to it, have been applied.
+ */
+public record OrderCreatedEvent(Order order, List<Product> updatedProducts, List<Allocation> allocations) {
+}
@@ -0,0 +1,9 @@
+package com.inform.orderms.event;
+
+import com.inform.orderms.model.Product;
+
+/**
+ * Published inside the transaction that created or updated a product.
+ */
+public record ProductSavedEvent(Product product) {
+}
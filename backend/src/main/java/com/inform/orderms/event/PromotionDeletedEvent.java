@@ -0,0 +1,9 @@
+package com.inform.orderms.event;
+
+import java.util.UUID;
+
+/**
+ * Published inside the transaction that deleted a promotion.
+ */
+public record PromotionDeletedEvent(UUID promotionId) {
+}
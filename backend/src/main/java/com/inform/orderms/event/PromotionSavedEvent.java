@@ -0,0 +1,9 @@
+package com.inform.orderms.event;
+
+import com.inform.orderms.model.Promotion;
+
+/**
+ * Published inside the transaction that created or updated a promotion.
+ */
+public record PromotionSavedEvent(Promotion promotion) {
+}
@@ -0,0 +1,9 @@
+package com.inform.orderms.event;
+
+import com.inform.orderms.model.User;
+
+/**
+ * Published inside the transaction that created or updated a user.
+ */
+public record UserSavedEvent(User user) {
+}
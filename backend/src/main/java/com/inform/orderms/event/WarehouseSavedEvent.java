@@ -0,0 +1,9 @@
+package com.inform.orderms.event;
+
+import com.inform.orderms.model.Warehouse;
+
+/**
+ * Published inside the transaction that created or updated a warehouse.
+ */
+public record WarehouseSavedEvent(Warehouse warehouse) {
+}
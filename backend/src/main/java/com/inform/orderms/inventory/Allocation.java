@@ -0,0 +1,9 @@
+package com.inform.orderms.inventory;
+
+import java.util.UUID;
+
+/**
+ * Units of one product taken from one location, and what the location holds afterwards.
+ */
+public record Allocation(UUID locationId, UUID warehouseId, UUID productId, int quantity, int remaining) {
+}
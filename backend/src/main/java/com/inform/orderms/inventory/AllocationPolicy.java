@@ -0,0 +1,13 @@
+package com.inform.orderms.inventory;
+
+/**
+ * How an order line picks the warehouses it ships from, set with {@code app.inventory.allocation-policy}.
+ */
+public enum AllocationPolicy {
+    /** Nearest warehouses first, so most units travel the shortest way. */
+    NEAREST,
+    /** Fullest warehouses first, which evens out stock levels and spreads orders over locations. */
+    FULLEST,
+    /** As few warehouses as possible: the nearest one holding the whole quantity, else the fullest first. */
+    FEWEST_SPLITS
+}
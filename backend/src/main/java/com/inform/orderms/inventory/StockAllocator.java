@@ -0,0 +1,65 @@
+package com.inform.orderms.inventory;
+
+import com.inform.orderms.repository.LocationStockRepository.LocationRow;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Splits the quantity ordered of one product over the locations holding it. Pure computation
+ * on rows already read; the caller applies the result.
+ */
+public final class StockAllocator {
+
+    private static final Comparator<LocationRow> NEAREST = Comparator.comparing(LocationRow::getDistance);
+    private static final Comparator<LocationRow> FULLEST = Comparator.comparing(LocationRow::getQuantity).reversed();
+
+    private StockAllocator() {
+    }
+
+    /**
+     * @return allocations covering exactly {@code quantity}, or an empty list when the locations
+     *         hold too little between them
+     */
+    public static List<Allocation> allocate(AllocationPolicy policy, List<? extends LocationRow> locations, int quantity) {
+        List<LocationRow> candidates = new ArrayList<>(locations);
+        candidates.removeIf(location -> location.getQuantity() <= 0);
+        candidates.sort(order(policy).thenComparing(LocationRow::getWarehouseId));
+
+        if (policy == AllocationPolicy.FEWEST_SPLITS) {
+            LocationRow single = candidates.stream()
+                    .filter(location -> location.getQuantity() >= quantity)
+                    .min(NEAREST.thenComparing(LocationRow::getWarehouseId))
+                    .orElse(null);
+            if (single != null) {
+                return List.of(allocation(single, quantity));
+            }
+        }
+
+        // Taking the largest first also keeps the number of locations down when none holds it all
+        List<Allocation> allocations = new ArrayList<>();
+        int open = quantity;
+        for (LocationRow location : candidates) {
+            int taken = Math.min(open, location.getQuantity());
+            allocations.add(allocation(location, taken));
+            open -= taken;
+            if (open == 0) {
+                return allocations;
+            }
+        }
+        return List.of();
+    }
+
+    private static Comparator<LocationRow> order(AllocationPolicy policy) {
+        return switch (policy) {
+            case NEAREST -> NEAREST.thenComparing(FULLEST);
+            case FULLEST, FEWEST_SPLITS -> FULLEST.thenComparing(NEAREST);
+        };
+    }
+
+    private static Allocation allocation(LocationRow location, int quantity) {
+        return new Allocation(location.getId(), location.getWarehouseId(), location.getProductId(), quantity,
+                location.getQuantity() - quantity);
+    }
+}
@@ -0,0 +1,167 @@
+package com.inform.orderms.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Flight recordings on demand, under {@code /actuator/jfr} (ADMIN only, see SecurityConfig):
+ * <ul>
+ *   <li>{@code POST} with {@code {"duration": "60s", "settings": "profile"}} starts a recording</li>
+ *   <li>{@code GET} shows its state</li>
+ *   <li>{@code DELETE} stops it early</li>
+ *   <li>{@code GET /actuator/jfr/{id}} downloads the {@code .jfr} file once it has stopped</li>
+ * </ul>
+ * One recording at a time. Every recording stops on its own after at most
+ * {@code app.jfr.max-duration} and keeps at most {@code app.jfr.max-size} on disk, so a
+ * forgotten recording cannot fill the container. The file of the last recording is kept until
+ * the next one starts.
+ */
+@Component
+@Endpoint(id = "jfr")
+@Slf4j
+public class JfrRecordingEndpoint {
+
+    private static final int CONFLICT = HttpStatus.CONFLICT.value();
+
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
+    private final DataSize maxSize;
+
+    private Recording recording;
+    private Path file;
+
+    public JfrRecordingEndpoint(@Value("${app.jfr.default-duration:60s}") Duration defaultDuration,
+                                @Value("${app.jfr.max-duration:10m}") Duration maxDuration,
+                                @Value("${app.jfr.max-size:100MB}") DataSize maxSize) {
+        this.defaultDuration = defaultDuration;
+        this.maxDuration = maxDuration;
+        this.maxSize = maxSize;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        return describe();
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable Duration duration,
+                                                                       @Nullable String settings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(error("A recording is already running"), CONFLICT);
+        }
+        Duration length = duration == null ? defaultDuration : duration;
+        if (length.isNegative() || length.isZero() || length.compareTo(maxDuration) > 0) {
+            return new WebEndpointResponse<>(error("duration must be positive and at most " + maxDuration),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings == null ? "profile" : settings);
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(error("Unknown JFR settings: " + settings + " (use default or profile)"),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        try {
+            discard();
+            file = Files.createTempFile("orderflow-", ".jfr");
+            recording = new Recording(configuration);
+            recording.setName("orderflow-" + configuration.getName());
+            recording.setDuration(length);
+            recording.setMaxSize(maxSize.toBytes());
+            recording.setToDisk(true);
+            recording.setDestination(file);
+            recording.start();
+        } catch (IOException e) {
+            discard();
+            return new WebEndpointResponse<>(error("Could not start the recording: " + e.getMessage()),
+                    WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        }
+        log.info("Started JFR recording {} with {} settings for {}", recording.getId(), configuration.getName(), length);
+        return new WebEndpointResponse<>(describe(), WebEndpointResponse.STATUS_OK);
+    }
+
+    @DeleteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(error("No recording is running"), WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        // Writes the recording to its destination
+        recording.stop();
+        log.info("Stopped JFR recording {}", recording.getId());
+        return new WebEndpointResponse<>(describe(), WebEndpointResponse.STATUS_OK);
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> download(@Selector long id) {
+        if (recording == null || recording.getId() != id || !Files.exists(file)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.getState() == RecordingState.RUNNING || recording.getState() == RecordingState.DELAYED) {
+            return new WebEndpointResponse<>(CONFLICT);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(file), WebEndpointResponse.STATUS_OK);
+    }
+
+    @PreDestroy
+    public synchronized void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete JFR recording {}", file, e);
+            }
+            file = null;
+        }
+    }
+
+    private Map<String, Object> describe() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("id", recording.getId());
+        status.put("name", recording.getName());
+        status.put("state", recording.getState().name());
+        status.put("startTime", String.valueOf(recording.getStartTime()));
+        status.put("stopTime", String.valueOf(recording.getStopTime()));
+        status.put("duration", String.valueOf(recording.getDuration()));
+        status.put("maxSize", recording.getMaxSize());
+        status.put("size", recording.getSize());
+        return status;
+    }
+
+    private static Map<String, Object> error(String message) {
+        return Map.of("error", message);
+    }
+}
@@ -0,0 +1,58 @@
+package com.inform.orderms.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One call to {@code OrderService.createOrderFromCart}, with the time spent in each phase. The
+ * stock check is where the conditional stock updates take the product row locks, so a long
+ * stock check next to short SQL in the same recording points at contention on hot products.
+ */
+@Name("com.inform.orderms.OrderCreation")
+@Label("Order Creation")
+@Category({"OrderFlow", "Orders"})
+@Description("Creating an order from a cart, by phase")
+@StackTrace(false)
+public class OrderCreationEvent extends jdk.jfr.Event {
+
+    @Label("Cart Lines")
+    public int cartLines;
+
+    @Label("Distinct Products")
+    public int products;
+
+    @Label("Check Stock")
+    @Description("Reserving stock per product, including waits for product row locks")
+    @Timespan
+    public long stockCheckDuration;
+
+    @Label("Load Products")
+    @Timespan
+    public long loadDuration;
+
+    @Label("Allocate")
+    @Description("Choosing warehouse locations and taking their stock")
+    @Timespan
+    public long allocationDuration;
+
+    @Label("Persist")
+    @Description("Building and saving the order, including the flush")
+    @Timespan
+    public long persistDuration;
+
+    @Label("Flush")
+    @Description("Flushing the order and its items")
+    @Timespan
+    public long flushDuration;
+
+    @Label("Idempotency Key")
+    public boolean idempotent;
+
+    @Label("Failure")
+    @Description("Exception message when the order was not created")
+    public String failure;
+}
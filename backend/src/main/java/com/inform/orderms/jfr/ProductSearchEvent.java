@@ -0,0 +1,38 @@
+package com.inform.orderms.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A page of products read from the database by {@code ProductService}. Pages answered from the
+ * catalog response cache never get here.
+ */
+@Name("com.inform.orderms.ProductSearch")
+@Label("Product Search")
+@Category({"OrderFlow", "Products"})
+@Description("Paged product search against the database")
+@StackTrace(false)
+public class ProductSearchEvent extends jdk.jfr.Event {
+
+    @Label("Search")
+    public String search;
+
+    @Label("Name")
+    public String name;
+
+    @Label("Page")
+    public int page;
+
+    @Label("Size")
+    public int size;
+
+    @Label("Fields")
+    @Description("Selected fields, or all")
+    public String fields;
+
+    @Label("Results")
+    public int results;
+}
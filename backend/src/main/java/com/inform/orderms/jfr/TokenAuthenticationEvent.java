@@ -0,0 +1,28 @@
+package com.inform.orderms.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Verification of a bearer token by {@code JwtAuthenticationFilter}. The event's duration is
+ * the verification itself, a cache lookup for tokens seen before.
+ */
+@Name("com.inform.orderms.TokenAuthentication")
+@Label("Token Authentication")
+@Category({"OrderFlow", "Security"})
+@Description("Bearer token verification for one request")
+@StackTrace(false)
+public class TokenAuthenticationEvent extends jdk.jfr.Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Authenticated")
+    public boolean authenticated;
+}
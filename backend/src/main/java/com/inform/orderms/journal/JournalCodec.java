@@ -0,0 +1,303 @@
+package com.inform.orderms.journal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of {@link JournalEntry} values, shared by journal segments and snapshots.
+ */
+final class JournalCodec {
+
+    private static final byte PRODUCT_UPSERT = 1;
+    private static final byte PRODUCT_DELETE = 2;
+    private static final byte ORDER_CREATED = 3;
+    private static final byte USER_UPSERT = 4;
+    private static final byte PROMOTION_UPSERT = 5;
+    private static final byte PROMOTION_DELETE = 6;
+    private static final byte WAREHOUSE_UPSERT = 7;
+    private static final byte LOCATION_STOCK_UPSERT = 8;
+    private static final byte TRANSACTION_ENTRY = 9;
+    private static final byte TRANSACTION_COMMITTED = 10;
+    private static final byte TRANSACTION_ABORTED = 11;
+
+    private JournalCodec() {
+    }
+
+    static byte[] encode(JournalEntry entry) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            switch (entry) {
+                case JournalEntry.ProductUpsert product -> {
+                    out.writeByte(PRODUCT_UPSERT);
+                    writeUuid(out, product.id());
+                    out.writeUTF(product.name());
+                    writeDecimal(out, product.price());
+                    out.writeInt(product.stock());
+                    // Trailing optional field, absent from entries written before it existed
+                    out.writeBoolean(product.stockedByLocation());
+                }
+                case JournalEntry.ProductDelete delete -> {
+                    out.writeByte(PRODUCT_DELETE);
+                    writeUuid(out, delete.id());
+                }
+                case JournalEntry.OrderCreated order -> {
+                    out.writeByte(ORDER_CREATED);
+                    writeUuid(out, order.id());
+                    out.writeLong(order.createdAt().toEpochSecond(ZoneOffset.UTC));
+                    out.writeInt(order.createdAt().getNano());
+                    writeDecimal(out, order.totalPrice());
+                    out.writeBoolean(order.userId() != null);
+                    if (order.userId() != null) {
+                        writeUuid(out, order.userId());
+                    }
+                    out.writeInt(order.items().size());
+                    for (JournalEntry.Item item : order.items()) {
+                        writeUuid(out, item.id());
+                        writeUuid(out, item.productId());
+                        out.writeInt(item.quantity());
+                        writeDecimal(out, item.unitPrice());
+                    }
+                    out.writeInt(order.stockLevels().size());
+                    for (JournalEntry.StockLevel level : order.stockLevels()) {
+                        writeUuid(out, level.productId());
+                        out.writeInt(level.stock());
+                    }
+                    // Trailing optional field, absent from entries written before it existed
+                    out.writeBoolean(order.idempotencyKey() != null);
+                    if (order.idempotencyKey() != null) {
+                        out.writeUTF(order.idempotencyKey());
+                    }
+                    // Trailing optional field, absent from entries written before it existed
+                    for (JournalEntry.Item item : order.items()) {
+                        writeDecimal(out, item.discount());
+                    }
+                    // Trailing optional field, absent from entries written before it existed
+                    out.writeInt(order.locationLevels().size());
+                    for (JournalEntry.LocationLevel level : order.locationLevels()) {
+                        writeUuid(out, level.locationId());
+                        out.writeInt(level.quantity());
+                    }
+                    // Trailing optional field, absent from entries written before it existed
+                    out.writeBoolean(order.requestHash() != null);
+                    if (order.requestHash() != null) {
+                        out.writeUTF(order.requestHash());
+                    }
+                }
+                case JournalEntry.UserUpsert user -> {
+                    out.writeByte(USER_UPSERT);
+                    writeUuid(out, user.id());
+                    out.writeUTF(user.email());
+                    out.writeUTF(user.passwordHash());
+                    out.writeUTF(user.name());
+                    out.writeInt(user.roles().size());
+                    for (String role : user.roles()) {
+                        out.writeUTF(role);
+                    }
+                }
+                case JournalEntry.PromotionUpsert promotion -> {
+                    out.writeByte(PROMOTION_UPSERT);
+                    writeUuid(out, promotion.id());
+                    out.writeUTF(promotion.name());
+                    out.writeUTF(promotion.type());
+                    out.writeBoolean(promotion.productId() != null);
+                    if (promotion.productId() != null) {
+                        writeUuid(out, promotion.productId());
+                    }
+                    writeOptionalInt(out, promotion.percentOff());
+                    out.writeBoolean(promotion.amount() != null);
+                    if (promotion.amount() != null) {
+                        writeDecimal(out, promotion.amount());
+                    }
+                    writeOptionalInt(out, promotion.minQuantity());
+                    writeOptionalInt(out, promotion.buyQuantity());
+                    writeOptionalInt(out, promotion.freeQuantity());
+                    writeOptionalTime(out, promotion.startsAt());
+                    writeOptionalTime(out, promotion.endsAt());
+                }
+                case JournalEntry.PromotionDelete delete -> {
+                    out.writeByte(PROMOTION_DELETE);
+                    writeUuid(out, delete.id());
+                }
+                case JournalEntry.WarehouseUpsert warehouse -> {
+                    out.writeByte(WAREHOUSE_UPSERT);
+                    writeUuid(out, warehouse.id());
+                    out.writeUTF(warehouse.name());
+                    out.writeInt(warehouse.distance());
+                }
+                case JournalEntry.LocationStockUpsert location -> {
+                    out.writeByte(LOCATION_STOCK_UPSERT);
+                    writeUuid(out, location.id());
+                    writeUuid(out, location.warehouseId());
+                    writeUuid(out, location.productId());
+                    out.writeInt(location.quantity());
+                }
+                case JournalEntry.TransactionEntry transaction -> {
+                    out.writeByte(TRANSACTION_ENTRY);
+                    writeUuid(out, transaction.transactionId());
+                    out.write(encode(transaction.entry()));
+                }
+                case JournalEntry.TransactionCommitted committed -> {
+                    out.writeByte(TRANSACTION_COMMITTED);
+                    writeUuid(out, committed.transactionId());
+                }
+                case JournalEntry.TransactionAborted aborted -> {
+                    out.writeByte(TRANSACTION_ABORTED);
+                    writeUuid(out, aborted.transactionId());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static JournalEntry decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte type = in.readByte();
+            return switch (type) {
+                case PRODUCT_UPSERT -> new JournalEntry.ProductUpsert(
+                        readUuid(in), in.readUTF(), readDecimal(in), in.readInt(), in.available() > 0 && in.readBoolean());
+                case PRODUCT_DELETE -> new JournalEntry.ProductDelete(readUuid(in));
+                case ORDER_CREATED -> readOrder(in);
+                case USER_UPSERT -> readUser(in);
+                case PROMOTION_UPSERT -> readPromotion(in);
+                case PROMOTION_DELETE -> new JournalEntry.PromotionDelete(readUuid(in));
+                case WAREHOUSE_UPSERT -> new JournalEntry.WarehouseUpsert(readUuid(in), in.readUTF(), in.readInt());
+                case LOCATION_STOCK_UPSERT -> new JournalEntry.LocationStockUpsert(
+                        readUuid(in), readUuid(in), readUuid(in), in.readInt());
+                case TRANSACTION_ENTRY -> new JournalEntry.TransactionEntry(readUuid(in), decode(in.readAllBytes()));
+                case TRANSACTION_COMMITTED -> new JournalEntry.TransactionCommitted(readUuid(in));
+                case TRANSACTION_ABORTED -> new JournalEntry.TransactionAborted(readUuid(in));
+                default -> throw new IllegalStateException("Unknown journal entry type: " + type);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static JournalEntry.OrderCreated readOrder(DataInputStream in) throws IOException {
+        UUID id = readUuid(in);
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        BigDecimal totalPrice = readDecimal(in);
+        UUID userId = in.readBoolean() ? readUuid(in) : null;
+
+        int itemCount = in.readInt();
+        List<JournalEntry.Item> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new JournalEntry.Item(readUuid(in), readUuid(in), in.readInt(), readDecimal(in), BigDecimal.ZERO));
+        }
+
+        int stockCount = in.readInt();
+        List<JournalEntry.StockLevel> stockLevels = new ArrayList<>(stockCount);
+        for (int i = 0; i < stockCount; i++) {
+            stockLevels.add(new JournalEntry.StockLevel(readUuid(in), in.readInt()));
+        }
+
+        String idempotencyKey = in.available() > 0 && in.readBoolean() ? in.readUTF() : null;
+        if (in.available() > 0) {
+            for (int i = 0; i < itemCount; i++) {
+                JournalEntry.Item item = items.get(i);
+                items.set(i, new JournalEntry.Item(item.id(), item.productId(), item.quantity(), item.unitPrice(),
+                        readDecimal(in)));
+            }
+        }
+        List<JournalEntry.LocationLevel> locationLevels = new ArrayList<>();
+        if (in.available() > 0) {
+            int locationCount = in.readInt();
+            for (int i = 0; i < locationCount; i++) {
+                locationLevels.add(new JournalEntry.LocationLevel(readUuid(in), in.readInt()));
+            }
+        }
+        String requestHash = in.available() > 0 && in.readBoolean() ? in.readUTF() : null;
+        return new JournalEntry.OrderCreated(id, createdAt, totalPrice, userId, idempotencyKey, requestHash, items,
+                stockLevels, locationLevels);
+    }
+
+    private static JournalEntry.UserUpsert readUser(DataInputStream in) throws IOException {
+        UUID id = readUuid(in);
+        String email = in.readUTF();
+        String passwordHash = in.readUTF();
+        String name = in.readUTF();
+        int roleCount = in.readInt();
+        Set<String> roles = new LinkedHashSet<>(roleCount);
+        for (int i = 0; i < roleCount; i++) {
+            roles.add(in.readUTF());
+        }
+        return new JournalEntry.UserUpsert(id, email, passwordHash, name, roles);
+    }
+
+    private static JournalEntry.PromotionUpsert readPromotion(DataInputStream in) throws IOException {
+        UUID id = readUuid(in);
+        String name = in.readUTF();
+        String type = in.readUTF();
+        UUID productId = in.readBoolean() ? readUuid(in) : null;
+        Integer percentOff = readOptionalInt(in);
+        BigDecimal amount = in.readBoolean() ? readDecimal(in) : null;
+        Integer minQuantity = readOptionalInt(in);
+        Integer buyQuantity = readOptionalInt(in);
+        Integer freeQuantity = readOptionalInt(in);
+        LocalDateTime startsAt = readOptionalTime(in);
+        LocalDateTime endsAt = readOptionalTime(in);
+        return new JournalEntry.PromotionUpsert(id, name, type, productId, percentOff, amount, minQuantity,
+                buyQuantity, freeQuantity, startsAt, endsAt);
+    }
+
+    private static void writeOptionalInt(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readOptionalInt(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeOptionalTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeBoolean(time != null);
+        if (time != null) {
+            out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(time.getNano());
+        }
+    }
+
+    private static LocalDateTime readOptionalTime(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeByte(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedByte()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+}
@@ -0,0 +1,68 @@
+package com.inform.orderms.journal;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(name = "app.journal.enabled", havingValue = "true")
+public class JournalConfig {
+
+    @Value("${app.journal.directory:./data/journal}")
+    private Path directory;
+
+    @Bean
+    public OrderJournal orderJournal(
+            @Value("${app.journal.segment-size:64MB}") DataSize segmentSize,
+            @Value("${app.journal.fsync:true}") boolean fsync,
+            @Value("${app.journal.max-batch-size:256}") int maxBatchSize) {
+        return new OrderJournal(directory, Math.toIntExact(segmentSize.toBytes()), fsync, maxBatchSize);
+    }
+
+    @Bean
+    public JournalRecorder journalRecorder(OrderJournal orderJournal, EntityManager entityManager,
+                                           @Value("${app.journal.append-timeout:5s}") Duration appendTimeout) {
+        return new JournalRecorder(orderJournal, entityManager, appendTimeout);
+    }
+
+    @Bean
+    public JournalSnapshotter journalSnapshotter(OrderJournal orderJournal, JournalRecorder journalRecorder,
+                                                 JdbcTemplate jdbcTemplate,
+                                                 PlatformTransactionManager transactionManager) {
+        return new JournalSnapshotter(directory, orderJournal, journalRecorder, jdbcTemplate,
+                new TransactionTemplate(transactionManager));
+    }
+
+    @Bean
+    public JournalRecovery journalRecovery(OrderJournal orderJournal, JournalSnapshotter journalSnapshotter,
+                                           JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                           @Value("${app.journal.snapshot-interval:5m}") Duration snapshotInterval) {
+        return new JournalRecovery(orderJournal, journalSnapshotter, jdbcTemplate,
+                new TransactionTemplate(transactionManager), snapshotInterval);
+    }
+
+    @Bean
+    public InfoContributor journalInfoContributor(OrderJournal orderJournal, JournalRecovery journalRecovery) {
+        return builder -> {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("nextSequence", orderJournal.nextLsn());
+            details.put("segments", orderJournal.segmentCount());
+            details.put("appendedEntries", orderJournal.appendedEntries());
+            details.put("groupCommits", orderJournal.groupCommits());
+            details.put("lastRecovery", journalRecovery.lastReport());
+            builder.withDetail("journal", details);
+        };
+    }
+}
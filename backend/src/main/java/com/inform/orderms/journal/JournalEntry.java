@@ -0,0 +1,66 @@
+package com.inform.orderms.journal;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A single state change recorded in the journal. Entries carry absolute values rather than
+ * deltas, so replaying one that is already reflected in a snapshot is harmless.
+ */
+public sealed interface JournalEntry {
+
+    record ProductUpsert(UUID id, String name, BigDecimal price, int stock,
+                         boolean stockedByLocation) implements JournalEntry {
+    }
+
+    record ProductDelete(UUID id) implements JournalEntry {
+    }
+
+    record OrderCreated(UUID id, LocalDateTime createdAt, BigDecimal totalPrice, UUID userId,
+                        String idempotencyKey, String requestHash, List<Item> items, List<StockLevel> stockLevels,
+                        List<LocationLevel> locationLevels) implements JournalEntry {
+    }
+
+    record UserUpsert(UUID id, String email, String passwordHash, String name,
+                      Set<String> roles) implements JournalEntry {
+    }
+
+    record PromotionUpsert(UUID id, String name, String type, UUID productId, Integer percentOff,
+                           BigDecimal amount, Integer minQuantity, Integer buyQuantity, Integer freeQuantity,
+                           LocalDateTime startsAt, LocalDateTime endsAt) implements JournalEntry {
+    }
+
+    record PromotionDelete(UUID id) implements JournalEntry {
+    }
+
+    record WarehouseUpsert(UUID id, String name, int distance) implements JournalEntry {
+    }
+
+    record LocationStockUpsert(UUID id, UUID warehouseId, UUID productId, int quantity) implements JournalEntry {
+    }
+
+    /**
+     * An entry recorded by a database transaction. Replay applies it only if the journal also
+     * holds the transaction's {@link TransactionCommitted} marker.
+     */
+    record TransactionEntry(UUID transactionId, JournalEntry entry) implements JournalEntry {
+    }
+
+    record TransactionCommitted(UUID transactionId) implements JournalEntry {
+    }
+
+    record TransactionAborted(UUID transactionId) implements JournalEntry {
+    }
+
+    record Item(UUID id, UUID productId, int quantity, BigDecimal unitPrice, BigDecimal discount) {
+    }
+
+    record StockLevel(UUID productId, int stock) {
+    }
+
+    record LocationLevel(UUID locationId, int quantity) {
+    }
+}
@@ -0,0 +1,234 @@
+package com.inform.orderms.journal;
+
+import com.inform.orderms.event.LocationStockSavedEvent;
+import com.inform.orderms.event.OrderCreatedEvent;
+import com.inform.orderms.event.ProductDeletedEvent;
+import com.inform.orderms.event.ProductSavedEvent;
+import com.inform.orderms.event.PromotionDeletedEvent;
+import com.inform.orderms.event.PromotionSavedEvent;
+import com.inform.orderms.event.UserSavedEvent;
+import com.inform.orderms.event.WarehouseSavedEvent;
+import com.inform.orderms.inventory.Allocation;
+import com.inform.orderms.model.LocationStock;
+import com.inform.orderms.model.Order;
+import com.inform.orderms.model.Product;
+import com.inform.orderms.model.Promotion;
+import com.inform.orderms.model.Role;
+import com.inform.orderms.model.User;
+import com.inform.orderms.model.Warehouse;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Turns domain events into journal entries. Entries are appended just before the
+ * transaction commits, after its changes are flushed and the affected rows are locked, so
+ * entries touching the same row reach the journal in commit order. A failed append rolls
+ * the transaction back: nothing is acknowledged that is not durable.
+ * <p>
+ * The entries are tagged with the transaction, and a commit marker is appended once the
+ * database committed, before the caller returns; a rollback appends an abort marker. Replay
+ * skips entries without a commit marker, so a failed commit or a partially written batch
+ * does not come back after a restart.
+ */
+public class JournalRecorder {
+
+    private final OrderJournal journal;
+    private final EntityManager entityManager;
+    private final Duration appendTimeout;
+    private final Set<CompletableFuture<Void>> inFlight = ConcurrentHashMap.newKeySet();
+
+    public JournalRecorder(OrderJournal journal, EntityManager entityManager, Duration appendTimeout) {
+        this.journal = journal;
+        this.entityManager = entityManager;
+        this.appendTimeout = appendTimeout;
+    }
+
+    @EventListener
+    public void onOrderCreated(OrderCreatedEvent event) {
+        record(() -> toEntry(event.order(), event.updatedProducts(), event.allocations()));
+    }
+
+    @EventListener
+    public void onProductSaved(ProductSavedEvent event) {
+        record(() -> toEntry(event.product()));
+    }
+
+    @EventListener
+    public void onProductDeleted(ProductDeletedEvent event) {
+        record(() -> new JournalEntry.ProductDelete(event.productId()));
+    }
+
+    @EventListener
+    public void onWarehouseSaved(WarehouseSavedEvent event) {
+        record(() -> toEntry(event.warehouse()));
+    }
+
+    @EventListener
+    public void onLocationStockSaved(LocationStockSavedEvent event) {
+        record(() -> toEntry(event.locationStock()));
+    }
+
+    @EventListener
+    public void onUserSaved(UserSavedEvent event) {
+        record(() -> toEntry(event.user()));
+    }
+
+    @EventListener
+    public void onPromotionSaved(PromotionSavedEvent event) {
+        record(() -> toEntry(event.promotion()));
+    }
+
+    @EventListener
+    public void onPromotionDeleted(PromotionDeletedEvent event) {
+        record(() -> new JournalEntry.PromotionDelete(event.promotionId()));
+    }
+
+    /**
+     * Waits until every transaction that may have journaled an entry below the current
+     * sequence number has finished. A snapshot taken afterwards sees all of those changes.
+     *
+     * @return the sequence number from which the journal must be replayed on top of the snapshot
+     */
+    public long awaitConsistentPoint(Duration timeout) throws TimeoutException, InterruptedException {
+        long lsn = journal.nextLsn();
+        CompletableFuture<?>[] pending = inFlight.toArray(new CompletableFuture<?>[0]);
+        try {
+            CompletableFuture.allOf(pending).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+        return lsn;
+    }
+
+    private void record(Supplier<JournalEntry> entry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            await(journal.append(entry.get()));
+            return;
+        }
+
+        TransactionEntries entries = (TransactionEntries) TransactionSynchronizationManager.getResource(this);
+        if (entries == null) {
+            entries = new TransactionEntries();
+            TransactionSynchronizationManager.bindResource(this, entries);
+            inFlight.add(entries.completion);
+            TransactionSynchronizationManager.registerSynchronization(entries);
+        }
+        entries.suppliers.add(entry);
+    }
+
+    private void await(CompletableFuture<Long> append) {
+        try {
+            append.get(appendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the order journal", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to append to the order journal", e);
+        }
+    }
+
+    /**
+     * Entries recorded by one transaction, appended together so they share a group commit.
+     */
+    private class TransactionEntries implements TransactionSynchronization {
+
+        private final UUID transactionId = UUID.randomUUID();
+        private final List<Supplier<JournalEntry>> suppliers = new ArrayList<>();
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private boolean appended;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            entityManager.flush();
+            List<CompletableFuture<Long>> appends = new ArrayList<>(suppliers.size());
+            appended = true;
+            for (Supplier<JournalEntry> supplier : suppliers) {
+                appends.add(journal.append(new JournalEntry.TransactionEntry(transactionId, supplier.get())));
+            }
+            appends.forEach(JournalRecorder.this::await);
+        }
+
+        /**
+         * The database already committed, so a failure here surfaces to the caller without
+         * undoing it; the change is then lost on the next restart, like any unacknowledged one.
+         */
+        @Override
+        public void afterCommit() {
+            await(journal.append(new JournalEntry.TransactionCommitted(transactionId)));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            try {
+                if (appended && status != STATUS_COMMITTED) {
+                    // Only informative, replay skips the entries without a commit marker anyway
+                    journal.append(new JournalEntry.TransactionAborted(transactionId));
+                }
+            } finally {
+                TransactionSynchronizationManager.unbindResourceIfPossible(JournalRecorder.this);
+                inFlight.remove(completion);
+                completion.complete(null);
+            }
+        }
+    }
+
+    static JournalEntry.ProductUpsert toEntry(Product product) {
+        return new JournalEntry.ProductUpsert(product.getId(), product.getName(), product.getPrice().toBigDecimal(),
+                product.getStock(), product.isStockedByLocation());
+    }
+
+    static JournalEntry.WarehouseUpsert toEntry(Warehouse warehouse) {
+        return new JournalEntry.WarehouseUpsert(warehouse.getId(), warehouse.getName(), warehouse.getDistance());
+    }
+
+    static JournalEntry.LocationStockUpsert toEntry(LocationStock location) {
+        return new JournalEntry.LocationStockUpsert(location.getId(), location.getWarehouseId(), location.getProductId(),
+                location.getQuantity());
+    }
+
+    static JournalEntry.UserUpsert toEntry(User user) {
+        Set<String> roles = user.getRoles().stream()
+                .map(Role::getName)
+                .map(Enum::name)
+                .collect(Collectors.toSet());
+        return new JournalEntry.UserUpsert(user.getId(), user.getEmail(), user.getPassword(), user.getName(), roles);
+    }
+
+    static JournalEntry.PromotionUpsert toEntry(Promotion promotion) {
+        return new JournalEntry.PromotionUpsert(promotion.getId(), promotion.getName(), promotion.getType().name(),
+                promotion.getProductId(), promotion.getPercentOff(),
+                promotion.getAmount() == null ? null : promotion.getAmount().toBigDecimal(),
+                promotion.getMinQuantity(), promotion.getBuyQuantity(), promotion.getFreeQuantity(),
+                promotion.getStartsAt(), promotion.getEndsAt());
+    }
+
+    static JournalEntry.OrderCreated toEntry(Order order, List<Product> updatedProducts, List<Allocation> allocations) {
+        List<JournalEntry.Item> items = order.getOrderItems().stream()
+                .map(item -> new JournalEntry.Item(item.getId(), item.getProduct().getId(),
+                        item.getQuantity(), item.getUnitPrice().toBigDecimal(), item.getDiscount().toBigDecimal()))
+                .toList();
+        List<JournalEntry.StockLevel> stockLevels = updatedProducts.stream()
+                .map(product -> new JournalEntry.StockLevel(product.getId(), product.getStock()))
+                .toList();
+        List<JournalEntry.LocationLevel> locationLevels = allocations.stream()
+                .map(allocation -> new JournalEntry.LocationLevel(allocation.locationId(), allocation.remaining()))
+                .toList();
+        return new JournalEntry.OrderCreated(order.getId(), order.getCreatedAt(), order.getTotalPrice().toBigDecimal(),
+                order.getUserId(), order.getIdempotencyKey(), order.getRequestHash(), items, stockLevels, locationLevels);
+    }
+}
@@ -0,0 +1,91 @@
+package com.inform.orderms.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilds the in-memory database from the latest snapshot plus the journal tail once all
+ * singletons (and therefore the schema) exist, before the web server accepts requests and
+ * before {@code DataLoader} seeds defaults. Then starts the journal writer and snapshots.
+ */
+@Slf4j
+public class JournalRecovery implements SmartInitializingSingleton, DisposableBean {
+
+    private final OrderJournal journal;
+    private final JournalSnapshotter snapshotter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration snapshotInterval;
+    private volatile Report lastReport;
+
+    public JournalRecovery(OrderJournal journal, JournalSnapshotter snapshotter, JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate, Duration snapshotInterval) {
+        this.journal = journal;
+        this.snapshotter = snapshotter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        lastReport = recover();
+        log.info("Journal recovery restored {} snapshot entries (sequence {}) and replayed {} journal entries in {} ms",
+                lastReport.snapshotEntries(), lastReport.snapshotLsn(), lastReport.replayedEntries(),
+                lastReport.durationMillis());
+        journal.start();
+        snapshotter.start(snapshotInterval);
+    }
+
+    private Report recover() {
+        long started = System.nanoTime();
+        JournalReplayer replayer = new JournalReplayer(jdbcTemplate);
+        try {
+            Optional<JournalSnapshotter.Snapshot> snapshot = snapshotter.loadLatest();
+            long fromLsn = snapshot.map(JournalSnapshotter.Snapshot::lsn).orElse(1L);
+            long replayed = transactionTemplate.execute(status -> {
+                snapshot.ifPresent(s -> s.entries().forEach(replayer::apply));
+                try {
+                    long entries = journal.recover(fromLsn, (lsn, entry) -> replayer.apply(entry));
+                    replayer.refreshLocationTotals();
+                    return entries;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return new Report(snapshot.isPresent() ? fromLsn : 0,
+                    snapshot.map(s -> s.entries().size()).orElse(0), replayed, journal.nextLsn(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover from the order journal", e);
+        }
+    }
+
+    public Report lastReport() {
+        return lastReport;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        snapshotter.stop();
+        try {
+            snapshotter.snapshot();
+        } catch (Exception e) {
+            log.warn("Final journal snapshot failed: {}", e.getMessage());
+        }
+        journal.close();
+    }
+
+    public record Report(long snapshotLsn, int snapshotEntries, long replayedEntries, long nextLsn,
+                         long durationMillis) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.inform.orderms.journal;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Applies journal and snapshot entries straight to the database with H2 {@code MERGE}
+ * statements, bypassing JPA so no domain events are raised and nothing is re-journaled.
+ * Applying an entry twice leaves the same state as applying it once.
+ */
+class JournalReplayer {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, UUID> roleIds = new HashMap<>();
+
+    JournalReplayer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    void apply(JournalEntry entry) {
+        switch (entry) {
+            case JournalEntry.ProductUpsert product -> jdbcTemplate.update(
+                    "MERGE INTO products (id, name, price, stock, stocked_by_location) KEY (id) VALUES (?, ?, ?, ?, ?)",
+                    product.id(), product.name(), product.price(), product.stock(), product.stockedByLocation());
+            case JournalEntry.ProductDelete delete -> jdbcTemplate.update(
+                    "DELETE FROM products WHERE id = ?", delete.id());
+            case JournalEntry.OrderCreated order -> applyOrder(order);
+            case JournalEntry.UserUpsert user -> applyUser(user);
+            case JournalEntry.PromotionUpsert promotion -> jdbcTemplate.update(
+                    "MERGE INTO promotions (id, name, type, product_id, percent_off, amount, min_quantity, buy_quantity, "
+                            + "free_quantity, starts_at, ends_at) KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    promotion.id(), promotion.name(), promotion.type(), promotion.productId(), promotion.percentOff(),
+                    promotion.amount(), promotion.minQuantity(), promotion.buyQuantity(), promotion.freeQuantity(),
+                    timestamp(promotion.startsAt()), timestamp(promotion.endsAt()));
+            case JournalEntry.PromotionDelete delete -> jdbcTemplate.update(
+                    "DELETE FROM promotions WHERE id = ?", delete.id());
+            case JournalEntry.WarehouseUpsert warehouse -> jdbcTemplate.update(
+                    "MERGE INTO warehouses (id, name, distance) KEY (id) VALUES (?, ?, ?)",
+                    warehouse.id(), warehouse.name(), warehouse.distance());
+            case JournalEntry.LocationStockUpsert location -> jdbcTemplate.update(
+                    "MERGE INTO location_stock (id, warehouse_id, product_id, quantity) KEY (id) VALUES (?, ?, ?, ?)",
+                    location.id(), location.warehouseId(), location.productId(), location.quantity());
+            // OrderJournal.recover unwraps the entries of committed transactions and drops the rest
+            case JournalEntry.TransactionEntry transaction -> throw new IllegalArgumentException(
+                    "Transaction entries must be resolved before replay: " + transaction.transactionId());
+            case JournalEntry.TransactionCommitted committed -> throw new IllegalArgumentException(
+                    "Transaction markers must be resolved before replay: " + committed.transactionId());
+            case JournalEntry.TransactionAborted aborted -> throw new IllegalArgumentException(
+                    "Transaction markers must be resolved before replay: " + aborted.transactionId());
+        }
+    }
+
+    /**
+     * Sets the stock of products stocked per warehouse to the sum over their locations. Orders
+     * journal their location levels, but the product totals only with a refresh after the
+     * commit that may not have run before a crash.
+     */
+    void refreshLocationTotals() {
+        jdbcTemplate.update("UPDATE products p SET stock = (SELECT COALESCE(SUM(s.quantity), 0) FROM location_stock s "
+                + "WHERE s.product_id = p.id) WHERE p.stocked_by_location");
+    }
+
+    private void applyOrder(JournalEntry.OrderCreated order) {
+        jdbcTemplate.update("MERGE INTO orders (id, created_at, total_price, user_id, idempotency_key, request_hash) KEY (id) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)",
+                order.id(), Timestamp.valueOf(order.createdAt()), order.totalPrice(), order.userId(), order.idempotencyKey(),
+                order.requestHash());
+        jdbcTemplate.batchUpdate(
+                "MERGE INTO order_items (id, order_id, product_id, quantity, unit_price, discount) KEY (id) VALUES (?, ?, ?, ?, ?, ?)",
+                order.items().stream()
+                        .map(item -> new Object[]{item.id(), order.id(), item.productId(), item.quantity(), item.unitPrice(),
+                                item.discount()})
+                        .toList());
+        if (!order.stockLevels().isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE products SET stock = ? WHERE id = ?",
+                    order.stockLevels().stream()
+                            .map(level -> new Object[]{level.stock(), level.productId()})
+                            .toList());
+        }
+        if (!order.locationLevels().isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE location_stock SET quantity = ? WHERE id = ?",
+                    order.locationLevels().stream()
+                            .map(level -> new Object[]{level.quantity(), level.locationId()})
+                            .toList());
+        }
+    }
+
+    private void applyUser(JournalEntry.UserUpsert user) {
+        jdbcTemplate.update("MERGE INTO users (id, email, password, name) KEY (id) VALUES (?, ?, ?, ?)",
+                user.id(), user.email(), user.passwordHash(), user.name());
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id = ?", user.id());
+        for (String role : user.roles()) {
+            jdbcTemplate.update("INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)", user.id(), roleId(role));
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime time) {
+        return time == null ? null : Timestamp.valueOf(time);
+    }
+
+    private UUID roleId(String name) {
+        return roleIds.computeIfAbsent(name, roleName -> {
+            List<UUID> existing = jdbcTemplate.queryForList("SELECT id FROM roles WHERE name = ?", UUID.class, roleName);
+            if (!existing.isEmpty()) {
+                return existing.getFirst();
+            }
+            UUID id = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO roles (id, name) VALUES (?, ?)", id, roleName);
+            return id;
+        });
+    }
+}
@@ -0,0 +1,175 @@
+package com.inform.orderms.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * A fixed-size, memory-mapped journal file. Records are laid out back to back as
+ * {@code [length:int][crc32c:int][lsn:long][payload]}; the checksum covers the sequence
+ * number and the payload. A zero length marks the end of the written region.
+ */
+final class JournalSegment implements Closeable {
+
+    static final String SUFFIX = ".journal";
+
+    private static final int MAGIC = 0x4F4A524E;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 16;
+
+    private final Path path;
+    private final long firstLsn;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int flushedPosition;
+
+    private JournalSegment(Path path, long firstLsn, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.firstLsn = firstLsn;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static Path pathFor(Path directory, long firstLsn) {
+        return directory.resolve(String.format("%020d%s", firstLsn, SUFFIX));
+    }
+
+    static long firstLsnOf(Path segmentPath) {
+        String fileName = segmentPath.getFileName().toString();
+        return Long.parseLong(fileName.substring(0, fileName.length() - SUFFIX.length()));
+    }
+
+    static JournalSegment create(Path directory, long firstLsn, int size) throws IOException {
+        Path path = pathFor(directory, firstLsn);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION);
+        JournalSegment segment = new JournalSegment(path, firstLsn, channel, buffer);
+        segment.force();
+        return segment;
+    }
+
+    static JournalSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            channel.close();
+            throw new IOException("Not a journal segment: " + path);
+        }
+        buffer.position(HEADER_SIZE);
+        return new JournalSegment(path, firstLsnOf(path), channel, buffer);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long firstLsn() {
+        return firstLsn;
+    }
+
+    int position() {
+        return buffer.position();
+    }
+
+    boolean hasRoomFor(int payloadLength) {
+        return buffer.remaining() >= RECORD_HEADER_SIZE + payloadLength;
+    }
+
+    static boolean fitsInEmptySegment(int payloadLength, int segmentSize) {
+        return HEADER_SIZE + RECORD_HEADER_SIZE + payloadLength <= segmentSize;
+    }
+
+    void append(long lsn, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, lsn));
+        crc.update(payload);
+
+        int start = buffer.position();
+        buffer.position(start + 4);
+        buffer.putInt((int) crc.getValue());
+        buffer.putLong(lsn);
+        buffer.put(payload);
+        // The length goes in last so a torn write never looks like a complete record
+        buffer.putInt(start, payload.length);
+    }
+
+    void force() {
+        int position = buffer.position();
+        if (position > flushedPosition) {
+            buffer.force(flushedPosition, position - flushedPosition);
+            flushedPosition = position;
+        }
+    }
+
+    /**
+     * Reads records from the start of the segment until the first empty, truncated or
+     * corrupt record, or until the sequence numbers stop being contiguous. Leaves the write
+     * position directly after the last valid record and clears any torn record there.
+     *
+     * @return the sequence number the next appended record should get
+     */
+    long recover(long expectedLsn, BiConsumer<Long, byte[]> consumer) {
+        int position = HEADER_SIZE;
+        long nextLsn = expectedLsn;
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+            int storedCrc = buffer.getInt(position + 4);
+            long lsn = buffer.getLong(position + 8);
+            byte[] payload = new byte[length];
+            buffer.get(position + RECORD_HEADER_SIZE, payload);
+
+            CRC32C crc = new CRC32C();
+            crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, lsn));
+            crc.update(payload);
+            if ((int) crc.getValue() != storedCrc || lsn != nextLsn) {
+                break;
+            }
+
+            consumer.accept(lsn, payload);
+            nextLsn = lsn + 1;
+            position += RECORD_HEADER_SIZE + length;
+        }
+
+        clearTornRecord(position);
+        buffer.force();
+        buffer.position(position);
+        flushedPosition = position;
+        return nextLsn;
+    }
+
+    private void clearTornRecord(int position) {
+        if (position + RECORD_HEADER_SIZE > buffer.capacity()) {
+            return;
+        }
+        int length = buffer.getInt(position);
+        int end = length > 0 ? (int) Math.min(buffer.capacity(), (long) position + RECORD_HEADER_SIZE + length)
+                : position + RECORD_HEADER_SIZE;
+        for (int i = position; i < end; i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,274 @@
+package com.inform.orderms.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Periodically writes a compact image of products, warehouse stock, users, orders and promotions, after which
+ * journal segments that lie entirely before the image can be deleted. Startup then only replays
+ * the journal tail on top of the latest snapshot.
+ */
+@Slf4j
+public class JournalSnapshotter {
+
+    private static final String SUFFIX = ".snapshot";
+    private static final int MAGIC = 0x4F534E50;
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path directory;
+    private final OrderJournal journal;
+    private final JournalRecorder recorder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-journal-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public JournalSnapshotter(Path directory, OrderJournal journal, JournalRecorder recorder,
+                              JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.directory = directory;
+        this.journal = journal;
+        this.recorder = recorder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void start(Duration interval) {
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Writes a snapshot if anything was journaled since the last one and discards the
+     * segments and snapshots it supersedes.
+     */
+    public void snapshot() throws IOException, TimeoutException, InterruptedException {
+        long startLsn = recorder.awaitConsistentPoint(Duration.ofSeconds(30));
+        Optional<Long> latest = latestSnapshotLsn();
+        if (latest.isPresent() && latest.get() == startLsn) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        List<JournalEntry> entries = readState();
+        Path target = directory.resolve(String.format("%020d%s", startLsn, SUFFIX));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+
+        CRC32C crc = new CRC32C();
+        try (OutputStream file = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(startLsn);
+            out.writeInt(entries.size());
+            for (JournalEntry entry : entries) {
+                byte[] payload = JournalCodec.encode(entry);
+                out.writeInt(payload.length);
+                out.write(payload);
+            }
+            out.flush();
+            file.write(ByteBuffer.allocate(Long.BYTES).putLong(crc.getValue()).array());
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+
+        int discardedSegments = journal.discardBefore(startLsn);
+        deleteSnapshotsBefore(startLsn);
+        log.info("Journal snapshot at sequence {} with {} entries written in {} ms, {} segments discarded",
+                startLsn, entries.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                discardedSegments);
+    }
+
+    /**
+     * Loads the newest snapshot whose checksum verifies, skipping damaged ones.
+     */
+    public Optional<Snapshot> loadLatest() throws IOException {
+        for (Path path : snapshotPaths().reversed()) {
+            try {
+                return Optional.of(read(path));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Ignoring unreadable journal snapshot {}: {}", path.getFileName(), e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Snapshot read(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < 20 + Long.BYTES) {
+            throw new IOException("Snapshot is truncated");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.limit() - Long.BYTES);
+        if (crc.getValue() != buffer.getLong(buffer.limit() - Long.BYTES)) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            throw new IOException("Not a journal snapshot");
+        }
+        long lsn = buffer.getLong();
+        int count = buffer.getInt();
+        List<JournalEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] payload = new byte[buffer.getInt()];
+            buffer.get(payload);
+            entries.add(JournalCodec.decode(payload));
+        }
+        return new Snapshot(lsn, entries);
+    }
+
+    private List<JournalEntry> readState() {
+        // Read-write on purpose: a read-only transaction could be routed to a lagging replica
+        return transactionTemplate.execute(status -> {
+            List<JournalEntry> entries = new ArrayList<>(jdbcTemplate.query(
+                    "SELECT id, name, price, stock, stocked_by_location FROM products",
+                    (rs, rowNum) -> new JournalEntry.ProductUpsert(rs.getObject("id", UUID.class),
+                            rs.getString("name"), rs.getBigDecimal("price"), rs.getInt("stock"),
+                            rs.getBoolean("stocked_by_location"))));
+            entries.addAll(readWarehouses());
+            entries.addAll(readLocationStock());
+            entries.addAll(readUsers());
+            entries.addAll(readOrders());
+            entries.addAll(readPromotions());
+            return entries;
+        });
+    }
+
+    private List<JournalEntry.WarehouseUpsert> readWarehouses() {
+        return jdbcTemplate.query("SELECT id, name, distance FROM warehouses", (rs, rowNum) ->
+                new JournalEntry.WarehouseUpsert(rs.getObject("id", UUID.class), rs.getString("name"), rs.getInt("distance")));
+    }
+
+    // After products and warehouses, which the rows belong to
+    private List<JournalEntry.LocationStockUpsert> readLocationStock() {
+        return jdbcTemplate.query("SELECT id, warehouse_id, product_id, quantity FROM location_stock", (rs, rowNum) ->
+                new JournalEntry.LocationStockUpsert(rs.getObject("id", UUID.class),
+                        rs.getObject("warehouse_id", UUID.class), rs.getObject("product_id", UUID.class),
+                        rs.getInt("quantity")));
+    }
+
+    private List<JournalEntry.UserUpsert> readUsers() {
+        Map<UUID, Set<String>> roles = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT ur.user_id, r.name FROM user_roles ur JOIN roles r ON r.id = ur.role_id",
+                rs -> {
+                    roles.computeIfAbsent(rs.getObject("user_id", UUID.class), id -> new LinkedHashSet<>())
+                            .add(rs.getString("name"));
+                });
+        return jdbcTemplate.query("SELECT id, email, password, name FROM users", (rs, rowNum) -> {
+            UUID id = rs.getObject("id", UUID.class);
+            return new JournalEntry.UserUpsert(id, rs.getString("email"), rs.getString("password"),
+                    rs.getString("name"), roles.getOrDefault(id, Set.of()));
+        });
+    }
+
+    private List<JournalEntry.OrderCreated> readOrders() {
+        Map<UUID, List<JournalEntry.Item>> items = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, order_id, product_id, quantity, unit_price, discount FROM order_items", rs -> {
+            items.computeIfAbsent(rs.getObject("order_id", UUID.class), id -> new ArrayList<>())
+                    .add(new JournalEntry.Item(rs.getObject("id", UUID.class), rs.getObject("product_id", UUID.class),
+                            rs.getInt("quantity"), rs.getBigDecimal("unit_price"), rs.getBigDecimal("discount")));
+        });
+        return jdbcTemplate.query("SELECT id, created_at, total_price, user_id, idempotency_key, request_hash "
+                + "FROM orders", (rs, rowNum) -> {
+            UUID id = rs.getObject("id", UUID.class);
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            BigDecimal totalPrice = rs.getBigDecimal("total_price");
+            return new JournalEntry.OrderCreated(id, createdAt.toLocalDateTime(), totalPrice,
+                    rs.getObject("user_id", UUID.class), rs.getString("idempotency_key"), rs.getString("request_hash"),
+                    items.getOrDefault(id, List.of()), List.of(), List.of());
+        });
+    }
+
+    private List<JournalEntry.PromotionUpsert> readPromotions() {
+        return jdbcTemplate.query("SELECT id, name, type, product_id, percent_off, amount, min_quantity, buy_quantity, "
+                + "free_quantity, starts_at, ends_at FROM promotions", (rs, rowNum) -> {
+            Timestamp startsAt = rs.getTimestamp("starts_at");
+            Timestamp endsAt = rs.getTimestamp("ends_at");
+            return new JournalEntry.PromotionUpsert(rs.getObject("id", UUID.class), rs.getString("name"),
+                    rs.getString("type"), rs.getObject("product_id", UUID.class),
+                    rs.getObject("percent_off", Integer.class), rs.getBigDecimal("amount"),
+                    rs.getObject("min_quantity", Integer.class), rs.getObject("buy_quantity", Integer.class),
+                    rs.getObject("free_quantity", Integer.class),
+                    startsAt == null ? null : startsAt.toLocalDateTime(), endsAt == null ? null : endsAt.toLocalDateTime());
+        });
+    }
+
+    private Optional<Long> latestSnapshotLsn() throws IOException {
+        List<Path> paths = snapshotPaths();
+        return paths.isEmpty() ? Optional.empty() : Optional.of(lsnOf(paths.getLast()));
+    }
+
+    private void deleteSnapshotsBefore(long lsn) throws IOException {
+        for (Path path : snapshotPaths()) {
+            if (lsnOf(path) < lsn) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private List<Path> snapshotPaths() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing(JournalSnapshotter::lsnOf))
+                    .toList();
+        }
+    }
+
+    private static long lsnOf(Path path) {
+        String fileName = path.getFileName().toString();
+        return Long.parseLong(fileName.substring(0, fileName.length() - SUFFIX.length()));
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Journal snapshot failed", e);
+        }
+    }
+
+    public record Snapshot(long lsn, List<JournalEntry> entries) {
+    }
+}
@@ -0,0 +1,298 @@
+package com.inform.orderms.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, segmented journal of committed state changes. A single writer thread drains
+ * pending appends in batches and forces each batch to disk with one fsync (group commit);
+ * callers wait on the returned future for their sequence number.
+ */
+@Slf4j
+public class OrderJournal implements Closeable {
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+    private final int maxBatchSize;
+
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final ReentrantLock segmentsLock = new ReentrantLock();
+    private final NavigableMap<Long, Path> closedSegments = new TreeMap<>();
+    private final AtomicLong appendedEntries = new AtomicLong();
+    private final AtomicLong groupCommits = new AtomicLong();
+
+    private JournalSegment activeSegment;
+    private volatile long nextLsn = 1;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public OrderJournal(Path directory, int segmentSize, boolean fsync, int maxBatchSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Scans every segment in order, handing entries with a sequence number of at least
+     * {@code fromLsn} to the consumer, and positions the journal after the last valid record.
+     * Entries a transaction recorded are handed over unwrapped, in the order they were
+     * appended, and only if the transaction's commit marker follows them; the rest were never
+     * acknowledged. Must be called once, before {@link #start()}.
+     *
+     * @return the number of entries handed to the consumer
+     */
+    public long recover(long fromLsn, BiConsumer<Long, JournalEntry> consumer) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segmentPaths;
+        try (Stream<Path> files = Files.list(directory)) {
+            segmentPaths = files.filter(path -> path.getFileName().toString().endsWith(JournalSegment.SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        // Whether a transaction committed is only known once its marker is read, so collect the tail first
+        List<Recovered> tail = new ArrayList<>();
+        Set<UUID> committed = new HashSet<>();
+        long expectedLsn = fromLsn;
+        JournalSegment lastSegment = null;
+        for (int i = 0; i < segmentPaths.size(); i++) {
+            Path path = segmentPaths.get(i);
+            long firstLsn = JournalSegment.firstLsnOf(path);
+            if (lastSegment != null && firstLsn != expectedLsn) {
+                log.warn("Journal segment {} does not continue at sequence {}, setting it and later segments aside",
+                        path.getFileName(), expectedLsn);
+                for (Path ignored : segmentPaths.subList(i, segmentPaths.size())) {
+                    Files.move(ignored, ignored.resolveSibling(ignored.getFileName() + ".corrupt"));
+                }
+                break;
+            }
+            if (lastSegment == null && firstLsn > fromLsn) {
+                log.error("Journal starts at sequence {} but {} was expected, entries in between are lost",
+                        firstLsn, fromLsn);
+            }
+
+            if (lastSegment != null) {
+                closedSegments.put(lastSegment.firstLsn(), lastSegment.path());
+                lastSegment.close();
+            }
+            lastSegment = JournalSegment.open(path);
+            expectedLsn = lastSegment.recover(firstLsn, (lsn, payload) -> {
+                if (lsn >= fromLsn) {
+                    JournalEntry entry = JournalCodec.decode(payload);
+                    if (entry instanceof JournalEntry.TransactionCommitted marker) {
+                        committed.add(marker.transactionId());
+                    } else if (!(entry instanceof JournalEntry.TransactionAborted)) {
+                        tail.add(new Recovered(lsn, entry));
+                    }
+                }
+            });
+        }
+
+        long replayed = 0;
+        long discarded = 0;
+        for (Recovered recovered : tail) {
+            JournalEntry entry = recovered.entry();
+            if (entry instanceof JournalEntry.TransactionEntry transaction) {
+                if (!committed.contains(transaction.transactionId())) {
+                    discarded++;
+                    continue;
+                }
+                entry = transaction.entry();
+            }
+            consumer.accept(recovered.lsn(), entry);
+            replayed++;
+        }
+        if (discarded > 0) {
+            log.info("Skipped {} journal entries of transactions that did not commit", discarded);
+        }
+
+        if (lastSegment != null && expectedLsn < fromLsn) {
+            // The snapshot is ahead of the journal (possible with fsync disabled): keep
+            // sequence numbers contiguous within a segment by starting a fresh one
+            closedSegments.put(lastSegment.firstLsn(), lastSegment.path());
+            lastSegment.close();
+            lastSegment = null;
+        }
+        if (lastSegment == null) {
+            lastSegment = JournalSegment.create(directory, fromLsn, segmentSize);
+            expectedLsn = fromLsn;
+        }
+        activeSegment = lastSegment;
+        nextLsn = expectedLsn;
+        return replayed;
+    }
+
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::writeLoop, "order-journal-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queues an entry for the next group commit. The future completes with the entry's
+     * sequence number once it has been written and, if enabled, forced to disk.
+     */
+    public CompletableFuture<Long> append(JournalEntry entry) {
+        byte[] payload = JournalCodec.encode(entry);
+        if (!JournalSegment.fitsInEmptySegment(payload.length, segmentSize)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "Journal entry of " + payload.length + " bytes exceeds the segment size"));
+        }
+        PendingAppend pending = new PendingAppend(payload, new CompletableFuture<>());
+        queue.add(pending);
+        return pending.future();
+    }
+
+    /**
+     * Sequence number the next appended entry will receive. Every entry below it has already
+     * been written to a segment.
+     */
+    public long nextLsn() {
+        return nextLsn;
+    }
+
+    /**
+     * Deletes closed segments that only contain entries below the given sequence number.
+     */
+    public int discardBefore(long lsn) {
+        segmentsLock.lock();
+        try {
+            int deleted = 0;
+            while (closedSegments.size() > 0) {
+                Map.Entry<Long, Path> oldest = closedSegments.firstEntry();
+                Long nextFirstLsn = closedSegments.higherKey(oldest.getKey());
+                long segmentEnd = nextFirstLsn != null ? nextFirstLsn : activeSegment.firstLsn();
+                if (segmentEnd > lsn) {
+                    break;
+                }
+                Files.deleteIfExists(oldest.getValue());
+                closedSegments.pollFirstEntry();
+                deleted++;
+            }
+            return deleted;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            segmentsLock.unlock();
+        }
+    }
+
+    public int segmentCount() {
+        segmentsLock.lock();
+        try {
+            return closedSegments.size() + 1;
+        } finally {
+            segmentsLock.unlock();
+        }
+    }
+
+    public long appendedEntries() {
+        return appendedEntries.get();
+    }
+
+    public long groupCommits() {
+        return groupCommits.get();
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Journal write failed for {} entries", batch.size(), e);
+                batch.forEach(pending -> pending.future().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingAppend> batch) throws IOException {
+        long[] lsns = new long[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            byte[] payload = batch.get(i).payload();
+            if (!activeSegment.hasRoomFor(payload.length)) {
+                rollSegment();
+            }
+            long lsn = nextLsn;
+            activeSegment.append(lsn, payload);
+            lsns[i] = lsn;
+            nextLsn = lsn + 1;
+        }
+        if (fsync) {
+            activeSegment.force();
+        }
+        appendedEntries.addAndGet(batch.size());
+        groupCommits.incrementAndGet();
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future().complete(lsns[i]);
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        JournalSegment next = JournalSegment.create(directory, nextLsn, segmentSize);
+        segmentsLock.lock();
+        try {
+            activeSegment.close();
+            closedSegments.put(activeSegment.firstLsn(), activeSegment.path());
+            activeSegment = next;
+        } finally {
+            segmentsLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (writerThread != null) {
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (activeSegment != null) {
+            activeSegment.close();
+        }
+    }
+
+    private record PendingAppend(byte[] payload, CompletableFuture<Long> future) {
+    }
+
+    private record Recovered(long lsn, JournalEntry entry) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.inform.orderms.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * The stock of one product held at one warehouse. Orders decrement it with a conditional
+ * update rather than a versioned read-modify-write, so it carries no version.
+ */
+@Entity
+@Table(name = "location_stock", uniqueConstraints = @UniqueConstraint(columnNames = {"warehouse_id", "product_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "warehouse_id", nullable = false)
+    private UUID warehouseId;
+
+    // Named like the join column below, so both map to one logical column
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    // Read-only association for the foreign key, so deleting a product deletes its location stock
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JsonIgnore
+    private Product product;
+}
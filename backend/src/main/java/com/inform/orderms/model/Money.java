@@ -0,0 +1,100 @@
+package com.inform.orderms.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money in cents, the unit of the {@code precision = 10, scale = 2} price columns.
+ * Arithmetic works on the {@code long} and throws {@link ArithmeticException} on overflow instead
+ * of wrapping, so pricing a cart allocates nothing but the results it returns.
+ * <p>
+ * Serializes as the same decimal number as the {@code BigDecimal} it replaces, with two
+ * fraction digits, and is stored through {@link MoneyConverter}.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public static final Money ZERO = new Money(0);
+
+    private static final int SCALE = 2;
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Rounds half up to whole cents, like the database does for the price columns.
+     *
+     * @throws ArithmeticException if the amount does not fit in a {@code long} of cents
+     */
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        return of(amount, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * @throws ArithmeticException if the amount does not fit in a {@code long} of cents, or has
+     *                             fractions of a cent and {@code rounding} is {@code UNNECESSARY}
+     */
+    public static Money of(BigDecimal amount, RoundingMode rounding) {
+        return ofCents(amount.setScale(SCALE, rounding).unscaledValue().longValueExact());
+    }
+
+    public long cents() {
+        return cents;
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(int quantity) {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
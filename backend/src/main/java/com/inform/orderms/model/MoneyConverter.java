@@ -0,0 +1,27 @@
+package com.inform.orderms.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/**
+ * Stores {@link Money} in the existing {@code numeric(10, 2)} columns. Applied to every
+ * {@code Money} attribute; query parameters compared with such an attribute are converted too.
+ * {@code @Immutable} lets Hibernate keep the value itself as the dirty-checking snapshot.
+ */
+@Converter(autoApply = true)
+@Immutable
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal amount) {
+        return amount == null ? null : Money.of(amount);
+    }
+}
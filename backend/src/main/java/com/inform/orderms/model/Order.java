@@ -1,17 +1,18 @@
 package com.inform.orderms.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", uniqueConstraints = @UniqueConstraint(columnNames = {"userId", "idempotencyKey"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,11 +26,25 @@ public class Order {
     private LocalDateTime createdAt;
 
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal totalPrice;
+    private Money totalPrice;
 
     @Column(nullable = true)
     private UUID userId;
 
+    @Column(nullable = true, length = 255)
+    @JsonIgnore
+    private String idempotencyKey;
+
+    // SHA-256 of the items ordered with idempotencyKey, so reusing the key for another cart is a conflict
+    @Column(nullable = true, length = 64)
+    @JsonIgnore
+    private String requestHash;
+
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    private Long version;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<OrderItem> orderItems;
 
@@ -2,11 +2,11 @@ package com.inform.orderms.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-import java.math.BigDecimal;
 import java.util.UUID;
 
 @Entity
@@ -33,5 +33,10 @@ public class OrderItem {
     private Integer quantity;
 
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal unitPrice;
+    private Money unitPrice;
+
+    // Promotions taken off unitPrice x quantity; defaulted for rows restored from older journal entries
+    @Column(nullable = false, precision = 10, scale = 2)
+    @ColumnDefault("0")
+    private Money discount = Money.ZERO;
 }
\ No newline at end of file
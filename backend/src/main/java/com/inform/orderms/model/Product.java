@@ -2,11 +2,11 @@ package com.inform.orderms.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-import java.math.BigDecimal;
 import java.util.UUID;
 
 @Entity
@@ -24,8 +24,21 @@ public class Product {
     private String name;
 
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal price;
+    private Money price;
 
+    // Sum of the product's location stock once it has any; otherwise the only stock record
     @Column(nullable = false)
     private Integer stock;
+
+    // Set once stock is kept per warehouse; orders then allocate from location stock
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    @JsonIgnore
+    private boolean stockedByLocation;
+
+    // Defaulted so rows restored from the journal with plain SQL start at version 0
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    private Long version;
 }
\ No newline at end of file
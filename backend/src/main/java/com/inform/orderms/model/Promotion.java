@@ -0,0 +1,80 @@
+package com.inform.orderms.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A pricing rule applied when carts are priced. Which fields are used depends on the type:
+ * <ul>
+ *   <li>{@code PERCENTAGE}: {@code percentOff} of the line</li>
+ *   <li>{@code FIXED_AMOUNT}: {@code amount} off each unit</li>
+ *   <li>{@code BUY_X_GET_Y}: every {@code buyQuantity} units bought, {@code freeQuantity} more are free</li>
+ *   <li>{@code VOLUME_TIER}: unit price {@code amount} from {@code minQuantity} units on</li>
+ *   <li>{@code PRICE_OVERRIDE}: unit price {@code amount} instead of the product price</li>
+ * </ul>
+ * Percentage and fixed discounts apply to every product when {@code productId} is null; the
+ * other types need a product. The rule is active from {@code startsAt} (inclusive) until
+ * {@code endsAt} (exclusive); either may be null for an open end.
+ */
+@Entity
+@Table(name = "promotions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Promotion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Type type;
+
+    @Column(nullable = true)
+    private UUID productId;
+
+    @Column(nullable = true)
+    private Integer percentOff;
+
+    @Column(nullable = true, precision = 10, scale = 2)
+    private Money amount;
+
+    @Column(nullable = true)
+    private Integer minQuantity;
+
+    @Column(nullable = true)
+    private Integer buyQuantity;
+
+    @Column(nullable = true)
+    private Integer freeQuantity;
+
+    @Column(nullable = true)
+    private LocalDateTime startsAt;
+
+    @Column(nullable = true)
+    private LocalDateTime endsAt;
+
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    private Long version;
+
+    public enum Type {
+        PERCENTAGE,
+        FIXED_AMOUNT,
+        BUY_X_GET_Y,
+        VOLUME_TIER,
+        PRICE_OVERRIDE
+    }
+}
@@ -0,0 +1,34 @@
+package com.inform.orderms.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "warehouses")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Warehouse {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+
+    // Kilometres to the customers it ships to; orders carry no address, so this ranks warehouses for NEAREST
+    @Column(nullable = false)
+    private Integer distance;
+
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    private Long version;
+}
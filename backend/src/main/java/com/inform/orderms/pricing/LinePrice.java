@@ -0,0 +1,10 @@
+package com.inform.orderms.pricing;
+
+import com.inform.orderms.model.Money;
+
+/**
+ * The price of one cart line: the unit price after overrides and volume tiers, the promotions
+ * taken off {@code unitPrice x quantity}, and what the customer pays.
+ */
+public record LinePrice(Money unitPrice, Money discount, Money total) {
+}
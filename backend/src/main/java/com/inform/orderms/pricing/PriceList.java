@@ -0,0 +1,91 @@
+package com.inform.orderms.pricing;
+
+import com.inform.orderms.model.Product;
+import com.inform.orderms.model.Promotion;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The promotions active at one point in time, compiled into one {@link ProductRules} per
+ * product that has its own promotions plus one for every other product. Pricing a line is a
+ * map lookup and a few arithmetic steps, however many promotions exist. Immutable, so a cart
+ * priced with one instance gets the same result every time.
+ */
+public final class PriceList {
+
+    public static final PriceList EMPTY = new PriceList(Map.of(), ProductRules.NONE, null, 0);
+
+    private final Map<UUID, ProductRules> rules;
+    private final ProductRules defaults;
+    private final LocalDateTime validUntil;
+    private final int activePromotions;
+
+    private PriceList(Map<UUID, ProductRules> rules, ProductRules defaults, LocalDateTime validUntil,
+                      int activePromotions) {
+        this.rules = rules;
+        this.defaults = defaults;
+        this.validUntil = validUntil;
+        this.activePromotions = activePromotions;
+    }
+
+    /**
+     * Compiles the promotions active at {@code now}. The result is valid until the next time a
+     * promotion starts or ends.
+     */
+    public static PriceList compile(Collection<Promotion> promotions, LocalDateTime now) {
+        ProductRules.Builder storeWide = new ProductRules.Builder();
+        Map<UUID, ProductRules.Builder> builders = new HashMap<>();
+        LocalDateTime validUntil = null;
+        int active = 0;
+
+        for (Promotion promotion : promotions) {
+            if (promotion.getStartsAt() != null && promotion.getStartsAt().isAfter(now)) {
+                validUntil = earliest(validUntil, promotion.getStartsAt());
+                continue;
+            }
+            if (promotion.getEndsAt() != null) {
+                if (!promotion.getEndsAt().isAfter(now)) {
+                    continue;
+                }
+                validUntil = earliest(validUntil, promotion.getEndsAt());
+            }
+            ProductRules.Builder builder = promotion.getProductId() == null
+                    ? storeWide
+                    : builders.computeIfAbsent(promotion.getProductId(), productId -> new ProductRules.Builder());
+            builder.add(promotion);
+            active++;
+        }
+
+        Map<UUID, ProductRules> rules = HashMap.newHashMap(builders.size());
+        builders.forEach((productId, builder) -> rules.put(productId, builder.build(storeWide)));
+        return new PriceList(rules, storeWide.build(null), validUntil, active);
+    }
+
+    public LinePrice price(Product product, int quantity) {
+        return rules.getOrDefault(product.getId(), defaults).price(product.getPrice(), quantity);
+    }
+
+    public boolean isValidAt(LocalDateTime time) {
+        return validUntil == null || time.isBefore(validUntil);
+    }
+
+    /**
+     * @return when a promotion next starts or ends, or empty if none will
+     */
+    public Optional<LocalDateTime> validUntil() {
+        return Optional.ofNullable(validUntil);
+    }
+
+    public int activePromotions() {
+        return activePromotions;
+    }
+
+    private static LocalDateTime earliest(LocalDateTime current, LocalDateTime candidate) {
+        return current == null || candidate.isBefore(current) ? candidate : current;
+    }
+}
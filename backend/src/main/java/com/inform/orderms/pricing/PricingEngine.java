@@ -0,0 +1,143 @@
+package com.inform.orderms.pricing;
+
+import com.inform.orderms.event.PromotionDeletedEvent;
+import com.inform.orderms.event.PromotionSavedEvent;
+import com.inform.orderms.model.Promotion;
+import com.inform.orderms.repository.PromotionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the compiled {@link PriceList} that cart pricing and order creation share. It is
+ * compiled at startup, again after every committed promotion change, and again when a
+ * promotion starts or ends. Compilation runs on one background thread, scheduled for the
+ * moment the current list expires; requests only read the current instance, so one arriving
+ * while the next list compiles is priced with the one that just expired.
+ */
+@Component
+@Slf4j
+public class PricingEngine implements DisposableBean {
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+
+    private final PromotionRepository promotionRepository;
+    private final TransactionTemplate changeTemplate;
+    private final TransactionTemplate boundaryTemplate;
+    private final ScheduledExecutorService compiler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "price-list-compiler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile PriceList priceList;
+    // Only touched on the compiler thread
+    private ScheduledFuture<?> nextCompile;
+
+    public PricingEngine(PromotionRepository promotionRepository, PlatformTransactionManager transactionManager) {
+        this.promotionRepository = promotionRepository;
+        // Read-write, so a promotion just committed is read from the primary rather than a lagging replica
+        this.changeTemplate = new TransactionTemplate(transactionManager);
+        // Nothing changed since the last compilation when a promotion starts or ends, so a replica will do
+        this.boundaryTemplate = new TransactionTemplate(transactionManager);
+        this.boundaryTemplate.setReadOnly(true);
+    }
+
+    // After journal recovery has restored the promotions, before the first cart is priced
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        await(recompile());
+    }
+
+    /**
+     * Returns the current price list without querying; only a request arriving before the
+     * first compilation has finished waits for it.
+     */
+    public PriceList current() {
+        PriceList current = priceList;
+        if (current != null) {
+            return current;
+        }
+        return await(compiler.submit(() -> priceList != null ? priceList : compile(changeTemplate)));
+    }
+
+    // Waits, so the change applies to the next cart its author prices
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPromotionSaved(PromotionSavedEvent event) {
+        await(recompile());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPromotionDeleted(PromotionDeletedEvent event) {
+        await(recompile());
+    }
+
+    // As the caller, so the read-write transaction counts as their write rather than the system's
+    private Future<PriceList> recompile() {
+        return compiler.submit(new DelegatingSecurityContextCallable<>(() -> compile(changeTemplate)));
+    }
+
+    private void compileAtBoundary() {
+        try {
+            compile(boundaryTemplate);
+        } catch (RuntimeException e) {
+            log.error("Failed to compile the price list, retrying in {}", RETRY_DELAY, e);
+            nextCompile = compiler.schedule(this::compileAtBoundary, RETRY_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private PriceList compile(TransactionTemplate transactionTemplate) {
+        long started = System.nanoTime();
+        List<Promotion> promotions = transactionTemplate.execute(status -> promotionRepository.findAll());
+        PriceList compiled = PriceList.compile(promotions, LocalDateTime.now());
+        priceList = compiled;
+        scheduleExpiry(compiled);
+        log.info("Compiled {} active of {} promotions in {} ms", compiled.activePromotions(), promotions.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return compiled;
+    }
+
+    private void scheduleExpiry(PriceList compiled) {
+        if (nextCompile != null) {
+            nextCompile.cancel(false);
+        }
+        // One millisecond late, so the promotion has started or ended by the time it runs
+        nextCompile = compiled.validUntil()
+                .map(validUntil -> compiler.schedule(this::compileAtBoundary,
+                        Math.max(0, Duration.between(LocalDateTime.now(), validUntil).toMillis()) + 1,
+                        TimeUnit.MILLISECONDS))
+                .orElse(null);
+    }
+
+    private static PriceList await(Future<PriceList> compilation) {
+        try {
+            return compilation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while the price list compiled", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        compiler.shutdownNow();
+    }
+}
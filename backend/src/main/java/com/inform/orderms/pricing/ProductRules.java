@@ -0,0 +1,133 @@
+package com.inform.orderms.pricing;
+
+import com.inform.orderms.model.Money;
+import com.inform.orderms.model.Promotion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The active promotions of one product, reduced to what pricing a line needs: the override
+ * price, the volume tiers, the buy-X-get-Y offers and the best percentage and per-unit discount.
+ * Pricing a line reads these fields only; nothing is looked up or filtered per request.
+ */
+final class ProductRules {
+
+    static final ProductRules NONE = new Builder().build(null);
+
+    private final long overrideCents;
+    private final int[] tierQuantities;
+    private final long[] tierCents;
+    private final int[] buyQuantities;
+    private final int[] freeQuantities;
+    private final int percentOff;
+    private final long amountOffCents;
+
+    private ProductRules(long overrideCents, int[] tierQuantities, long[] tierCents, int[] buyQuantities,
+                         int[] freeQuantities, int percentOff, long amountOffCents) {
+        this.overrideCents = overrideCents;
+        this.tierQuantities = tierQuantities;
+        this.tierCents = tierCents;
+        this.buyQuantities = buyQuantities;
+        this.freeQuantities = freeQuantities;
+        this.percentOff = percentOff;
+        this.amountOffCents = amountOffCents;
+    }
+
+    /**
+     * The override replaces the list price, a volume tier lowers the unit price further, free
+     * units are taken off, and then the better of the percentage and the per-unit discount
+     * applies to the units paid for. The two discounts do not stack.
+     */
+    LinePrice price(Money listPrice, int quantity) {
+        long unitCents = overrideCents >= 0 ? overrideCents : listPrice.cents();
+        // Tiers are sorted by quantity, highest first, with prices falling as quantities rise
+        for (int i = 0; i < tierQuantities.length; i++) {
+            if (quantity >= tierQuantities[i]) {
+                unitCents = Math.min(unitCents, tierCents[i]);
+                break;
+            }
+        }
+
+        int freeUnits = 0;
+        for (int i = 0; i < buyQuantities.length; i++) {
+            int offerSize = buyQuantities[i] + freeQuantities[i];
+            freeUnits = Math.max(freeUnits, quantity / offerSize * freeQuantities[i]);
+        }
+        int paidUnits = quantity - freeUnits;
+
+        long grossCents = Math.multiplyExact(unitCents, quantity);
+        long payableCents = Math.multiplyExact(unitCents, paidUnits);
+        long percentCents = (Math.multiplyExact(payableCents, percentOff) + 50) / 100;
+        long amountCents = Math.min(payableCents, Math.multiplyExact(amountOffCents, paidUnits));
+        long discountCents = grossCents - payableCents + Math.max(percentCents, amountCents);
+
+        return new LinePrice(Money.ofCents(unitCents), Money.ofCents(discountCents),
+                Money.ofCents(grossCents - discountCents));
+    }
+
+    /**
+     * Collects the promotions of one product, or the store-wide ones. Where several promotions
+     * of a kind overlap, the one best for the customer wins: the lowest override, the lowest
+     * price per tier quantity, the highest percentage and the highest amount.
+     */
+    static final class Builder {
+
+        private long overrideCents = -1;
+        private final Map<Integer, Long> tiers = new TreeMap<>();
+        private final List<int[]> offers = new ArrayList<>();
+        private int percentOff;
+        private long amountOffCents;
+
+        void add(Promotion promotion) {
+            switch (promotion.getType()) {
+                case PERCENTAGE -> percentOff = Math.max(percentOff, promotion.getPercentOff());
+                case FIXED_AMOUNT -> amountOffCents = Math.max(amountOffCents, promotion.getAmount().cents());
+                case BUY_X_GET_Y -> offers.add(new int[]{promotion.getBuyQuantity(), promotion.getFreeQuantity()});
+                case VOLUME_TIER -> tiers.merge(promotion.getMinQuantity(), promotion.getAmount().cents(), Math::min);
+                case PRICE_OVERRIDE -> overrideCents = overrideCents < 0
+                        ? promotion.getAmount().cents()
+                        : Math.min(overrideCents, promotion.getAmount().cents());
+            }
+        }
+
+        /**
+         * @param storeWide store-wide promotions to fold in, or null when building those
+         */
+        ProductRules build(Builder storeWide) {
+            long override = overrideCents >= 0 || storeWide == null ? overrideCents : storeWide.overrideCents;
+            Map<Integer, Long> allTiers = new TreeMap<>(tiers);
+            List<int[]> allOffers = new ArrayList<>(offers);
+            int percent = percentOff;
+            long amount = amountOffCents;
+            if (storeWide != null) {
+                storeWide.tiers.forEach((quantity, cents) -> allTiers.merge(quantity, cents, Math::min));
+                allOffers.addAll(storeWide.offers);
+                percent = Math.max(percent, storeWide.percentOff);
+                amount = Math.max(amount, storeWide.amountOffCents);
+            }
+
+            // Ascending pass, so a larger quantity never gets a higher tier price than a smaller one
+            int[] tierQuantities = new int[allTiers.size()];
+            long[] tierCents = new long[allTiers.size()];
+            int index = allTiers.size();
+            long lowest = Long.MAX_VALUE;
+            for (Map.Entry<Integer, Long> tier : allTiers.entrySet()) {
+                lowest = Math.min(lowest, tier.getValue());
+                index--;
+                tierQuantities[index] = tier.getKey();
+                tierCents[index] = lowest;
+            }
+
+            int[] buyQuantities = new int[allOffers.size()];
+            int[] freeQuantities = new int[allOffers.size()];
+            for (int i = 0; i < allOffers.size(); i++) {
+                buyQuantities[i] = allOffers.get(i)[0];
+                freeQuantities[i] = allOffers.get(i)[1];
+            }
+            return new ProductRules(override, tierQuantities, tierCents, buyQuantities, freeQuantities, percent, amount);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.inform.orderms.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+/**
+ * Runs a {@link Specification} as a tuple query over a subset of an entity's basic attributes,
+ * so only those columns are read. Each tuple element is aliased with its attribute name.
+ */
+final class ColumnQueries {
+
+    private ColumnQueries() {
+    }
+
+    static <T> Page<Tuple> findColumns(EntityManager entityManager, Class<T> type, Specification<T> spec,
+                                       List<String> columns, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(type);
+        List<Selection<?>> selections = columns.stream()
+                .<Selection<?>>map(column -> root.get(column).alias(column))
+                .toList();
+        query.multiselect(selections);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isUnpaged()) {
+            List<Tuple> rows = typedQuery.getResultList();
+            return new PageImpl<>(rows, pageable, rows.size());
+        }
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(pageable.getPageSize());
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable,
+                () -> count(entityManager, type, spec));
+    }
+
+    private static <T> long count(EntityManager entityManager, Class<T> type, Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        query.select(cb.count(root));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
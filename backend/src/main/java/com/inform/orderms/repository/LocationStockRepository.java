@@ -0,0 +1,48 @@
+package com.inform.orderms.repository;
+
+import com.inform.orderms.model.LocationStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface LocationStockRepository extends JpaRepository<LocationStock, UUID> {
+    List<LocationStock> findByProductId(UUID productId);
+
+    @Query("SELECT s.id AS id, s.warehouseId AS warehouseId, s.productId AS productId, s.quantity AS quantity, " +
+           "w.distance AS distance FROM LocationStock s, Warehouse w " +
+           "WHERE w.id = s.warehouseId AND s.productId IN :productIds")
+    List<LocationRow> findLocationRows(@Param("productIds") Collection<UUID> productIds);
+
+    // Takes stock from one location in one statement; updates nothing when it holds too little
+    @Modifying
+    @Query("UPDATE LocationStock s SET s.quantity = s.quantity - :quantity WHERE s.id = :id AND s.quantity >= :quantity")
+    int decrement(@Param("id") UUID id, @Param("quantity") int quantity);
+
+    // Adds or, with a negative change, takes stock; updates nothing when the location holds too little
+    @Modifying
+    @Query("UPDATE LocationStock s SET s.quantity = s.quantity + :change WHERE s.id = :id AND s.quantity + :change >= 0")
+    int adjust(@Param("id") UUID id, @Param("change") int change);
+
+    @Query("SELECT s.id AS id, s.quantity AS quantity FROM LocationStock s WHERE s.id IN :ids")
+    List<LocationQuantity> findQuantities(@Param("ids") Collection<UUID> ids);
+
+    interface LocationRow {
+        UUID getId();
+        UUID getWarehouseId();
+        UUID getProductId();
+        Integer getQuantity();
+        Integer getDistance();
+    }
+
+    interface LocationQuantity {
+        UUID getId();
+        Integer getQuantity();
+    }
+}
@@ -0,0 +1,18 @@
+package com.inform.orderms.repository;
+
+import com.inform.orderms.model.Order;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface OrderProjections {
+
+    /**
+     * Reads only the given order attributes of the matching rows, without touching order items;
+     * tuple elements are aliased by attribute name.
+     */
+    Page<Tuple> findColumns(Specification<Order> spec, List<String> columns, Pageable pageable);
+}
@@ -0,0 +1,22 @@
+package com.inform.orderms.repository;
+
+import com.inform.orderms.model.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+class OrderProjectionsImpl implements OrderProjections {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Tuple> findColumns(Specification<Order> spec, List<String> columns, Pageable pageable) {
+        return ColumnQueries.findColumns(entityManager, Order.class, spec, columns, pageable);
+    }
+}
@@ -1,17 +1,47 @@
 package com.inform.orderms.repository;
 
+import com.inform.orderms.model.Money;
 import com.inform.orderms.model.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecificationExecutor<Order> {
+public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecificationExecutor<Order>, OrderProjections {
     List<Order> findByUserId(UUID userId);
     Page<Order> findByUserId(UUID userId, Pageable pageable);
+    Optional<Order> findByUserIdAndIdempotencyKey(UUID userId, String idempotencyKey);
+
+    @Query("SELECT oi.order.id AS orderId, oi.id AS id, p.id AS productId, p.name AS productName, " +
+           "oi.unitPrice AS unitPrice, oi.quantity AS quantity, oi.discount AS discount " +
+           "FROM OrderItem oi JOIN oi.product p WHERE oi.order.id IN :orderIds")
+    List<OrderItemRow> findItemRows(@Param("orderIds") Collection<UUID> orderIds);
+
+    @Query("SELECT oi.order.id AS orderId, SUM(oi.quantity) AS totalItems " +
+           "FROM OrderItem oi WHERE oi.order.id IN :orderIds GROUP BY oi.order.id")
+    List<OrderItemCount> countItems(@Param("orderIds") Collection<UUID> orderIds);
+
+    interface OrderItemRow {
+        UUID getOrderId();
+        UUID getId();
+        UUID getProductId();
+        String getProductName();
+        Money getUnitPrice();
+        Integer getQuantity();
+        Money getDiscount();
+    }
+
+    interface OrderItemCount {
+        UUID getOrderId();
+        Long getTotalItems();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.inform.orderms.repository;
+
+import com.inform.orderms.model.Product;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ProductProjections {
+
+    /**
+     * Reads only the given product attributes of the matching rows; tuple elements are aliased
+     * by attribute name.
+     */
+    Page<Tuple> findColumns(Specification<Product> spec, List<String> columns, Pageable pageable);
+}
@@ -0,0 +1,22 @@
+package com.inform.orderms.repository;
+
+import com.inform.orderms.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+class ProductProjectionsImpl implements ProductProjections {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Tuple> findColumns(Specification<Product> spec, List<String> columns, Pageable pageable) {
+        return ColumnQueries.findColumns(entityManager, Product.class, spec, columns, pageable);
+    }
+}
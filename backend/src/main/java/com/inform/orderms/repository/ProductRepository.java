@@ -1,19 +1,21 @@
 package com.inform.orderms.repository;
 
+import com.inform.orderms.model.Money;
 import com.inform.orderms.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, UUID> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, ProductProjections {
     
     @Query("SELECT p FROM Product p WHERE " +
            "(:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
@@ -22,8 +24,8 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
            "(:minStock IS NULL OR p.stock >= :minStock) AND " +
            "(:maxStock IS NULL OR p.stock <= :maxStock)")
     List<Product> findProductsByFilters(@Param("name") String name,
-                                       @Param("minPrice") BigDecimal minPrice,
-                                       @Param("maxPrice") BigDecimal maxPrice,
+                                       @Param("minPrice") Money minPrice,
+                                       @Param("maxPrice") Money maxPrice,
                                        @Param("minStock") Integer minStock,
                                        @Param("maxStock") Integer maxStock);
 
@@ -36,9 +38,22 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
            "(:maxStock IS NULL OR p.stock <= :maxStock)")
     Page<Product> findProductsByFilters(@Param("search") String search,
                                        @Param("name") String name,
-                                       @Param("minPrice") BigDecimal minPrice,
-                                       @Param("maxPrice") BigDecimal maxPrice,
+                                       @Param("minPrice") Money minPrice,
+                                       @Param("maxPrice") Money maxPrice,
                                        @Param("minStock") Integer minStock,
                                        @Param("maxStock") Integer maxStock,
                                        Pageable pageable);
+
+    // Checks and takes stock in one statement, bumping the version so ETags change; updates
+    // nothing when the product is missing, has too little or is stocked per warehouse
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.stock >= :quantity AND p.stockedByLocation = false")
+    int reserveStock(@Param("id") UUID id, @Param("quantity") int quantity);
+
+    // Sets the stock of products stocked per warehouse to the sum over their locations, bumping the version
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stock = (SELECT COALESCE(SUM(s.quantity), 0) FROM LocationStock s " +
+           "WHERE s.productId = p.id), p.version = p.version + 1 WHERE p.id IN :ids AND p.stockedByLocation = true")
+    int refreshLocationTotals(@Param("ids") Collection<UUID> ids);
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.inform.orderms.repository;
+
+import com.inform.orderms.model.Promotion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface PromotionRepository extends JpaRepository<Promotion, UUID> {
+}
@@ -2,8 +2,11 @@ package com.inform.orderms.repository;
 
 import com.inform.orderms.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -12,4 +15,12 @@ import java.util.UUID;
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     List<User> findByEmailContainingIgnoreCase(String emailPart);
+
+    @Query("SELECT u.id AS id, u.email AS email FROM User u WHERE u.id IN :ids")
+    List<UserEmail> findEmailsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    interface UserEmail {
+        UUID getId();
+        String getEmail();
+    }
 }
\ No newline at end of file
@@ -1,24 +1,33 @@
 package com.inform.orderms.security;
 
-import com.inform.orderms.util.JwtUtil;
+import com.inform.orderms.jfr.TokenAuthenticationEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final Timer authenticatedTimer;
+    private final Timer rejectedTimer;
+
+    public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache, MeterRegistry meterRegistry) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.authenticatedTimer = authTimer(meterRegistry, "authenticated");
+        this.rejectedTimer = authTimer(meterRegistry, "rejected");
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -27,19 +36,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String authHeader = request.getHeader("Authorization");
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            long started = System.nanoTime();
+            TokenAuthenticationEvent event = new TokenAuthenticationEvent();
+            event.begin();
             String token = authHeader.substring(7);
-            
-            if (jwtUtil.validateToken(token) && !jwtUtil.isTokenExpired(token)) {
-                String email = jwtUtil.getEmailFromToken(token);
-                
-                if (email != null) {
-                    UsernamePasswordAuthenticationToken authentication = 
-                        new UsernamePasswordAuthenticationToken(email, null, Collections.emptyList());
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                }
+
+            Optional<VerifiedClaims> claims = verifiedTokenCache.verify(token).filter(c -> c.email() != null);
+            event.end();
+            claims.ifPresent(c -> {
+                UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(c, null, c.authorities());
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            });
+            (claims.isPresent() ? authenticatedTimer : rejectedTimer).record(System.nanoTime() - started,
+                    TimeUnit.NANOSECONDS);
+            if (event.shouldCommit()) {
+                event.method = request.getMethod();
+                event.path = request.getRequestURI();
+                event.authenticated = claims.isPresent();
+                event.commit();
             }
         }
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private static Timer authTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("auth.filter")
+                .description("Time spent authenticating a bearer token")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,114 @@
+package com.inform.orderms.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt verification on a small dedicated pool instead of request threads, so a login
+ * storm queues here rather than occupying the threads that serve orders. When the queue is
+ * full, or a queued check has waited past its deadline, the future fails fast with
+ * {@link PasswordHashingOverloadedException} instead of hashing for a client that has given up.
+ */
+@Component
+public class PasswordHasher implements DisposableBean {
+
+    public static final String EXECUTOR_NAME = "password-hashing";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long queueTimeoutNanos;
+    private final Timer hashTimer;
+    private final Counter rejectedCounter;
+    private final Counter rehashCounter;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                          @Value("${app.security.password-hashing.threads:0}") int threads,
+                          @Value("${app.security.password-hashing.queue-capacity:64}") int queueCapacity,
+                          @Value("${app.security.password-hashing.queue-timeout:5s}") Duration queueTimeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        // Default to half the cores so hashing can never take every CPU away from other traffic
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, EXECUTOR_NAME + "-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        new ExecutorServiceMetrics(executor, EXECUTOR_NAME, Tags.empty()).bindTo(meterRegistry);
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("Time spent checking (and upgrading) a password hash")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.rejected")
+                .description("Password checks refused because the hashing executor was saturated")
+                .register(meterRegistry);
+        this.rehashCounter = Counter.builder("auth.password.rehash")
+                .description("Password hashes upgraded to the configured cost on login")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks a password off the calling thread. When it matches and the stored hash uses a
+     * lower cost than configured, the result carries a replacement hash for the caller to store.
+     */
+    public CompletableFuture<Verification> verify(String rawPassword, String encodedPassword) {
+        long enqueued = System.nanoTime();
+        CompletableFuture<Verification> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (System.nanoTime() - enqueued > queueTimeoutNanos) {
+                    rejectedCounter.increment();
+                    result.completeExceptionally(
+                            new PasswordHashingOverloadedException("Password check waited too long in the queue"));
+                    return;
+                }
+                try {
+                    result.complete(hashTimer.record(() -> check(rawPassword, encodedPassword)));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            result.completeExceptionally(new PasswordHashingOverloadedException("Too many concurrent logins"));
+        }
+        return result;
+    }
+
+    private Verification check(String rawPassword, String encodedPassword) {
+        if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+            return new Verification(false, Optional.empty());
+        }
+        if (passwordEncoder.upgradeEncoding(encodedPassword)) {
+            rehashCounter.increment();
+            return new Verification(true, Optional.of(passwordEncoder.encode(rawPassword)));
+        }
+        return new Verification(true, Optional.empty());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    public record Verification(boolean matched, Optional<String> upgradedHash) {
+    }
+}
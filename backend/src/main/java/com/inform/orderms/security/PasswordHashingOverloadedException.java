@@ -0,0 +1,11 @@
+package com.inform.orderms.security;
+
+/**
+ * Thrown when a password cannot be checked because the hashing executor is saturated.
+ */
+public class PasswordHashingOverloadedException extends RuntimeException {
+
+    public PasswordHashingOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,39 @@
+package com.inform.orderms.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Claims of a JWT whose signature and expiry have already been checked. Set as the
+ * authentication principal by {@link JwtAuthenticationFilter} so later code never has to
+ * parse the token again or look the user up for their id and roles.
+ * <p>
+ * {@code userId} is null and {@code roles} empty for tokens issued before those claims
+ * existed; such tokens expire within one access-token lifetime.
+ */
+public record VerifiedClaims(UUID userId, String email, Set<String> roles, String type,
+                             Instant issuedAt, Instant expiresAt) implements Principal {
+
+    public static final String REFRESH_TYPE = "refresh";
+
+    public boolean isRefreshToken() {
+        return REFRESH_TYPE.equals(type);
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return roles.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                .toList();
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,167 @@
+package com.inform.orderms.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.inform.orderms.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Remembers tokens whose signature has already been checked, keyed by the SHA-256 of the
+ * token so raw tokens are never retained. Entries expire with the token itself or earlier
+ * under size pressure; a miss falls back to full verification.
+ * <p>
+ * Revocation is honored on every lookup, cached or not: {@link #revoke(String)} rejects one
+ * token, {@link #revokeIssuedBefore(String, Instant)} rejects every token of a user issued
+ * before a point in time (for logout everywhere or a password change). Revocations are held
+ * in memory for the longest token lifetime and never evicted earlier. Past
+ * {@code max-revocations} revoked tokens, revoking one more revokes its subject's tokens up to
+ * it instead, so a revocation is never dropped.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    public static final String CACHE_NAME = "jwt.verified";
+
+    private final JwtUtil jwtUtil;
+    private final Clock clock;
+    private final boolean enabled;
+    private final long maxRevocations;
+    private final Cache<String, VerifiedClaims> verified;
+    private final Cache<String, Boolean> revokedTokens;
+    private final Cache<String, Instant> revokedSubjects;
+    private final Timer verifyTimer;
+
+    @Autowired
+    public VerifiedTokenCache(JwtUtil jwtUtil, MeterRegistry meterRegistry,
+                              @Value("${app.security.token-cache.enabled:true}") boolean enabled,
+                              @Value("${app.security.token-cache.maximum-size:10000}") long maximumSize,
+                              @Value("${app.security.token-cache.max-revocations:1000000}") long maxRevocations,
+                              @Value("${jwt.refresh-expiration:#{${jwt.expiration} * 7}}") long maxTokenLifetimeMillis) {
+        this(jwtUtil, meterRegistry, enabled, maximumSize, maxRevocations, Duration.ofMillis(maxTokenLifetimeMillis),
+                Clock.systemUTC());
+    }
+
+    VerifiedTokenCache(JwtUtil jwtUtil, MeterRegistry meterRegistry, boolean enabled, long maximumSize,
+                       long maxRevocations, Duration maxTokenLifetime, Clock clock) {
+        this.jwtUtil = jwtUtil;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.maxRevocations = maxRevocations;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpiry())
+                .ticker(() -> clock.millis() * 1_000_000)
+                .recordStats()
+                .build();
+        // No size bound: evicting a revocation would make its token valid again
+        this.revokedTokens = Caffeine.newBuilder()
+                .expireAfterWrite(maxTokenLifetime)
+                .ticker(() -> clock.millis() * 1_000_000)
+                .build();
+        this.revokedSubjects = Caffeine.newBuilder()
+                .expireAfterWrite(maxTokenLifetime)
+                .ticker(() -> clock.millis() * 1_000_000)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, CACHE_NAME);
+        this.verifyTimer = Timer.builder("auth.jwt.verify")
+                .description("Time to verify a token's signature and parse its claims, on cache misses")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the claims of a valid, unrevoked token, verifying the signature only when the
+     * token has not been seen before.
+     */
+    public Optional<VerifiedClaims> verify(String token) {
+        String key = hash(token);
+        if (revokedTokens.getIfPresent(key) != null) {
+            return Optional.empty();
+        }
+        VerifiedClaims claims = enabled
+                ? verified.get(key, k -> verifySignature(token).orElse(null))
+                : verifySignature(token).orElse(null);
+        if (claims == null || isRevoked(claims) || isExpired(claims)) {
+            return Optional.empty();
+        }
+        return Optional.of(claims);
+    }
+
+    private Optional<VerifiedClaims> verifySignature(String token) {
+        return verifyTimer.record(() -> jwtUtil.verify(token));
+    }
+
+    public void revoke(String token) {
+        String key = hash(token);
+        if (revokedTokens.estimatedSize() >= maxRevocations) {
+            revokedTokens.cleanUp();
+        }
+        if (revokedTokens.estimatedSize() >= maxRevocations) {
+            // Too many to hold one by one: reject everything the subject was issued up to this token
+            verifySignature(token).ifPresent(claims -> revokeIssuedBefore(claims.email(),
+                    claims.issuedAt() == null ? clock.instant() : claims.issuedAt().plusSeconds(1)));
+        } else {
+            revokedTokens.put(key, Boolean.TRUE);
+        }
+        verified.invalidate(key);
+    }
+
+    public void revokeIssuedBefore(String email, Instant instant) {
+        revokedSubjects.asMap().merge(email, instant, (existing, added) -> added.isAfter(existing) ? added : existing);
+    }
+
+    private boolean isRevoked(VerifiedClaims claims) {
+        Instant revokedBefore = revokedSubjects.getIfPresent(claims.email());
+        return revokedBefore != null && (claims.issuedAt() == null || claims.issuedAt().isBefore(revokedBefore));
+    }
+
+    // Expiry eviction is lazy, so an entry can outlive its token by a little
+    private boolean isExpired(VerifiedClaims claims) {
+        return claims.expiresAt() != null && !claims.expiresAt().isAfter(clock.instant());
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private class UntilTokenExpiry implements Expiry<String, VerifiedClaims> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedClaims claims, long currentTime) {
+            if (claims.expiresAt() == null) {
+                return 0;
+            }
+            return Math.max(0, Duration.between(clock.instant(), claims.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.inform.orderms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ready-to-send JSON or CBOR bodies for hot catalog reads (single products and unfiltered list
+ * pages), so a hit skips both the query and Jackson. Bodies above {@code gzip-min-size} are also
+ * kept gzip-compressed for clients that accept it.
+ * <p>
+ * Each body is stored with the ETag it was built for and only served while
+ * {@link ResourceVersions} still reports that ETag, so product writes and stock changes make
+ * the affected entries unusable as soon as they commit; the next read rebuilds them in place.
+ */
+@Component
+public class CatalogResponseCache {
+
+    public static final String CACHE_NAME = "catalog.responses";
+
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
+    private final Cache<String, SerializedResponse> responses;
+    private final boolean gzip;
+    private final long gzipMinSize;
+
+    public CatalogResponseCache(ObjectMapper objectMapper, MappingJackson2CborHttpMessageConverter cborConverter,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.cache.catalog-responses.maximum-size:16MB}") DataSize maximumSize,
+                                @Value("${app.cache.catalog-responses.gzip:true}") boolean gzip,
+                                @Value("${app.cache.catalog-responses.gzip-min-size:1KB}") DataSize gzipMinSize) {
+        this.objectMapper = objectMapper;
+        this.cborMapper = cborConverter.getObjectMapper();
+        this.gzip = gzip;
+        this.gzipMinSize = gzipMinSize.toBytes();
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((String key, SerializedResponse response) -> response.size())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, CACHE_NAME);
+    }
+
+    public static String productKey(UUID productId) {
+        return "product:" + productId;
+    }
+
+    public static String pageKey(int page, int size, String sortBy, String sortDir) {
+        return "products:" + page + ":" + size + ":" + sortBy + ":" + sortDir;
+    }
+
+    /**
+     * Returns the cached body for the key in the given format if it was built for the given,
+     * current ETag.
+     */
+    public Optional<SerializedResponse> get(String key, MediaType contentType, String etag) {
+        return Optional.ofNullable(responses.getIfPresent(cacheKey(key, contentType)))
+                .filter(response -> response.etag().equals(etag));
+    }
+
+    /**
+     * Serializes the body as JSON or CBOR, caches it under the key and returns it ready to send.
+     */
+    public SerializedResponse put(String key, MediaType contentType, String etag, Object body) {
+        SerializedResponse response = serialize(contentType, etag, body);
+        responses.put(cacheKey(key, contentType), response);
+        return response;
+    }
+
+    private static String cacheKey(String key, MediaType contentType) {
+        return MediaType.APPLICATION_CBOR.equals(contentType) ? key + ":cbor" : key;
+    }
+
+    private SerializedResponse serialize(MediaType contentType, String etag, Object body) {
+        boolean cbor = MediaType.APPLICATION_CBOR.equals(contentType);
+        try {
+            byte[] bytes = (cbor ? cborMapper : objectMapper).writeValueAsBytes(body);
+            byte[] gzipped = gzip && bytes.length >= gzipMinSize ? gzip(bytes) : null;
+            return new SerializedResponse(etag, cbor ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON,
+                    bytes, gzipped);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize catalog response", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * A serialized body, with its gzip encoding when the body was large enough to compress.
+     */
+    public record SerializedResponse(String etag, MediaType contentType, byte[] body, byte[] gzipped) {
+
+        int size() {
+            return body.length + (gzipped != null ? gzipped.length : 0);
+        }
+    }
+}
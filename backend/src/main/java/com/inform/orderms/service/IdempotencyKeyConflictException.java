@@ -0,0 +1,12 @@
+package com.inform.orderms.service;
+
+/**
+ * Thrown when an idempotency key is reused for a different request, or when the request that
+ * first used it is still running after the wait timeout.
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,258 @@
+package com.inform.orderms.service;
+
+import com.inform.orderms.event.LocationStockSavedEvent;
+import com.inform.orderms.event.ProductSavedEvent;
+import com.inform.orderms.event.WarehouseSavedEvent;
+import com.inform.orderms.inventory.Allocation;
+import com.inform.orderms.inventory.AllocationPolicy;
+import com.inform.orderms.inventory.StockAllocator;
+import com.inform.orderms.model.LocationStock;
+import com.inform.orderms.model.Product;
+import com.inform.orderms.model.Warehouse;
+import com.inform.orderms.repository.LocationStockRepository;
+import com.inform.orderms.repository.LocationStockRepository.LocationQuantity;
+import com.inform.orderms.repository.LocationStockRepository.LocationRow;
+import com.inform.orderms.repository.ProductRepository;
+import com.inform.orderms.repository.WarehouseRepository;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps stock per warehouse and allocates orders to it. A product stocked per warehouse keeps
+ * its {@code stock} as the sum over its locations, so availability checks read one column
+ * instead of summing location rows. Orders take stock from the location rows alone and leave
+ * the sum to {@link LocationStockTotals}, so only the locations they take from are locked.
+ */
+@Service
+@Observed(name = "service.call")
+public class InventoryService {
+
+    private static final int MAX_TAKE_ATTEMPTS = 5;
+
+    private final WarehouseRepository warehouseRepository;
+    private final LocationStockRepository locationStockRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LocationStockTotals locationStockTotals;
+    private final AllocationPolicy allocationPolicy;
+
+    public InventoryService(WarehouseRepository warehouseRepository, LocationStockRepository locationStockRepository,
+                            ProductRepository productRepository, ApplicationEventPublisher eventPublisher,
+                            LocationStockTotals locationStockTotals,
+                            @Value("${app.inventory.allocation-policy:nearest}") AllocationPolicy allocationPolicy) {
+        this.warehouseRepository = warehouseRepository;
+        this.locationStockRepository = locationStockRepository;
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.locationStockTotals = locationStockTotals;
+        this.allocationPolicy = allocationPolicy;
+    }
+
+    public List<Warehouse> getWarehouses() {
+        return warehouseRepository.findAll(Sort.by("distance", "name"));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the name is missing or the distance negative
+     */
+    @Transactional
+    public Warehouse createWarehouse(Warehouse warehouse) {
+        if (warehouse.getName() == null || warehouse.getName().isBlank()) {
+            throw new IllegalArgumentException("Warehouse name is required");
+        }
+        if (warehouse.getDistance() == null || warehouse.getDistance() < 0) {
+            throw new IllegalArgumentException("distance must not be negative");
+        }
+        warehouse.setId(null);
+        warehouse.setVersion(null);
+        Warehouse savedWarehouse = warehouseRepository.save(warehouse);
+        eventPublisher.publishEvent(new WarehouseSavedEvent(savedWarehouse));
+        return savedWarehouse;
+    }
+
+    public List<LocationStock> getLocationStock(UUID productId) {
+        return locationStockRepository.findByProductId(productId);
+    }
+
+    /**
+     * Sets what a warehouse holds of a product and recomputes the product's stock as the sum
+     * over its locations. The first location set moves the product to per-warehouse stock,
+     * replacing the stock it had without a location.
+     *
+     * @throws IllegalArgumentException if the quantity is negative
+     */
+    @Transactional
+    public LocationStock setLocationStock(UUID warehouseId, UUID productId, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("quantity must not be negative");
+        }
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+        if (!warehouseRepository.existsById(warehouseId)) {
+            throw new RuntimeException("Warehouse not found with id: " + warehouseId);
+        }
+
+        LocationStock location = locationStockRepository.findByProductId(productId).stream()
+                .filter(existing -> existing.getWarehouseId().equals(warehouseId))
+                .findFirst()
+                .orElseGet(LocationStock::new);
+        location.setWarehouseId(warehouseId);
+        location.setProductId(productId);
+        location.setQuantity(quantity);
+
+        if (!product.isStockedByLocation()) {
+            // The version check fails if an order took the product's stock since the read
+            product.setStockedByLocation(true);
+            productRepository.saveAndFlush(product);
+        }
+        LocationStock savedLocation = locationStockRepository.saveAndFlush(location);
+        productRepository.refreshLocationTotals(List.of(productId));
+        Product savedProduct = productRepository.findById(productId).orElseThrow();
+        // Again after the commit, in case another location of the product changed meanwhile
+        locationStockTotals.refreshAfterCommit(List.of(productId));
+
+        eventPublisher.publishEvent(new ProductSavedEvent(savedProduct));
+        eventPublisher.publishEvent(new LocationStockSavedEvent(savedLocation));
+        return savedLocation;
+    }
+
+    /**
+     * Sets the total stock of a product stocked per warehouse, as edited without picking a
+     * warehouse. Units added go to the nearest warehouse holding the product and units removed
+     * come from the nearest warehouses first.
+     *
+     * @return the product with its recomputed stock
+     * @throws IllegalArgumentException if the stock is negative or no warehouse holds the product
+     * @throws ObjectOptimisticLockingFailureException if an order took the stock meanwhile
+     */
+    @Transactional
+    public Product setProductStock(UUID productId, int stock) {
+        if (stock < 0) {
+            throw new IllegalArgumentException("stock must not be negative");
+        }
+        List<LocationRow> locations = locationStockRepository.findLocationRows(List.of(productId)).stream()
+                .sorted(Comparator.comparing(LocationRow::getDistance).thenComparing(LocationRow::getWarehouseId))
+                .toList();
+        if (locations.isEmpty()) {
+            throw new IllegalArgumentException("No warehouse holds product " + productId);
+        }
+
+        int open = stock - locations.stream().mapToInt(LocationRow::getQuantity).sum();
+        List<UUID> changed = new ArrayList<>();
+        for (LocationRow location : locations) {
+            if (open == 0) {
+                break;
+            }
+            int change = open > 0 ? open : -Math.min(-open, location.getQuantity());
+            if (change == 0) {
+                continue;
+            }
+            if (locationStockRepository.adjust(location.getId(), change) == 0) {
+                throw new ObjectOptimisticLockingFailureException(LocationStock.class, location.getId());
+            }
+            changed.add(location.getId());
+            open -= change;
+        }
+        productRepository.refreshLocationTotals(List.of(productId));
+
+        Product savedProduct = productRepository.findById(productId).orElseThrow();
+        eventPublisher.publishEvent(new ProductSavedEvent(savedProduct));
+        locationStockRepository.findAllById(changed)
+                .forEach(location -> eventPublisher.publishEvent(new LocationStockSavedEvent(location)));
+        return savedProduct;
+    }
+
+    /**
+     * Saves location stock for products created with it, in one transaction. Each product's
+     * stock must already be the sum of its locations' quantities and it must be marked as
+     * stocked by location; used to seed data, where the products are new.
+     */
+    @Transactional
+    public List<LocationStock> createLocationStock(List<LocationStock> locations) {
+        List<LocationStock> savedLocations = locationStockRepository.saveAll(locations);
+        savedLocations.forEach(location -> eventPublisher.publishEvent(new LocationStockSavedEvent(location)));
+        return savedLocations;
+    }
+
+    /**
+     * Allocates the ordered quantities of products stocked per warehouse to their locations,
+     * following the configured {@link AllocationPolicy}, and takes the stock there with
+     * conditional decrements in the order's transaction. The products' stock is recomputed
+     * after the order commits. Products without location stock need no allocation.
+     *
+     * @param quantities quantity per product, summed over the cart
+     * @return the allocations, each with what its location holds after this order
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Allocation> allocate(Map<UUID, Integer> quantities, Map<UUID, Product> products) {
+        List<UUID> productIds = quantities.keySet().stream()
+                .filter(productId -> products.get(productId).isStockedByLocation())
+                .sorted()
+                .toList();
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, List<LocationRow>> locations = locationStockRepository.findLocationRows(productIds).stream()
+                .collect(Collectors.groupingBy(LocationRow::getProductId));
+        List<Allocation> taken = new ArrayList<>();
+        for (UUID productId : productIds) {
+            if (!take(productId, quantities.get(productId), locations.getOrDefault(productId, List.of()), taken)) {
+                throw new RuntimeException("Insufficient stock for product: " + products.get(productId).getName());
+            }
+        }
+        locationStockTotals.refreshAfterCommit(productIds);
+        return withRemaining(taken);
+    }
+
+    /**
+     * Takes a product's quantity from its locations. Another order may take from a location
+     * between the read and the decrement; what is still open is then allocated again from
+     * freshly read rows.
+     */
+    private boolean take(UUID productId, int quantity, List<LocationRow> locations, List<Allocation> taken) {
+        int open = quantity;
+        for (int attempt = 0; attempt < MAX_TAKE_ATTEMPTS; attempt++) {
+            List<Allocation> planned = StockAllocator.allocate(allocationPolicy, locations, open);
+            if (planned.isEmpty()) {
+                return false;
+            }
+            for (Allocation allocation : planned) {
+                if (locationStockRepository.decrement(allocation.locationId(), allocation.quantity()) == 0) {
+                    break;
+                }
+                taken.add(allocation);
+                open -= allocation.quantity();
+            }
+            if (open == 0) {
+                return true;
+            }
+            locations = locationStockRepository.findLocationRows(List.of(productId));
+        }
+        return false;
+    }
+
+    // Concurrent orders make the planned remainders stale, so read what the locations hold now
+    private List<Allocation> withRemaining(List<Allocation> taken) {
+        Map<UUID, Integer> remaining = locationStockRepository.findQuantities(
+                        taken.stream().map(Allocation::locationId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(LocationQuantity::getId, LocationQuantity::getQuantity));
+        return taken.stream()
+                .map(allocation -> new Allocation(allocation.locationId(), allocation.warehouseId(),
+                        allocation.productId(), allocation.quantity(), remaining.get(allocation.locationId())))
+                .toList();
+    }
+}
@@ -0,0 +1,127 @@
+package com.inform.orderms.service;
+
+import com.inform.orderms.event.ProductSavedEvent;
+import com.inform.orderms.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Keeps the stock of products stocked per warehouse equal to the sum over their locations.
+ * Orders take such stock from location rows only, so concurrent orders for one product do not
+ * queue on its row; the products an order took from are recomputed after it commits, on one
+ * background thread that merges requests arriving while it is busy. Until then the product
+ * shows the stock from before the order.
+ */
+@Slf4j
+@Component
+public class LocationStockTotals implements DisposableBean {
+
+    // A caller of its own, so the refreshes do not pin every reader to the primary
+    private static final Authentication REFRESHER =
+            new UsernamePasswordAuthenticationToken("location-stock-totals", null, List.of());
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "location-stock-totals");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LocationStockTotals(ProductRepository productRepository, ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Recomputes the products' stock once the current transaction commits, or right away
+     * without one. Nothing is recomputed if the transaction rolls back.
+     */
+    public void refreshAfterCommit(Collection<UUID> productIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(productIds);
+            return;
+        }
+        List<UUID> ids = List.copyOf(productIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh(ids);
+            }
+        });
+    }
+
+    /**
+     * Waits until every refresh requested so far has run.
+     *
+     * @throws TimeoutException if they have not within the timeout
+     */
+    public void awaitRefreshed(Duration timeout) throws InterruptedException, TimeoutException {
+        try {
+            executor.submit(() -> { }).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void refresh(Collection<UUID> productIds) {
+        pending.addAll(productIds);
+        executor.execute(this::drain);
+    }
+
+    private void drain() {
+        List<UUID> productIds = new ArrayList<>(pending);
+        if (productIds.isEmpty()) {
+            // Taken by an earlier drain
+            return;
+        }
+        pending.removeAll(productIds);
+        SecurityContextHolder.getContext().setAuthentication(REFRESHER);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                productRepository.refreshLocationTotals(productIds);
+                productRepository.findAllById(productIds)
+                        .forEach(product -> eventPublisher.publishEvent(new ProductSavedEvent(product)));
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to refresh the stock of {} products from their locations", productIds.size(), e);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Location stock totals still refreshing at shutdown");
+            executor.shutdownNow();
+        }
+    }
+}
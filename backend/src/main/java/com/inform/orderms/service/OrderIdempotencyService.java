@@ -0,0 +1,169 @@
+package com.inform.orderms.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inform.orderms.dto.CartCalculationRequest;
+import com.inform.orderms.dto.CartItem;
+import com.inform.orderms.model.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Creates at most one order per user and {@code Idempotency-Key}. The first request with a key
+ * does the work; retries and concurrent duplicates wait for it and get the same order back.
+ * <p>
+ * Keys are remembered in memory for {@code ttl}, bounded by {@code maximum-size}, with the id
+ * of their order only; a replay loads the order again. Beyond that the key stored on the order
+ * takes over: a retry finds the existing order in the database, and the unique constraint on
+ * {@code (user_id, idempotency_key)} stops a duplicate created by another instance. Either way
+ * the hash of the items stored with the key turns a reuse for a different cart into a conflict.
+ * Failed attempts are not remembered, so the client may retry them.
+ */
+@Service
+public class OrderIdempotencyService {
+
+    public static final String CACHE_NAME = "orders.idempotency";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final OrderService orderService;
+    private final Cache<Key, Execution> executions;
+    private final Duration waitTimeout;
+    private final Counter replayedCounter;
+
+    public OrderIdempotencyService(OrderService orderService, MeterRegistry meterRegistry,
+                                   @Value("${app.orders.idempotency.ttl:24h}") Duration ttl,
+                                   @Value("${app.orders.idempotency.maximum-size:100000}") long maximumSize,
+                                   @Value("${app.orders.idempotency.wait-timeout:30s}") Duration waitTimeout) {
+        this.orderService = orderService;
+        this.waitTimeout = waitTimeout;
+        this.executions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, executions, CACHE_NAME);
+        this.replayedCounter = Counter.builder("orders.idempotency.replayed")
+                .description("Order requests answered with the order of an earlier request with the same key")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Creates the order, or returns the one already created for this user and key.
+     *
+     * @throws IdempotencyKeyConflictException when the key was used for different items, or the
+     *                                         first request with it is still running after the wait timeout
+     */
+    public Result createOrder(CartCalculationRequest request, UUID userId, String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        Key key = new Key(userId, idempotencyKey);
+        Execution mine = new Execution(requestHash(request.getItems()));
+        Execution existing = executions.asMap().putIfAbsent(key, mine);
+        if (existing != null) {
+            if (!existing.requestHash().equals(mine.requestHash())) {
+                throw new IdempotencyKeyConflictException("Idempotency-Key was already used for a different order");
+            }
+            UUID orderId = await(existing);
+            return orderService.getOrderById(orderId)
+                    .map(order -> replay(order, mine.requestHash()))
+                    .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        }
+
+        try {
+            Result result = orderService.getOrderByIdempotencyKey(userId, idempotencyKey)
+                    .map(order -> replay(order, mine.requestHash()))
+                    .orElseGet(() -> create(request, userId, idempotencyKey, mine.requestHash()));
+            mine.result().complete(result.order().getId());
+            return result;
+        } catch (RuntimeException e) {
+            executions.asMap().remove(key, mine);
+            mine.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Result create(CartCalculationRequest request, UUID userId, String idempotencyKey, String requestHash) {
+        try {
+            return new Result(orderService.createOrderFromCart(request, userId, idempotencyKey, requestHash), false);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance committed an order with this key first
+            return orderService.getOrderByIdempotencyKey(userId, idempotencyKey)
+                    .map(order -> replay(order, requestHash))
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private UUID await(Execution execution) {
+        try {
+            return execution.result().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyConflictException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyConflictException("Interrupted while waiting for the request with this Idempotency-Key");
+        }
+    }
+
+    // Orders created before the hash was stored have none, and replay for any items
+    private Result replay(Order order, String requestHash) {
+        if (order.getRequestHash() != null && !order.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyConflictException("Idempotency-Key was already used for a different order");
+        }
+        replayedCounter.increment();
+        return new Result(order, true);
+    }
+
+    /**
+     * SHA-256 over the product ids and quantities in cart order, as stored with the key on the order.
+     */
+    static String requestHash(List<CartItem> items) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (CartItem item : items) {
+                digest.update((item.getProductId() + ":" + item.getQuantity() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The order for a key, and whether it was created by an earlier request rather than this one.
+     */
+    public record Result(Order order, boolean replayed) {
+    }
+
+    private record Key(UUID userId, String idempotencyKey) {
+    }
+
+    private record Execution(String requestHash, CompletableFuture<UUID> result) {
+
+        Execution(String requestHash) {
+            this(requestHash, new CompletableFuture<>());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.inform.orderms.service;
+
+/**
+ * Thrown when an async order request cannot be queued because the order workers are saturated.
+ */
+public class OrderQueueFullException extends RuntimeException {
+
+    public OrderQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,199 @@
+package com.inform.orderms.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inform.orderms.dto.CartCalculationRequest;
+import com.inform.orderms.model.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts orders for background completion so a burst queues here instead of holding request
+ * threads through the order transaction. A small worker pool drains the queue at the rate the
+ * database sustains; the outcome of each request is kept for polling until it expires.
+ * <p>
+ * Accepted requests live in memory only: requests still queued when the application stops
+ * are completed during shutdown for up to {@code shutdown-timeout}, the rest are lost. That
+ * happens after the web server has stopped and before any bean is destroyed, so the drained
+ * orders still reach the journal.
+ */
+@Slf4j
+@Service
+public class OrderRequestService implements SmartLifecycle {
+
+    public static final String EXECUTOR_NAME = "order-processing";
+
+    private final OrderService orderService;
+    private final OrderIdempotencyService orderIdempotencyService;
+    private final ThreadPoolExecutor executor;
+    private final Map<UUID, OrderRequest> inFlight = new ConcurrentHashMap<>();
+    private final Cache<UUID, OrderRequest> outcomes;
+    private final Duration shutdownTimeout;
+    private final Timer completionTimer;
+    private final Counter createdCounter;
+    private final Counter rejectedCounter;
+    private final Counter overloadedCounter;
+
+    public OrderRequestService(OrderService orderService, OrderIdempotencyService orderIdempotencyService,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.orders.async.threads:2}") int threads,
+                               @Value("${app.orders.async.queue-capacity:1000}") int queueCapacity,
+                               @Value("${app.orders.async.retention:1h}") Duration retention,
+                               @Value("${app.orders.async.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.orderService = orderService;
+        this.orderIdempotencyService = orderIdempotencyService;
+        this.shutdownTimeout = shutdownTimeout;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, EXECUTOR_NAME + "-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        // Finished requests only; queued and running ones stay in inFlight until their outcome is here
+        this.outcomes = Caffeine.newBuilder()
+                .maximumSize(Math.max(10_000L, 10L * (queueCapacity + threads)))
+                .expireAfterWrite(retention)
+                .build();
+
+        new ExecutorServiceMetrics(executor, EXECUTOR_NAME, Tags.empty()).bindTo(meterRegistry);
+        this.completionTimer = Timer.builder("orders.async.completion")
+                .description("Time from accepting an async order request to its outcome")
+                .register(meterRegistry);
+        this.createdCounter = Counter.builder("orders.async.completed")
+                .tag("status", "created")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("orders.async.completed")
+                .tag("status", "rejected")
+                .register(meterRegistry);
+        this.overloadedCounter = Counter.builder("orders.async.overloaded")
+                .description("Async order requests refused because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues an order for the given user and returns its pending request immediately.
+     *
+     * @throws OrderQueueFullException when the queue cannot take another request
+     */
+    public OrderRequest submit(CartCalculationRequest request, UUID userId) {
+        return submit(request, userId, null);
+    }
+
+    /**
+     * Queues an order like {@link #submit(CartCalculationRequest, UUID)}; with an idempotency key,
+     * every request submitted with that key completes with the same order.
+     *
+     * @throws OrderQueueFullException when the queue cannot take another request
+     */
+    public OrderRequest submit(CartCalculationRequest request, UUID userId, String idempotencyKey) {
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new RuntimeException("Order must contain at least one item");
+        }
+
+        OrderRequest pending = new OrderRequest(UUID.randomUUID(), userId, Status.PENDING, null, null,
+                LocalDateTime.now(), null);
+        inFlight.put(pending.id(), pending);
+        long accepted = System.nanoTime();
+        try {
+            // Completes as the caller, so their write is attributed to them rather than to the system
+            executor.execute(new DelegatingSecurityContextRunnable(
+                    () -> complete(pending, request, idempotencyKey, accepted)));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(pending.id());
+            overloadedCounter.increment();
+            throw new OrderQueueFullException("Too many orders waiting to be processed");
+        }
+        return pending;
+    }
+
+    /**
+     * Returns the request if it exists and belongs to the given user.
+     */
+    public Optional<OrderRequest> findRequest(UUID requestId, UUID userId) {
+        OrderRequest inFlightRequest = inFlight.get(requestId);
+        return Optional.ofNullable(inFlightRequest != null ? inFlightRequest : outcomes.getIfPresent(requestId))
+                .filter(request -> request.userId().equals(userId));
+    }
+
+    private void complete(OrderRequest pending, CartCalculationRequest request, String idempotencyKey, long accepted) {
+        OrderRequest outcome;
+        try {
+            Order order = idempotencyKey == null
+                    ? orderService.createOrderFromCart(request, pending.userId())
+                    : orderIdempotencyService.createOrder(request, pending.userId(), idempotencyKey).order();
+            outcome = pending.finish(Status.CREATED, order.getId(), null);
+            createdCounter.increment();
+        } catch (RuntimeException e) {
+            outcome = pending.finish(Status.REJECTED, null, e.getMessage());
+            rejectedCounter.increment();
+        }
+        // Before leaving inFlight, so a poll in between finds one or the other
+        outcomes.put(outcome.id(), outcome);
+        inFlight.remove(outcome.id());
+        completionTimer.record(System.nanoTime() - accepted, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void start() {
+        // The workers start with the executor
+    }
+
+    @Override
+    public void stop() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Dropping {} queued order requests on shutdown", executor.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Dropping {} queued order requests on interrupted shutdown", executor.shutdownNow().size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return !executor.isShutdown();
+    }
+
+    // Lifecycle beans stop before any singleton is destroyed, so this drains ahead of the journal's
+    // close; the lower phase stops it after the web server, once no request can submit more
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+
+    public enum Status {
+        PENDING, CREATED, REJECTED
+    }
+
+    public record OrderRequest(UUID id, UUID userId, Status status, UUID orderId, String message,
+                               LocalDateTime submittedAt, LocalDateTime completedAt) {
+
+        OrderRequest finish(Status status, UUID orderId, String message) {
+            return new OrderRequest(id, userId, status, orderId, message, submittedAt, LocalDateTime.now());
+        }
+    }
+}
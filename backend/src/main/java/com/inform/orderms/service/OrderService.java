@@ -3,37 +3,111 @@ package com.inform.orderms.service;
 import com.inform.orderms.dto.CartCalculationRequest;
 import com.inform.orderms.dto.CartCalculationResponse;
 import com.inform.orderms.dto.CartItem;
+import com.inform.orderms.dto.FieldSelection;
 import com.inform.orderms.dto.OrderItemResponse;
 import com.inform.orderms.dto.OrderSummaryResponse;
+import com.inform.orderms.event.OrderCreatedEvent;
+import com.inform.orderms.inventory.Allocation;
+import com.inform.orderms.jfr.OrderCreationEvent;
+import com.inform.orderms.model.Money;
 import com.inform.orderms.model.Order;
 import com.inform.orderms.model.OrderItem;
 import com.inform.orderms.model.Product;
 import com.inform.orderms.model.User;
+import com.inform.orderms.pricing.LinePrice;
+import com.inform.orderms.pricing.PriceList;
+import com.inform.orderms.pricing.PricingEngine;
 import com.inform.orderms.repository.OrderRepository;
 import com.inform.orderms.repository.ProductRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.Tuple;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 
 @Service
-@RequiredArgsConstructor
+@Observed(name = "service.call")
 public class OrderService {
 
+    private static final List<String> ORDER_COLUMNS = List.of("id", "createdAt", "totalPrice", "userId");
+
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final UserService userService;
+    private final PricingEngine pricingEngine;
+    private final InventoryService inventoryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final Timer loadProductsTimer;
+    private final Timer checkStockTimer;
+    private final Timer allocateTimer;
+    private final Timer persistTimer;
+    private final Timer cartTimer;
+    private final Timer searchAllFieldsTimer;
+    private final Timer searchSelectedFieldsTimer;
+
+    public OrderService(OrderRepository orderRepository, ProductRepository productRepository, UserService userService,
+                        PricingEngine pricingEngine, InventoryService inventoryService,
+                        ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.userService = userService;
+        this.pricingEngine = pricingEngine;
+        this.inventoryService = inventoryService;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.loadProductsTimer = createPhaseTimer(meterRegistry, "load-products");
+        this.checkStockTimer = createPhaseTimer(meterRegistry, "check-stock");
+        this.allocateTimer = createPhaseTimer(meterRegistry, "allocate");
+        this.persistTimer = createPhaseTimer(meterRegistry, "persist");
+        this.cartTimer = Timer.builder("orders.cart.calculate")
+                .description("Time to price a cart and check its stock")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.searchAllFieldsTimer = searchTimer(meterRegistry, "all");
+        this.searchSelectedFieldsTimer = searchTimer(meterRegistry, "selected");
+    }
+
+    // Phases of createOrderFromCart; check-stock and allocate take the row locks, persist includes the flush
+    private static Timer createPhaseTimer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder("orders.create.phase")
+                .description("Time spent in each phase of creating an order from a cart")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer searchTimer(MeterRegistry meterRegistry, String fields) {
+        return Timer.builder("orders.search")
+                .description("Time to search orders and build their summaries")
+                .tag("fields", fields)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
@@ -60,22 +134,30 @@ public class OrderService {
         return order;
     }
 
-    public BigDecimal calculateOrderTotalPrice(List<OrderItem> orderItems) {
+    @Transactional(readOnly = true)
+    public Optional<Order> getOrderByIdempotencyKey(UUID userId, String idempotencyKey) {
+        Optional<Order> order = orderRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey);
+        order.ifPresent(o -> o.getOrderItems().size());
+        return order;
+    }
+
+    public Money calculateOrderTotalPrice(List<OrderItem> orderItems) {
         if (orderItems == null || orderItems.isEmpty()) {
-            return BigDecimal.ZERO;
+            return Money.ZERO;
         }
-        
-        return orderItems.stream()
-                .map(item -> {
-                    if (item.getUnitPrice() == null) {
-                        throw new RuntimeException("OrderItem unit price cannot be null");
-                    }
-                    if (item.getQuantity() == null || item.getQuantity() <= 0) {
-                        throw new RuntimeException("OrderItem quantity must be positive");
-                    }
-                    return item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        long totalCents = 0;
+        for (OrderItem item : orderItems) {
+            if (item.getUnitPrice() == null) {
+                throw new RuntimeException("OrderItem unit price cannot be null");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new RuntimeException("OrderItem quantity must be positive");
+            }
+            long itemCents = Math.multiplyExact(item.getUnitPrice().cents(), item.getQuantity());
+            totalCents = Math.addExact(totalCents, itemCents - (item.getDiscount() == null ? 0 : item.getDiscount().cents()));
+        }
+        return Money.ofCents(totalCents);
     }
 
     @Transactional
@@ -84,6 +166,9 @@ public class OrderService {
             throw new RuntimeException("Order must contain at least one item");
         }
         
+        List<Product> updatedProducts = new ArrayList<>();
+        Map<UUID, Integer> quantities = new HashMap<>();
+        Map<UUID, Product> products = new HashMap<>();
         for (OrderItem orderItem : order.getOrderItems()) {
             Product product = productRepository.findById(orderItem.getProduct().getId())
                     .orElseThrow(() -> new RuntimeException("Product not found with id: " + orderItem.getProduct().getId()));
@@ -93,28 +178,36 @@ public class OrderService {
             }
             
             orderItem.setUnitPrice(product.getPrice());
+            // Promotions only apply to carts; never trust a discount sent by the client
+            orderItem.setDiscount(Money.ZERO);
             orderItem.setOrder(order);
             
-            product.setStock(product.getStock() - orderItem.getQuantity());
-            productRepository.save(product);
+            // Stock per warehouse is taken from the locations below
+            if (!product.isStockedByLocation()) {
+                product.setStock(product.getStock() - orderItem.getQuantity());
+                updatedProducts.add(productRepository.save(product));
+            }
+            quantities.merge(product.getId(), orderItem.getQuantity(), Integer::sum);
+            products.put(product.getId(), product);
         }
+        List<Allocation> allocations = inventoryService.allocate(quantities, products);
         
-        BigDecimal totalPrice = calculateOrderTotalPrice(order.getOrderItems());
+        Money totalPrice = calculateOrderTotalPrice(order.getOrderItems());
         order.setTotalPrice(totalPrice);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderCreatedEvent(savedOrder, updatedProducts, allocations));
+        return savedOrder;
     }
 
     public OrderSummaryResponse convertToOrderSummaryResponse(Order order) {
+        return convertToOrderSummaryResponse(order, userEmail(order.getUserId()));
+    }
+
+    private OrderSummaryResponse convertToOrderSummaryResponse(Order order, String userEmail) {
         List<OrderItemResponse> orderItemResponses = order.getOrderItems().stream()
                 .map(this::convertToOrderItemResponse)
                 .collect(Collectors.toList());
         
-        String userEmail = order.getUserId() != null 
-                ? userService.findById(order.getUserId())
-                    .map(User::getEmail)
-                    .orElse("Unknown User")
-                : "Legacy Order";
-        
         return new OrderSummaryResponse(
                 order.getId(),
                 order.getCreatedAt(),
@@ -125,13 +218,32 @@ public class OrderService {
         );
     }
 
+    // Resolves the emails of a whole page at once instead of one user lookup per order
+    private Page<OrderSummaryResponse> convertToOrderSummaryResponses(Page<Order> orders) {
+        Map<UUID, String> emails = userService.findEmailsByIds(orders.stream().map(Order::getUserId).toList());
+        return orders.map(order -> convertToOrderSummaryResponse(order, userEmail(order.getUserId(), emails)));
+    }
+
+    private String userEmail(UUID userId) {
+        return userId != null
+                ? userService.findById(userId)
+                    .map(User::getEmail)
+                    .orElse("Unknown User")
+                : "Legacy Order";
+    }
+
+    private static String userEmail(UUID userId, Map<UUID, String> emails) {
+        return userId != null ? emails.getOrDefault(userId, "Unknown User") : "Legacy Order";
+    }
+
     public OrderItemResponse convertToOrderItemResponse(OrderItem orderItem) {
         return new OrderItemResponse(
                 orderItem.getId(),
                 orderItem.getProduct().getId(),
                 orderItem.getProduct().getName(),
                 orderItem.getUnitPrice(),
-                orderItem.getQuantity()
+                orderItem.getQuantity(),
+                orderItem.getDiscount()
         );
     }
 
@@ -139,17 +251,95 @@ public class OrderService {
     public Page<OrderSummaryResponse> getAllOrdersSummary(Pageable pageable) {
         Page<Order> orders = orderRepository.findAll(pageable);
         orders.getContent().forEach(order -> order.getOrderItems().size());
-        return orders.map(this::convertToOrderSummaryResponse);
+        return convertToOrderSummaryResponses(orders);
     }
 
     @Transactional(readOnly = true)
     public Page<OrderSummaryResponse> searchOrders(String search, UUID userId, BigDecimal minPrice, BigDecimal maxPrice, 
                                                    LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
         
-        Specification<Order> spec = createOrderSearchSpecification(search, userId, minPrice, maxPrice, startDate, endDate);
-        Page<Order> orders = orderRepository.findAll(spec, pageable);
-        orders.getContent().forEach(order -> order.getOrderItems().size());
-        return orders.map(this::convertToOrderSummaryResponse);
+        return searchAllFieldsTimer.record(() -> {
+            Specification<Order> spec = createOrderSearchSpecification(search, userId, minPrice, maxPrice, startDate, endDate);
+            Page<Order> orders = orderRepository.findAll(spec, pageable);
+            orders.getContent().forEach(order -> order.getOrderItems().size());
+            return convertToOrderSummaryResponses(orders);
+        });
+    }
+
+    /**
+     * Like {@link #searchOrders(String, UUID, BigDecimal, BigDecimal, LocalDateTime, LocalDateTime, Pageable)},
+     * but reads only what the selected fields need: order columns through a projection, items
+     * (or just their quantities for totalItems) in one query for the whole page, and no item
+     * query at all when neither is selected. Unselected properties are left null.
+     */
+    @Transactional(readOnly = true)
+    public Page<OrderSummaryResponse> searchOrders(String search, UUID userId, BigDecimal minPrice, BigDecimal maxPrice,
+                                                   LocalDateTime startDate, LocalDateTime endDate, Pageable pageable,
+                                                   FieldSelection fields) {
+        if (fields.isAll()) {
+            return searchOrders(search, userId, minPrice, maxPrice, startDate, endDate, pageable);
+        }
+        return searchSelectedFieldsTimer.record(() -> {
+            Specification<Order> spec = createOrderSearchSpecification(search, userId, minPrice, maxPrice, startDate, endDate);
+            List<String> columns = orderColumns(fields);
+            Page<Tuple> rows = orderRepository.findColumns(spec, columns, pageable);
+            return new PageImpl<>(toOrderSummaries(rows.getContent(), columns, fields), pageable, rows.getTotalElements());
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<OrderSummaryResponse> getOrderSummaryById(UUID id, FieldSelection fields) {
+        Specification<Order> spec = (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("id"), id);
+        List<String> columns = orderColumns(fields);
+        List<Tuple> rows = orderRepository.findColumns(spec, columns, Pageable.unpaged()).getContent();
+        return toOrderSummaries(rows, columns, fields).stream().findFirst();
+    }
+
+    private List<String> orderColumns(FieldSelection fields) {
+        return fields.includes("userEmail")
+                ? fields.columns(ORDER_COLUMNS, "id", "userId")
+                : fields.columns(ORDER_COLUMNS, "id");
+    }
+
+    private List<OrderSummaryResponse> toOrderSummaries(List<Tuple> rows, List<String> columns, FieldSelection fields) {
+        List<UUID> orderIds = rows.stream().map(row -> row.get("id", UUID.class)).toList();
+        boolean withItems = fields.includes("orderItems") && !orderIds.isEmpty();
+        boolean withCounts = fields.includes("totalItems") && !fields.includes("orderItems") && !orderIds.isEmpty();
+
+        Map<UUID, List<OrderItemResponse>> items = withItems
+                ? orderRepository.findItemRows(orderIds).stream().collect(Collectors.groupingBy(
+                        OrderRepository.OrderItemRow::getOrderId,
+                        Collectors.mapping(row -> new OrderItemResponse(row.getId(), row.getProductId(),
+                                row.getProductName(), row.getUnitPrice(), row.getQuantity(), row.getDiscount()), Collectors.toList())))
+                : Map.of();
+        Map<UUID, String> emails = fields.includes("userEmail")
+                ? userService.findEmailsByIds(rows.stream().map(row -> row.get("userId", UUID.class)).toList())
+                : Map.of();
+        Map<UUID, Integer> counts = withCounts
+                ? orderRepository.countItems(orderIds).stream().collect(Collectors.toMap(
+                        OrderRepository.OrderItemCount::getOrderId, count -> count.getTotalItems().intValue()))
+                : Map.of();
+
+        return rows.stream().map(row -> {
+            UUID id = row.get("id", UUID.class);
+            UUID userId = column(row, columns, "userId", UUID.class);
+            List<OrderItemResponse> orderItems = fields.includes("orderItems") ? items.getOrDefault(id, List.of()) : null;
+            Integer totalItems = !fields.includes("totalItems") ? null
+                    : orderItems != null ? orderItems.stream().mapToInt(OrderItemResponse::getQuantity).sum()
+                    : counts.getOrDefault(id, 0);
+            return new OrderSummaryResponse(
+                    id,
+                    column(row, columns, "createdAt", LocalDateTime.class),
+                    column(row, columns, "totalPrice", Money.class),
+                    userId,
+                    fields.includes("userEmail") ? userEmail(userId, emails) : null,
+                    totalItems,
+                    orderItems);
+        }).toList();
+    }
+
+    private static <T> T column(Tuple row, List<String> columns, String name, Class<T> type) {
+        return columns.contains(name) ? row.get(name, type) : null;
     }
 
     private Specification<Order> createOrderSearchSpecification(String search, UUID userId, BigDecimal minPrice, 
@@ -164,16 +354,19 @@ public class OrderService {
                 // Try to parse as BigDecimal for totalPrice search
                 try {
                     BigDecimal searchPrice = new BigDecimal(searchTerm);
-                    predicates.add(criteriaBuilder.equal(root.get("totalPrice"), searchPrice));
+                    predicates.add(criteriaBuilder.equal(root.get("totalPrice"), Money.of(searchPrice, RoundingMode.UNNECESSARY)));
+                } catch (ArithmeticException e) {
+                    // Fractions of a cent or out of range: no total can match
+                    predicates.add(criteriaBuilder.disjunction());
                 } catch (NumberFormatException e) {
-                    // If not a number, search by user email by finding matching user IDs
-                    List<UUID> matchingUserIds = userService.findUserIdsByEmailContaining(searchTerm);
-                    if (!matchingUserIds.isEmpty()) {
-                        predicates.add(root.get("userId").in(matchingUserIds));
-                    } else {
-                        // If no matching users found, add a condition that will return no results
-                        predicates.add(criteriaBuilder.disjunction());
-                    }
+                    // If not a number, search by user email. A subquery rather than a user lookup, because
+                    // the specification is applied twice per page (content and count query)
+                    Subquery<UUID> matchingUserIds = query.subquery(UUID.class);
+                    Root<User> user = matchingUserIds.from(User.class);
+                    matchingUserIds.select(user.get("id"))
+                            .where(criteriaBuilder.like(criteriaBuilder.lower(user.get("email")),
+                                    "%" + escapeLike(searchTerm) + "%", '\\'));
+                    predicates.add(root.get("userId").in(matchingUserIds));
                 }
             }
 
@@ -184,10 +377,10 @@ public class OrderService {
 
             // Price range filters
             if (minPrice != null) {
-                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("totalPrice"), minPrice));
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("totalPrice"), Money.of(minPrice, RoundingMode.CEILING)));
             }
             if (maxPrice != null) {
-                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("totalPrice"), maxPrice));
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("totalPrice"), Money.of(maxPrice, RoundingMode.FLOOR)));
             }
 
             // Date range filters
@@ -202,37 +395,52 @@ public class OrderService {
         };
     }
 
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     @Transactional(readOnly = true)
     public Page<OrderSummaryResponse> getOrdersSummaryByUserId(UUID userId, Pageable pageable) {
         Page<Order> orders = orderRepository.findByUserId(userId, pageable);
         orders.getContent().forEach(order -> order.getOrderItems().size());
-        return orders.map(this::convertToOrderSummaryResponse);
+        return convertToOrderSummaryResponses(orders);
     }
 
     @Transactional(readOnly = true)
     public CartCalculationResponse calculateCartTotal(CartCalculationRequest request) {
-        List<CartCalculationResponse.CartItemDetails> itemDetails = new ArrayList<>();
-        BigDecimal totalPrice = BigDecimal.ZERO;
+        return cartTimer.record(() -> priceCart(request));
+    }
+
+    private CartCalculationResponse priceCart(CartCalculationRequest request) {
+        List<CartCalculationResponse.CartItemDetails> itemDetails = new ArrayList<>(request.getItems().size());
+        long totalCents = 0;
+        long discountCents = 0;
         int totalItems = 0;
 
+        Map<UUID, Product> products = loadProducts(request.getItems());
+        PriceList prices = pricingEngine.current();
         for (CartItem cartItem : request.getItems()) {
-            Product product = productRepository.findById(cartItem.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + cartItem.getProductId()));
+            Product product = products.get(cartItem.getProductId());
 
             boolean available = product.getStock() >= cartItem.getQuantity();
-            BigDecimal itemTotal = BigDecimal.ZERO;
+            LinePrice line = prices.price(product, cartItem.getQuantity());
+            Money discount = Money.ZERO;
+            Money itemTotal = Money.ZERO;
 
             if (available) {
-                itemTotal = product.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity()));
-                totalPrice = totalPrice.add(itemTotal);
+                discount = line.discount();
+                itemTotal = line.total();
+                totalCents = Math.addExact(totalCents, itemTotal.cents());
+                discountCents = Math.addExact(discountCents, discount.cents());
                 totalItems += cartItem.getQuantity();
             }
 
             CartCalculationResponse.CartItemDetails itemDetail = new CartCalculationResponse.CartItemDetails(
                     product.getId().toString(),
                     product.getName(),
-                    product.getPrice(),
+                    line.unitPrice(),
                     cartItem.getQuantity(),
+                    discount,
                     itemTotal,
                     available,
                     product.getStock()
@@ -241,43 +449,152 @@ public class OrderService {
             itemDetails.add(itemDetail);
         }
 
-        return new CartCalculationResponse(itemDetails, totalPrice, totalItems);
+        return new CartCalculationResponse(itemDetails, Money.ofCents(totalCents), Money.ofCents(discountCents), totalItems);
     }
 
     @Transactional
     public Order createOrderFromCart(CartCalculationRequest request, UUID userId) {
+        return createOrderFromCart(request, userId, null, null);
+    }
+
+    /**
+     * Creates the order with the client's idempotency key and the hash of its items stored
+     * alongside it; a second order with the same key for the same user fails the unique
+     * constraint on commit. Stock is reserved with a conditional update per product before anything is read, so concurrent
+     * orders for the same product wait for each other instead of failing a version check.
+     * Products stocked per warehouse are skipped there and taken from their locations instead,
+     * leaving their product rows to be refreshed after the commit. Emits an
+     * {@link OrderCreationEvent} with the phase durations while a JFR recording is running.
+     */
+    @Transactional
+    public Order createOrderFromCart(CartCalculationRequest request, UUID userId, String idempotencyKey,
+                                     String requestHash) {
         if (request.getItems() == null || request.getItems().isEmpty()) {
             throw new RuntimeException("Order must contain at least one item");
         }
 
-        Order order = new Order();
-        order.setUserId(userId);
-        List<OrderItem> orderItems = new ArrayList<>();
+        OrderCreationEvent event = new OrderCreationEvent();
+        event.begin();
+        try {
+            long started = System.nanoTime();
+            Map<UUID, Integer> quantities = quantities(request.getItems());
+            List<UUID> unreserved = checkStockTimer.record(() -> reserveStock(quantities));
+            long checked = System.nanoTime();
+            // Read after reserving, so stock and version are the ones this order leaves behind
+            Map<UUID, Product> products = loadProductsTimer.record(() -> loadProducts(request.getItems()));
+            rejectUnreserved(unreserved, products);
+            long loaded = System.nanoTime();
+            List<Allocation> allocations = allocateTimer.record(() -> inventoryService.allocate(quantities, products));
+            long allocated = System.nanoTime();
+            // The same compiled price list as calculateCartTotal, so both price a cart alike
+            PriceList prices = pricingEngine.current();
+            Order order = persistTimer.record(() -> persistOrder(request.getItems(), products, allocations, prices,
+                    userId, idempotencyKey, requestHash, event));
+
+            event.products = products.size();
+            event.stockCheckDuration = checked - started;
+            event.loadDuration = loaded - checked;
+            event.allocationDuration = allocated - loaded;
+            event.persistDuration = System.nanoTime() - allocated;
+            return order;
+        } catch (RuntimeException e) {
+            event.failure = e.getMessage();
+            throw e;
+        } finally {
+            if (event.shouldCommit()) {
+                event.cartLines = request.getItems().size();
+                event.idempotent = idempotencyKey != null;
+                event.commit();
+            }
+        }
+    }
 
-        for (CartItem cartItem : request.getItems()) {
-            Product product = productRepository.findById(cartItem.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + cartItem.getProductId()));
+    // One query for the whole cart, keyed by id in cart order
+    private Map<UUID, Product> loadProducts(List<CartItem> cartItems) {
+        List<UUID> productIds = cartItems.stream().map(CartItem::getProductId).distinct().toList();
+        Map<UUID, Product> found = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<UUID, Product> products = new LinkedHashMap<>();
+        for (CartItem cartItem : cartItems) {
+            Product product = found.get(cartItem.getProductId());
+            if (product == null) {
+                throw new RuntimeException("Product not found with id: " + cartItem.getProductId());
+            }
+            products.put(cartItem.getProductId(), product);
+        }
+        return products;
+    }
+
+    // Summed per product, so a product listed twice is reserved once; sorted by id so concurrent orders lock rows in the same order
+    private static Map<UUID, Integer> quantities(List<CartItem> cartItems) {
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        for (CartItem cartItem : cartItems) {
+            quantities.merge(cartItem.getProductId(), cartItem.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    // Returns the products nothing was reserved for: missing, out of stock or stocked per warehouse
+    private List<UUID> reserveStock(Map<UUID, Integer> quantities) {
+        List<UUID> unreserved = new ArrayList<>();
+        for (Map.Entry<UUID, Integer> requested : quantities.entrySet()) {
+            if (productRepository.reserveStock(requested.getKey(), requested.getValue()) == 0) {
+                unreserved.add(requested.getKey());
+            }
+        }
+        return unreserved;
+    }
 
-            if (product.getStock() < cartItem.getQuantity()) {
+    // Missing products already failed to load with "not found"; the transaction rolls back the reservations
+    private void rejectUnreserved(List<UUID> unreserved, Map<UUID, Product> products) {
+        for (UUID productId : unreserved) {
+            Product product = products.get(productId);
+            if (!product.isStockedByLocation()) {
+                Counter.builder("orders.stock.rejected")
+                        .description("Orders rejected for insufficient stock, by product")
+                        .tag("product", product.getId().toString())
+                        .register(meterRegistry)
+                        .increment();
                 throw new RuntimeException("Insufficient stock for product: " + product.getName());
             }
+        }
+    }
+
+    private Order persistOrder(List<CartItem> cartItems, Map<UUID, Product> products, List<Allocation> allocations,
+                               PriceList prices, UUID userId, String idempotencyKey, String requestHash,
+                               OrderCreationEvent event) {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setIdempotencyKey(idempotencyKey);
+        order.setRequestHash(requestHash);
+        List<OrderItem> orderItems = new ArrayList<>();
+
+        for (CartItem cartItem : cartItems) {
+            Product product = products.get(cartItem.getProductId());
 
             OrderItem orderItem = new OrderItem();
             orderItem.setProduct(product);
             orderItem.setQuantity(cartItem.getQuantity());
-            orderItem.setUnitPrice(product.getPrice());
+            LinePrice line = prices.price(product, cartItem.getQuantity());
+            orderItem.setUnitPrice(line.unitPrice());
+            orderItem.setDiscount(line.discount());
             orderItem.setOrder(order);
 
             orderItems.add(orderItem);
-
-            product.setStock(product.getStock() - cartItem.getQuantity());
-            productRepository.save(product);
         }
+        // Products stocked per warehouse get their stock recomputed after the commit
+        List<Product> updatedProducts = products.values().stream()
+                .filter(product -> !product.isStockedByLocation())
+                .toList();
 
         order.setOrderItems(orderItems);
-        BigDecimal totalPrice = calculateOrderTotalPrice(orderItems);
+        Money totalPrice = calculateOrderTotalPrice(orderItems);
         order.setTotalPrice(totalPrice);
 
-        return orderRepository.save(order);
+        long flushing = System.nanoTime();
+        Order savedOrder = orderRepository.saveAndFlush(order);
+        event.flushDuration = System.nanoTime() - flushing;
+        eventPublisher.publishEvent(new OrderCreatedEvent(savedOrder, updatedProducts, allocations));
+        return savedOrder;
     }
-}
\ No newline at end of file
+}
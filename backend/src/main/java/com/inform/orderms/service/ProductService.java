@@ -1,22 +1,61 @@
 package com.inform.orderms.service;
 
+import com.inform.orderms.dto.FieldSelection;
+import com.inform.orderms.event.ProductDeletedEvent;
+import com.inform.orderms.event.ProductSavedEvent;
+import com.inform.orderms.jfr.ProductSearchEvent;
+import com.inform.orderms.model.Money;
 import com.inform.orderms.model.Product;
 import com.inform.orderms.repository.ProductRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Service
-@RequiredArgsConstructor
+@Observed(name = "service.call")
 public class ProductService {
 
+    // version is always read so partial products can still be tagged
+    private static final List<String> COLUMNS = List.of("id", "name", "price", "stock", "version");
+
     private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Timer searchAllFieldsTimer;
+    private final Timer searchSelectedFieldsTimer;
+
+    public ProductService(ProductRepository productRepository, InventoryService inventoryService,
+                          ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.inventoryService = inventoryService;
+        this.eventPublisher = eventPublisher;
+        this.searchAllFieldsTimer = searchTimer(meterRegistry, "all");
+        this.searchSelectedFieldsTimer = searchTimer(meterRegistry, "selected");
+    }
+
+    private static Timer searchTimer(MeterRegistry meterRegistry, String fields) {
+        return Timer.builder("products.search")
+                .description("Time to search a page of products")
+                .tag("fields", fields)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     public List<Product> getAllProducts() {
         return productRepository.findAll();
@@ -26,32 +65,156 @@ public class ProductService {
         return productRepository.findById(id);
     }
 
+    @Transactional
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductSavedEvent(savedProduct));
+        return savedProduct;
     }
 
+    @Transactional
+    public List<Product> createProducts(List<Product> products) {
+        List<Product> savedProducts = productRepository.saveAll(products);
+        savedProducts.forEach(product -> eventPublisher.publishEvent(new ProductSavedEvent(product)));
+        return savedProducts;
+    }
+
+    /**
+     * A changed stock on a product stocked per warehouse is spread over its locations, see
+     * {@link InventoryService#setProductStock(UUID, int)}.
+     */
+    @Transactional
     public Product updateProduct(UUID id, Product productDetails) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        boolean restocked = product.isStockedByLocation() && productDetails.getStock() != null
+                && !productDetails.getStock().equals(product.getStock());
         
         product.setName(productDetails.getName());
         product.setPrice(productDetails.getPrice());
-        product.setStock(productDetails.getStock());
+        if (!product.isStockedByLocation()) {
+            product.setStock(productDetails.getStock());
+        }
         
-        return productRepository.save(product);
+        if (restocked) {
+            // Flushed first, as recomputing the stock from the locations clears the persistence context
+            productRepository.saveAndFlush(product);
+            return inventoryService.setProductStock(id, productDetails.getStock());
+        }
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductSavedEvent(savedProduct));
+        return savedProduct;
     }
 
+    @Transactional
     public void deleteProduct(UUID id) {
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(new ProductDeletedEvent(id));
     }
 
     public List<Product> searchProducts(String name, BigDecimal minPrice, BigDecimal maxPrice, 
                                        Integer minStock, Integer maxStock) {
-        return productRepository.findProductsByFilters(name, minPrice, maxPrice, minStock, maxStock);
+        return productRepository.findProductsByFilters(name, atLeast(minPrice), atMost(maxPrice), minStock, maxStock);
     }
 
     public Page<Product> searchProducts(String search, String name, BigDecimal minPrice, BigDecimal maxPrice, 
                                        Integer minStock, Integer maxStock, Pageable pageable) {
-        return productRepository.findProductsByFilters(search, name, minPrice, maxPrice, minStock, maxStock, pageable);
+        return searchAllFieldsTimer.record(() ->
+                productRepository.findProductsByFilters(search, name, atLeast(minPrice), atMost(maxPrice), minStock, maxStock, pageable));
+    }
+
+    /**
+     * Like {@link #searchProducts(String, String, BigDecimal, BigDecimal, Integer, Integer, Pageable)},
+     * but reads only the selected columns; unselected properties of the returned products are null.
+     * Emits a {@link ProductSearchEvent} while a JFR recording is running.
+     */
+    @Transactional(readOnly = true)
+    public Page<Product> searchProducts(String search, String name, BigDecimal minPrice, BigDecimal maxPrice,
+                                        Integer minStock, Integer maxStock, Pageable pageable, FieldSelection fields) {
+        ProductSearchEvent event = new ProductSearchEvent();
+        event.begin();
+
+        Page<Product> products;
+        if (fields.isAll()) {
+            products = searchProducts(search, name, minPrice, maxPrice, minStock, maxStock, pageable);
+        } else {
+            Specification<Product> spec = createProductSearchSpecification(search, name, minPrice, maxPrice, minStock, maxStock);
+            products = searchSelectedFieldsTimer.record(() ->
+                    productRepository.findColumns(spec, fields.columns(COLUMNS, "version"), pageable).map(this::toProduct));
+        }
+
+        if (event.shouldCommit()) {
+            event.search = search;
+            event.name = name;
+            event.page = pageable.getPageNumber();
+            event.size = pageable.getPageSize();
+            event.fields = fields.toString();
+            event.results = products.getNumberOfElements();
+            event.commit();
+        }
+        return products;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Product> getProductById(UUID id, FieldSelection fields) {
+        if (fields.isAll()) {
+            return getProductById(id);
+        }
+        Specification<Product> spec = (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("id"), id);
+        return productRepository.findColumns(spec, fields.columns(COLUMNS, "version"), Pageable.unpaged()).stream()
+                .findFirst()
+                .map(this::toProduct);
+    }
+
+    private Product toProduct(Tuple row) {
+        Product product = new Product();
+        for (TupleElement<?> element : row.getElements()) {
+            Object value = row.get(element);
+            switch (element.getAlias()) {
+                case "id" -> product.setId((UUID) value);
+                case "name" -> product.setName((String) value);
+                case "price" -> product.setPrice((Money) value);
+                case "stock" -> product.setStock((Integer) value);
+                case "version" -> product.setVersion((Long) value);
+                default -> throw new IllegalStateException("Unexpected product column: " + element.getAlias());
+            }
+        }
+        return product;
+    }
+
+    // Mirrors ProductRepository.findProductsByFilters
+    private Specification<Product> createProductSearchSpecification(String search, String name, BigDecimal minPrice,
+                                                                    BigDecimal maxPrice, Integer minStock, Integer maxStock) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (search != null) {
+                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + search.toLowerCase() + "%"));
+            }
+            if (name != null) {
+                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + name.toLowerCase() + "%"));
+            }
+            if (minPrice != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("price"), atLeast(minPrice)));
+            }
+            if (maxPrice != null) {
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("price"), atMost(maxPrice)));
+            }
+            if (minStock != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("stock"), minStock));
+            }
+            if (maxStock != null) {
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("stock"), maxStock));
+            }
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Prices are whole cents, so "at least 9.995" means at least 10.00 and "at most 9.995" at most 9.99
+    private static Money atLeast(BigDecimal minPrice) {
+        return minPrice == null ? null : Money.of(minPrice, RoundingMode.CEILING);
+    }
+
+    private static Money atMost(BigDecimal maxPrice) {
+        return maxPrice == null ? null : Money.of(maxPrice, RoundingMode.FLOOR);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,131 @@
+package com.inform.orderms.service;
+
+import com.inform.orderms.event.PromotionDeletedEvent;
+import com.inform.orderms.event.PromotionSavedEvent;
+import com.inform.orderms.model.Promotion;
+import com.inform.orderms.repository.PromotionRepository;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Maintains promotions. Every change is published, so the pricing engine recompiles once the
+ * transaction has committed and the journal records it.
+ */
+@Service
+@Observed(name = "service.call")
+@RequiredArgsConstructor
+public class PromotionService {
+
+    private final PromotionRepository promotionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public Page<Promotion> getPromotions(Pageable pageable) {
+        return promotionRepository.findAll(pageable);
+    }
+
+    public Optional<Promotion> getPromotionById(UUID id) {
+        return promotionRepository.findById(id);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the fields do not fit the promotion type
+     */
+    @Transactional
+    public Promotion createPromotion(Promotion promotion) {
+        validate(promotion);
+        promotion.setId(null);
+        promotion.setVersion(null);
+        Promotion savedPromotion = promotionRepository.save(promotion);
+        eventPublisher.publishEvent(new PromotionSavedEvent(savedPromotion));
+        return savedPromotion;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the fields do not fit the promotion type
+     */
+    @Transactional
+    public Promotion updatePromotion(UUID id, Promotion details) {
+        validate(details);
+        Promotion promotion = promotionRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Promotion not found with id: " + id));
+
+        promotion.setName(details.getName());
+        promotion.setType(details.getType());
+        promotion.setProductId(details.getProductId());
+        promotion.setPercentOff(details.getPercentOff());
+        promotion.setAmount(details.getAmount());
+        promotion.setMinQuantity(details.getMinQuantity());
+        promotion.setBuyQuantity(details.getBuyQuantity());
+        promotion.setFreeQuantity(details.getFreeQuantity());
+        promotion.setStartsAt(details.getStartsAt());
+        promotion.setEndsAt(details.getEndsAt());
+
+        Promotion savedPromotion = promotionRepository.save(promotion);
+        eventPublisher.publishEvent(new PromotionSavedEvent(savedPromotion));
+        return savedPromotion;
+    }
+
+    @Transactional
+    public void deletePromotion(UUID id) {
+        promotionRepository.deleteById(id);
+        eventPublisher.publishEvent(new PromotionDeletedEvent(id));
+    }
+
+    // The compiled price list relies on these, so invalid promotions never reach it
+    private static void validate(Promotion promotion) {
+        if (promotion.getName() == null || promotion.getName().isBlank()) {
+            throw new IllegalArgumentException("Promotion name is required");
+        }
+        if (promotion.getType() == null) {
+            throw new IllegalArgumentException("Promotion type is required");
+        }
+        if (promotion.getStartsAt() != null && promotion.getEndsAt() != null
+                && !promotion.getEndsAt().isAfter(promotion.getStartsAt())) {
+            throw new IllegalArgumentException("endsAt must be after startsAt");
+        }
+
+        switch (promotion.getType()) {
+            case PERCENTAGE -> require(promotion.getPercentOff() != null
+                    && promotion.getPercentOff() >= 1 && promotion.getPercentOff() <= 100,
+                    "percentOff must be between 1 and 100");
+            case FIXED_AMOUNT -> require(promotion.getAmount() != null && promotion.getAmount().cents() > 0,
+                    "amount must be positive");
+            case BUY_X_GET_Y -> {
+                requireProduct(promotion);
+                require(promotion.getBuyQuantity() != null && promotion.getBuyQuantity() >= 1
+                        && promotion.getFreeQuantity() != null && promotion.getFreeQuantity() >= 1,
+                        "buyQuantity and freeQuantity must be positive");
+            }
+            case VOLUME_TIER -> {
+                requireProduct(promotion);
+                require(promotion.getMinQuantity() != null && promotion.getMinQuantity() >= 2,
+                        "minQuantity must be at least 2");
+                require(promotion.getAmount() != null && promotion.getAmount().cents() >= 0,
+                        "amount must not be negative");
+            }
+            case PRICE_OVERRIDE -> {
+                requireProduct(promotion);
+                require(promotion.getAmount() != null && promotion.getAmount().cents() >= 0,
+                        "amount must not be negative");
+            }
+        }
+    }
+
+    private static void requireProduct(Promotion promotion) {
+        require(promotion.getProductId() != null, promotion.getType() + " promotions need a productId");
+    }
+
+    private static void require(boolean valid, String message) {
+        if (!valid) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
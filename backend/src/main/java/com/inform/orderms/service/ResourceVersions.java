@@ -0,0 +1,151 @@
+package com.inform.orderms.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inform.orderms.event.OrderCreatedEvent;
+import com.inform.orderms.event.ProductDeletedEvent;
+import com.inform.orderms.event.ProductSavedEvent;
+import com.inform.orderms.model.Order;
+import com.inform.orderms.model.OrderItem;
+import com.inform.orderms.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Strong ETags for products, product list pages and orders, answerable from memory so a
+ * matching {@code If-None-Match} needs no database access.
+ * <p>
+ * Product and order tags are built from entity versions remembered when the entity was last
+ * read; list tags from a catalog version bumped by every product write or stock change, plus
+ * the request's filter parameters. Remembered versions are dropped once a change commits.
+ * Every tag also carries an epoch chosen at startup, because versions restored from the
+ * journal or reseeded start over and must not match tags handed out before a restart.
+ */
+@Component
+public class ResourceVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final Cache<UUID, Long> productVersions;
+    private final Cache<UUID, OrderVersion> orderVersions;
+
+    public ResourceVersions(@Value("${app.cache.versions.maximum-size:100000}") long maximumSize) {
+        this.productVersions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+        this.orderVersions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Current catalog version. Read it before loading entities and pass it back when tagging
+     * them, so a version read before a concurrent write is not remembered after it.
+     */
+    public long catalogVersion() {
+        return catalogVersion.get();
+    }
+
+    public String catalogETag(Object... parameters) {
+        // Filters may be absent, which List.of rejects
+        List<Object> parts = new ArrayList<>(Arrays.asList(parameters));
+        parts.addFirst(catalogVersion.get());
+        return tag("catalog", parts);
+    }
+
+    public Optional<String> productETag(UUID productId) {
+        return Optional.ofNullable(productVersions.getIfPresent(productId))
+                .map(version -> tag("product", List.of(productId, version)));
+    }
+
+    public String productETag(Product product, long observedCatalogVersion) {
+        remember(product, observedCatalogVersion);
+        return tag("product", List.of(product.getId(), product.getVersion()));
+    }
+
+    public Optional<String> orderETag(UUID orderId) {
+        OrderVersion order = orderVersions.getIfPresent(orderId);
+        if (order == null) {
+            return Optional.empty();
+        }
+        List<Object> parts = new ArrayList<>(List.of(orderId, order.version()));
+        for (UUID productId : order.productIds()) {
+            Long productVersion = productVersions.getIfPresent(productId);
+            if (productVersion == null) {
+                return Optional.empty();
+            }
+            parts.add(productVersion);
+        }
+        return Optional.of(tag("order", parts));
+    }
+
+    /**
+     * Tags an order together with the products embedded in its response.
+     */
+    public String orderETag(Order order, long observedCatalogVersion) {
+        List<Object> parts = new ArrayList<>(List.of(order.getId(), order.getVersion()));
+        List<UUID> productIds = new ArrayList<>();
+        for (OrderItem item : order.getOrderItems()) {
+            remember(item.getProduct(), observedCatalogVersion);
+            productIds.add(item.getProduct().getId());
+            parts.add(item.getProduct().getVersion());
+        }
+        orderVersions.put(order.getId(), new OrderVersion(order.getVersion(), List.copyOf(productIds)));
+        return tag("order", parts);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductSaved(ProductSavedEvent event) {
+        changed(event.product().getId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductDeleted(ProductDeletedEvent event) {
+        changed(event.productId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        event.updatedProducts().forEach(product -> changed(product.getId()));
+    }
+
+    private void changed(UUID productId) {
+        catalogVersion.incrementAndGet();
+        productVersions.invalidate(productId);
+    }
+
+    // Serialized with changed() per key: skipped when a write committed since the read began
+    private void remember(Product product, long observedCatalogVersion) {
+        productVersions.asMap().compute(product.getId(), (id, current) ->
+                catalogVersion.get() == observedCatalogVersion ? product.getVersion() : current);
+    }
+
+    private String tag(String kind, List<Object> parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(kind.getBytes(StandardCharsets.UTF_8));
+            for (Object part : parts) {
+                digest.update((byte) 0);
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            }
+            return "\"" + epoch + "-" + HexFormat.of().formatHex(digest.digest(), 0, 12) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record OrderVersion(Long version, List<UUID> productIds) {
+    }
+}
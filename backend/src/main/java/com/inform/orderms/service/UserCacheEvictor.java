@@ -0,0 +1,39 @@
+package com.inform.orderms.service;
+
+import com.inform.orderms.config.CacheConfig;
+import com.inform.orderms.event.UserSavedEvent;
+import com.inform.orderms.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+
+/**
+ * Drops cached users once a change to them commits. Every user write publishes
+ * {@link UserSavedEvent}, so new kinds of profile or role changes are covered without
+ * touching the cache annotations.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserSaved(UserSavedEvent event) {
+        User user = event.user();
+        Cache byId = Objects.requireNonNull(cacheManager.getCache(CacheConfig.USERS_BY_ID));
+        Cache byEmail = Objects.requireNonNull(cacheManager.getCache(CacheConfig.USERS_BY_EMAIL));
+
+        // The cached copy may still carry the previous email
+        User cached = byId.get(user.getId(), User.class);
+        if (cached != null) {
+            byEmail.evict(cached.getEmail());
+        }
+        byId.evict(user.getId());
+        byEmail.evict(user.getEmail());
+    }
+}
@@ -1,36 +1,80 @@
 package com.inform.orderms.service;
 
+import com.inform.orderms.config.CacheConfig;
 import com.inform.orderms.dto.UserDto;
+import com.inform.orderms.event.UserSavedEvent;
 import com.inform.orderms.model.Role;
 import com.inform.orderms.model.User;
 import com.inform.orderms.repository.RoleRepository;
 import com.inform.orderms.repository.UserRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
+@Observed(name = "service.call")
 @RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
 
+    // Cached users are detached snapshots; UserCacheEvictor drops them when a user is saved
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_EMAIL, unless = "#result == null")
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
 
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_ID, unless = "#result == null")
     public Optional<User> findById(UUID id) {
         return userRepository.findById(id);
     }
 
+    /**
+     * Emails of the given users, from the user cache where possible and one query for the rest.
+     * Null ids and unknown users are left out.
+     */
+    public Map<UUID, String> findEmailsByIds(Collection<UUID> ids) {
+        Cache usersById = cacheManager.getCache(CacheConfig.USERS_BY_ID);
+        Map<UUID, String> emails = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : new LinkedHashSet<>(ids)) {
+            if (id == null) {
+                continue;
+            }
+            User cached = usersById != null ? usersById.get(id, User.class) : null;
+            if (cached != null) {
+                emails.put(id, cached.getEmail());
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            userRepository.findEmailsByIdIn(missing).forEach(user -> emails.put(user.getId(), user.getEmail()));
+        }
+        return emails;
+    }
+
     public List<UUID> findUserIdsByEmailContaining(String searchTerm) {
         return userRepository.findByEmailContainingIgnoreCase(searchTerm)
                 .stream()
@@ -42,6 +86,7 @@ public class UserService {
         return passwordEncoder.matches(rawPassword, encodedPassword);
     }
 
+    @Transactional
     public User createUser(String email, String password, String name, Role.RoleName roleName) {
         User user = new User();
         user.setEmail(email);
@@ -60,7 +105,17 @@ public class UserService {
         }
         
         user.getRoles().add(role);
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserSavedEvent(savedUser));
+        return savedUser;
+    }
+
+    @Transactional
+    public void updatePasswordHash(UUID userId, String passwordHash) {
+        userRepository.findById(userId).ifPresent(user -> {
+            user.setPassword(passwordHash);
+            eventPublisher.publishEvent(new UserSavedEvent(userRepository.save(user)));
+        });
     }
 
     public User createUser(String email, String password) {
@@ -1,18 +1,30 @@
 package com.inform.orderms.util;
 
+import com.inform.orderms.security.VerifiedClaims;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtUtil {
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -22,81 +34,82 @@ public class JwtUtil {
     @Value("${jwt.refresh-expiration:#{${jwt.expiration} * 7}}")
     private long refreshExpiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    private SecretKey signingKey;
+
+    // Immutable and thread-safe, shared by all requests
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser().verifyWith(signingKey).build();
     }
 
-    public String generateToken(String email) {
+    public String generateToken(UUID userId, String email, Collection<String> roles) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
-                .setSubject(email)
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .subject(email)
+                .claim(USER_ID_CLAIM, userId.toString())
+                .claim(ROLES_CLAIM, List.copyOf(roles))
+                .issuedAt(now)
+                .expiration(expiryDate)
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
-    public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
-    }
-
     public String generateRefreshToken(String email) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + refreshExpiration);
 
         return Jwts.builder()
-                .setSubject(email)
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .claim("type", "refresh")
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .subject(email)
+                .issuedAt(now)
+                .expiration(expiryDate)
+                .claim("type", VerifiedClaims.REFRESH_TYPE)
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
-    public boolean isRefreshToken(String token) {
+    /**
+     * Checks signature and expiry with a single parse.
+     *
+     * @return the verified claims, or empty if the token is malformed, forged or expired
+     */
+    public Optional<VerifiedClaims> verify(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return "refresh".equals(claims.get("type"));
-        } catch (Exception e) {
-            return false;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            String userId = claims.get(USER_ID_CLAIM, String.class);
+            List<?> roles = claims.get(ROLES_CLAIM, List.class);
+            return Optional.of(new VerifiedClaims(
+                    userId != null ? UUID.fromString(userId) : null,
+                    claims.getSubject(),
+                    roles != null ? roles.stream().map(String::valueOf).collect(Collectors.toUnmodifiableSet()) : Set.of(),
+                    claims.get("type", String.class),
+                    claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                    claims.getExpiration() != null ? claims.getExpiration().toInstant() : null));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
         }
     }
 
+    public String getEmailFromToken(String token) {
+        return verify(token)
+                .map(VerifiedClaims::email)
+                .orElseThrow(() -> new JwtException("Invalid or expired token"));
+    }
+
+    public boolean isRefreshToken(String token) {
+        return verify(token).map(VerifiedClaims::isRefreshToken).orElse(false);
+    }
+
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return verify(token).isPresent();
     }
 
     public boolean isTokenExpired(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            return claims.getExpiration().before(new Date());
-        } catch (Exception e) {
-            return true;
-        }
+        // Expired tokens fail verification, so anything that does not verify counts as expired
+        return verify(token).isEmpty();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.inform.orderms.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    @DisplayName("Should answer 503 when no permit frees up within the queue timeout")
+    void shouldRejectWhenSaturated() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(true, 1, Duration.ofMillis(50), objectMapper, meterRegistry);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blockingChain = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        Thread holder = Thread.ofVirtual().start(() -> doFilter(filter, "/api/orders", first, blockingChain));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        doFilter(filter, "/api/products", rejected, (request, response) -> fail("should not be admitted"));
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals(1, meterRegistry.get("http.admission.rejected").counter().count());
+
+        MockHttpServletResponse health = new MockHttpServletResponse();
+        doFilter(filter, "/actuator/health", health, (request, response) -> { });
+        assertEquals(200, health.getStatus());
+
+        release.countDown();
+        holder.join();
+        assertEquals(200, first.getStatus());
+        assertEquals(1, meterRegistry.get("http.admission.available").gauge().value());
+    }
+
+    private static void doFilter(AdmissionControlFilter filter, String uri, MockHttpServletResponse response,
+                                 FilterChain chain) {
+        try {
+            filter.doFilter(new MockHttpServletRequest("GET", uri), response, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.inform.orderms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1",
+        "spring.datasource.url=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.read-your-writes-window=2s"
+})
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @BeforeEach
+    void waitForSeedingWindowToPass() throws InterruptedException {
+        // DataLoader commits system writes at startup, which pin all readers for one window
+        long deadline = System.currentTimeMillis() + 5000;
+        while (readYourWritesTracker.requiresPrimary() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should route read-only transactions to the replica pool")
+    void shouldRouteReadOnlyTransactionsToReplica() {
+        authenticateAs("reader@orderflow.com");
+
+        assertEquals("replica", poolUsedBy(readOnly()));
+    }
+
+    @Test
+    @DisplayName("Should route read-write transactions to the primary pool")
+    void shouldRouteReadWriteTransactionsToPrimary() {
+        authenticateAs("reader@orderflow.com");
+
+        assertEquals("primary", poolUsedBy(new TransactionTemplate(transactionManager)));
+    }
+
+    @Test
+    @DisplayName("Should pin reads to the primary after the caller commits a write")
+    void shouldPinReadsToPrimaryAfterCallerWrites() {
+        authenticateAs("writer@orderflow.com");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                jdbcTemplate.update("UPDATE products SET stock = stock WHERE 1 = 0"));
+
+        assertEquals("primary", poolUsedBy(readOnly()));
+
+        authenticateAs("other@orderflow.com");
+        assertEquals("replica", poolUsedBy(readOnly()));
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private String poolUsedBy(TransactionTemplate template) {
+        return template.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+            if (activeConnections(replicaDataSource) > 0) {
+                return "replica";
+            }
+            return activeConnections(primaryDataSource) > 0 ? "primary" : "none";
+        });
+    }
+
+    // The pools are wrapped for statement tracing, and a pool not used yet has no pool bean
+    private static int activeConnections(DataSource dataSource) {
+        try {
+            HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void authenticateAs(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, Collections.emptyList()));
+    }
+}
@@ -0,0 +1,188 @@
+package com.inform.orderms.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inform.orderms.dto.CartCalculationRequest;
+import com.inform.orderms.dto.CartItem;
+import com.inform.orderms.model.Money;
+import com.inform.orderms.model.Order;
+import com.inform.orderms.model.OrderItem;
+import com.inform.orderms.model.Product;
+import com.inform.orderms.repository.OrderRepository;
+import com.inform.orderms.repository.ProductRepository;
+import com.inform.orderms.util.JwtUtil;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bytes allocated per request for the main endpoints, read from the request thread's allocation
+ * counter. MockMvc dispatches on the calling thread, so the counter covers the filters, the
+ * controller, the queries and serialization, plus a small constant for MockMvc itself. Each
+ * endpoint is warmed up first so the JIT has compiled (and escape analysis has removed) what it
+ * will in production, then the median of several samples is compared with its budget. Caches
+ * stay warm, as they are in a running application.
+ * <p>
+ * Each endpoint states the largest median measured over five runs of this class on Temurin
+ * 21.0.1 (a one-vCPU Xeon VM with 5 GB); the budget is that plus {@link #HEADROOM_PERCENT},
+ * enough for JDK and library updates but small enough to catch a change that adds a copy of
+ * the page or a query per row.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:allocation-budget;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "app.seed.mode=skip"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointAllocationBudgetTest {
+
+    private static final int WARMUP_REQUESTS = 300;
+    private static final int SAMPLES = 31;
+    private static final long KB = 1024;
+    private static final int HEADROOM_PERCENT = 25;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private List<Product> products;
+    private List<Order> orders;
+    private String adminToken;
+
+    @BeforeAll
+    void seed() {
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "Thread allocation counters are not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        products = productRepository.saveAll(IntStream.range(0, 120).mapToObj(i -> {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(Money.ofCents(999 + 100L * i));
+            product.setStock(1_000_000);
+            return product;
+        }).toList());
+
+        List<Order> seeded = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Order order = new Order();
+            order.setUserId(UUID.randomUUID());
+            List<OrderItem> items = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setProduct(products.get((i * 3 + j) % products.size()));
+                item.setQuantity(1 + j);
+                item.setUnitPrice(item.getProduct().getPrice());
+                items.add(item);
+            }
+            order.setOrderItems(items);
+            order.setTotalPrice(items.stream()
+                    .map(item -> item.getUnitPrice().times(item.getQuantity()))
+                    .reduce(Money.ZERO, Money::plus));
+            seeded.add(order);
+        }
+        orders = orderRepository.saveAll(seeded);
+
+        adminToken = jwtUtil.generateToken(UUID.randomUUID(), "admin@example.com", Set.of("ADMIN"));
+    }
+
+    @Test
+    @DisplayName("Should serve a cached product page within its allocation budget")
+    void productPageStaysWithinBudget() throws Exception {
+        assertBudget("GET /api/products?size=50", 173 * KB, get("/api/products").param("size", "50"));
+    }
+
+    @Test
+    @DisplayName("Should search products within the allocation budget")
+    void productSearchStaysWithinBudget() throws Exception {
+        assertBudget("GET /api/products?size=50&search", 421 * KB,
+                get("/api/products").param("size", "50").param("search", "product"));
+    }
+
+    @Test
+    @DisplayName("Should read a single product within the allocation budget")
+    void productStaysWithinBudget() throws Exception {
+        assertBudget("GET /api/products/{id}", 140 * KB, get("/api/products/" + products.get(7).getId()));
+    }
+
+    @Test
+    @DisplayName("Should list orders within the allocation budget")
+    void orderPageStaysWithinBudget() throws Exception {
+        assertBudget("GET /api/orders?size=50", 925 * KB, get("/api/orders").param("size", "50"));
+    }
+
+    @Test
+    @DisplayName("Should read a single order within the allocation budget")
+    void orderStaysWithinBudget() throws Exception {
+        assertBudget("GET /api/orders/{id}", 206 * KB, get("/api/orders/" + orders.get(7).getId()));
+    }
+
+    @Test
+    @DisplayName("Should price a 20-line cart within the allocation budget")
+    void cartCalculationStaysWithinBudget() throws Exception {
+        String cart = objectMapper.writeValueAsString(new CartCalculationRequest(IntStream.range(0, 20)
+                .mapToObj(i -> new CartItem(products.get(i * 5).getId(), 1 + i % 3))
+                .toList()));
+        assertBudget("POST /api/orders/calculate (20 lines)", 323 * KB, post("/api/orders/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(cart));
+    }
+
+    private void assertBudget(String endpoint, long measuredBytes, MockHttpServletRequestBuilder request)
+            throws Exception {
+        long budgetBytes = measuredBytes + measuredBytes * HEADROOM_PERCENT / 100;
+        request.header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken);
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            mockMvc.perform(request).andExpect(status().isOk());
+        }
+
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            mockMvc.perform(request).andExpect(status().isOk());
+            samples[i] = threads.getCurrentThreadAllocatedBytes() - before;
+        }
+        Arrays.sort(samples);
+        long median = samples[SAMPLES / 2];
+
+        assertTrue(median <= budgetBytes, () -> String.format(
+                "%s allocated %,d B per request (median of %d, min %,d, max %,d), budget is %,d B (measured %,d B + %d%%)",
+                endpoint, median, SAMPLES, samples[0], samples[SAMPLES - 1], budgetBytes, measuredBytes, HEADROOM_PERCENT));
+    }
+}
@@ -0,0 +1,345 @@
+package com.inform.orderms.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inform.orderms.dto.CartCalculationRequest;
+import com.inform.orderms.dto.CartItem;
+import com.inform.orderms.dto.LoginRequest;
+import com.inform.orderms.dto.RefreshTokenRequest;
+import com.inform.orderms.model.LocationStock;
+import com.inform.orderms.model.Money;
+import com.inform.orderms.model.Order;
+import com.inform.orderms.model.OrderItem;
+import com.inform.orderms.model.Product;
+import com.inform.orderms.model.Role;
+import com.inform.orderms.model.User;
+import com.inform.orderms.model.Warehouse;
+import com.inform.orderms.repository.LocationStockRepository;
+import com.inform.orderms.repository.OrderRepository;
+import com.inform.orderms.repository.ProductRepository;
+import com.inform.orderms.repository.RoleRepository;
+import com.inform.orderms.repository.UserRepository;
+import com.inform.orderms.repository.WarehouseRepository;
+import com.inform.orderms.service.LocationStockTotals;
+import com.inform.orderms.util.JwtUtil;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets for every endpoint that touches the database. List endpoints run at page
+ * sizes 10 and 100 (cart endpoints with 10 and 100 items) and must stay within the same budget,
+ * so a lazy association or per-row lookup that fans out into one query per row fails here.
+ * Caches are cleared before each request, so budgets hold for cold reads. Writes scale with the
+ * rows written, so write endpoints are budgeted on the statements that read.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-budget;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.inform.orderms.controller.SqlStatementRecorder",
+        "app.seed.mode=skip"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointQueryBudgetTest {
+
+    private static final int[] PAGE_SIZES = {10, 100};
+    private static final String PASSWORD = "budget-password";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private LocationStockRepository locationStockRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private LocationStockTotals locationStockTotals;
+
+    private List<Product> products;
+    private List<Product> locatedProducts;
+    private List<Order> orders;
+    private User customer;
+    private String adminToken;
+
+    @BeforeAll
+    void seed() {
+        Role role = new Role();
+        role.setName(Role.RoleName.CUSTOMER);
+        role = roleRepository.save(role);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            User user = new User();
+            user.setEmail("buyer" + i + "@example.com");
+            user.setName("Buyer " + i);
+            user.setPassword(i == 0 ? passwordEncoder.encode(PASSWORD) : "unused");
+            user.getRoles().add(role);
+            users.add(user);
+        }
+        users = userRepository.saveAll(users);
+        customer = users.getFirst();
+
+        products = productRepository.saveAll(IntStream.range(0, 120).mapToObj(i -> {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(Money.ofCents(999 + 100L * i));
+            product.setStock(1_000_000);
+            return product;
+        }).toList());
+
+        // The last products are stocked in two warehouses, so orders for them go through allocation
+        List<Warehouse> warehouses = warehouseRepository.saveAll(List.of(
+                new Warehouse(null, "Near", 10, null), new Warehouse(null, "Far", 500, null)));
+        locatedProducts = productRepository.saveAll(products.subList(100, 120).stream().map(product -> {
+            product.setStockedByLocation(true);
+            return product;
+        }).toList());
+        locationStockRepository.saveAll(locatedProducts.stream()
+                .flatMap(product -> warehouses.stream()
+                        .map(warehouse -> new LocationStock(null, warehouse.getId(), product.getId(), 500_000, null)))
+                .toList());
+
+        List<Order> seeded = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            Order order = new Order();
+            order.setUserId(users.get(i % users.size()).getId());
+            List<OrderItem> items = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setProduct(products.get((i * 3 + j) % products.size()));
+                item.setQuantity(1 + j);
+                item.setUnitPrice(item.getProduct().getPrice());
+                items.add(item);
+            }
+            order.setOrderItems(items);
+            order.setTotalPrice(items.stream()
+                    .map(item -> item.getUnitPrice().times(item.getQuantity()))
+                    .reduce(Money.ZERO, Money::plus));
+            seeded.add(order);
+        }
+        orders = orderRepository.saveAll(seeded);
+
+        adminToken = jwtUtil.generateToken(UUID.randomUUID(), "admin@example.com", Set.of("ADMIN"));
+    }
+
+    @Test
+    @DisplayName("Should list and search products in a fixed number of statements")
+    void productListsStayWithinBudget() throws Exception {
+        assertPagedBudget("GET /api/products", 2, size -> get("/api/products").param("size", str(size)));
+        assertPagedBudget("GET /api/products?search", 2,
+                size -> get("/api/products").param("size", str(size)).param("search", "product"));
+        assertPagedBudget("GET /api/products?fields", 2,
+                size -> get("/api/products").param("size", str(size)).param("fields", "id,name"));
+    }
+
+    @Test
+    @DisplayName("Should read and write single products in a fixed number of statements")
+    void productEndpointsStayWithinBudget() throws Exception {
+        assertBudget("GET /api/products/{id}", 1, authorized(get("/api/products/" + products.get(1).getId())));
+        assertBudget("GET /api/products/{id}?fields", 1,
+                authorized(get("/api/products/" + products.get(2).getId()).param("fields", "id,price")));
+        assertBudget("POST /api/products", 1, authorized(post("/api/products"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Budget product\",\"price\":5.00,\"stock\":10}"));
+        assertBudget("PUT /api/products/{id}", 2, authorized(put("/api/products/" + products.get(3).getId()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Renamed\",\"price\":12.50,\"stock\":1000000}"));
+
+        Product unused = new Product();
+        unused.setName("To delete");
+        unused.setPrice(Money.ofCents(100));
+        unused.setStock(1);
+        UUID unusedId = productRepository.save(unused).getId();
+        assertBudget("DELETE /api/products/{id}", 2, authorized(delete("/api/products/" + unusedId)));
+    }
+
+    @Test
+    @DisplayName("Should list and search orders without a query per order, item or user")
+    void orderListsStayWithinBudget() throws Exception {
+        // orders, count, items with their products (batch), user emails (batch)
+        assertPagedBudget("GET /api/orders", 4, size -> get("/api/orders").param("size", str(size)));
+        assertPagedBudget("GET /api/orders?search", 4,
+                size -> get("/api/orders").param("size", str(size)).param("search", "buyer"));
+        assertPagedBudget("GET /api/orders?userId", 4,
+                size -> get("/api/orders").param("size", str(size)).param("userId", customer.getId().toString()));
+        assertPagedBudget("GET /api/orders?fields (no items)", 4, size -> get("/api/orders").param("size", str(size))
+                .param("fields", "id,totalPrice,userEmail,totalItems"));
+        assertPagedBudget("GET /api/orders?fields (items)", 3, size -> get("/api/orders").param("size", str(size))
+                .param("fields", "id,orderItems"));
+    }
+
+    @Test
+    @DisplayName("Should read a single order in a fixed number of statements")
+    void orderEndpointsStayWithinBudget() throws Exception {
+        assertBudget("GET /api/orders/{id}", 2, authorized(get("/api/orders/" + orders.get(1).getId())));
+        assertBudget("GET /api/orders/{id}?fields", 2,
+                authorized(get("/api/orders/" + orders.get(2).getId()).param("fields", "id,totalItems")));
+    }
+
+    @Test
+    @DisplayName("Should price a cart and place an order with one product read regardless of cart size")
+    void cartEndpointsStayWithinBudget() throws Exception {
+        assertPagedBudget("POST /api/orders/calculate", 1, size -> post("/api/orders/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(cart(size)));
+        assertPagedReadBudget("POST /api/orders", 1, size -> post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(cart(size)));
+    }
+
+    @Test
+    @DisplayName("Should allocate an order to warehouses with a fixed number of reads regardless of cart size")
+    void warehouseCartEndpointsStayWithinBudget() throws Exception {
+        // Availability comes from the maintained product stock, not from summing location rows
+        assertPagedBudget("POST /api/orders/calculate (warehouse stock)", 1, size -> post("/api/orders/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(cart(size, locatedProducts)));
+        // products, the location rows of the whole cart with their warehouse distances, what the
+        // taken locations hold afterwards, then the products again when their stock is refreshed
+        assertPagedReadBudget("POST /api/orders (warehouse stock)", 4, size -> post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(cart(size, locatedProducts)));
+    }
+
+    @Test
+    @DisplayName("Should log in and refresh with one user read")
+    void authEndpointsStayWithinBudget() throws Exception {
+        LoginRequest login = new LoginRequest();
+        login.setEmail(customer.getEmail());
+        login.setPassword(PASSWORD);
+
+        // user, then its roles; a rehash on login is a write and not counted
+        assertBudget("POST /api/auth/login", 2, true, post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(login)));
+        assertBudget("POST /api/auth/refresh", 2, post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        new RefreshTokenRequest(jwtUtil.generateRefreshToken(customer.getEmail())))));
+    }
+
+    private void assertPagedBudget(String endpoint, int budget, IntFunction<MockHttpServletRequestBuilder> request)
+            throws Exception {
+        for (int size : PAGE_SIZES) {
+            assertBudget(endpoint + " [" + size + "]", budget, false, authorized(request.apply(size)));
+        }
+    }
+
+    private void assertPagedReadBudget(String endpoint, int budget, IntFunction<MockHttpServletRequestBuilder> request)
+            throws Exception {
+        for (int size : PAGE_SIZES) {
+            assertBudget(endpoint + " [" + size + "]", budget, true, authorized(request.apply(size)));
+        }
+    }
+
+    private void assertBudget(String endpoint, int budget, MockHttpServletRequestBuilder request) throws Exception {
+        assertBudget(endpoint, budget, false, request);
+    }
+
+    private void assertBudget(String endpoint, int budget, boolean readsOnly, MockHttpServletRequestBuilder request)
+            throws Exception {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        SqlStatementRecorder.start();
+        List<String> statements;
+        try {
+            MvcResult result = mockMvc.perform(request).andReturn();
+            if (result.getRequest().isAsyncStarted()) {
+                result = mockMvc.perform(asyncDispatch(result)).andReturn();
+            }
+            status().is2xxSuccessful().match(result);
+            // Counts the refresh of stock per warehouse the request left behind as well
+            locationStockTotals.awaitRefreshed(Duration.ofSeconds(10));
+        } finally {
+            statements = SqlStatementRecorder.stop();
+        }
+
+        List<String> counted = readsOnly
+                ? statements.stream().filter(sql -> sql.stripLeading().toLowerCase().startsWith("select")).toList()
+                : statements;
+        assertTrue(counted.size() <= budget, () -> endpoint + " ran " + counted.size() + " statements, budget is "
+                + budget + ":\n" + IntStream.range(0, counted.size())
+                        .mapToObj(i -> "  " + (i + 1) + ". " + counted.get(i))
+                        .collect(Collectors.joining("\n")));
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken);
+    }
+
+    private String cart(int items) {
+        return cart(items, products);
+    }
+
+    // Unchecked, since it is called from the request factories passed to assertPagedBudget
+    private String cart(int items, List<Product> from) {
+        try {
+            return objectMapper.writeValueAsString(new CartCalculationRequest(IntStream.range(0, items)
+                    .mapToObj(i -> new CartItem(from.get(i % from.size()).getId(), 1))
+                    .toList()));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String str(int value) {
+        return Integer.toString(value);
+    }
+}
@@ -0,0 +1,178 @@
+package com.inform.orderms.controller;
+
+import com.inform.orderms.model.Money;
+import com.inform.orderms.model.Order;
+import com.inform.orderms.model.OrderItem;
+import com.inform.orderms.model.Product;
+import com.inform.orderms.model.Role;
+import com.inform.orderms.model.User;
+import com.inform.orderms.repository.OrderRepository;
+import com.inform.orderms.repository.ProductRepository;
+import com.inform.orderms.service.UserService;
+import com.inform.orderms.util.JwtUtil;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Spans of one order page request, exported to an in-memory exporter: the request, the service
+ * calls it makes and the SQL statements under each of them, all in the same trace.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:request-tracing;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "app.seed.mode=skip",
+        "management.tracing.sampling.probability=1.0"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(metrics = false)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RequestTracingTest {
+
+    private static final AttributeKey<String> QUERY = AttributeKey.stringKey("jdbc.query[0]");
+
+    @TestConfiguration
+    static class InMemoryExporterConfig {
+
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InMemorySpanExporter exporter;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private String adminToken;
+
+    @BeforeAll
+    void seed() {
+        User buyer = userService.createUser("traced@example.com", "password", "Traced Buyer", Role.RoleName.CUSTOMER);
+        List<Product> products = productRepository.saveAll(IntStream.range(0, 3).mapToObj(i -> {
+            Product product = new Product();
+            product.setName("Traced product " + i);
+            product.setPrice(Money.ofCents(450));
+            product.setStock(100);
+            return product;
+        }).toList());
+
+        orderRepository.saveAll(IntStream.range(0, 5).mapToObj(i -> {
+            Order order = new Order();
+            order.setUserId(buyer.getId());
+            order.setOrderItems(products.stream().map(product -> {
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setProduct(product);
+                item.setQuantity(2);
+                item.setUnitPrice(product.getPrice());
+                return item;
+            }).collect(Collectors.toCollection(ArrayList::new)));
+            order.setTotalPrice(Money.ofCents(2700));
+            return order;
+        }).toList());
+
+        adminToken = jwtUtil.generateToken(UUID.randomUUID(), "admin@example.com", Set.of("ADMIN"));
+    }
+
+    @BeforeEach
+    void clearSpans() {
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        exporter.reset();
+    }
+
+    @Test
+    @DisplayName("Should trace an order page down to its service calls and SQL statements")
+    void shouldTraceOrderPage() throws Exception {
+        mockMvc.perform(get("/api/orders").param("size", "5")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken))
+                .andExpect(status().isOk());
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+
+        SpanData request = exporter.getFinishedSpanItems().stream()
+                .filter(span -> span.getName().equals("http get /api/orders"))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No request span in " + names(exporter.getFinishedSpanItems())));
+        List<SpanData> trace = exporter.getFinishedSpanItems().stream()
+                .filter(span -> span.getTraceId().equals(request.getTraceId()))
+                .toList();
+
+        SpanData search = span(trace, "order-service#search-orders");
+        SpanData emails = span(trace, "user-service#find-emails-by-ids");
+        assertTrue(descendsFrom(search, request, trace), "searchOrders should run inside the request span");
+        assertEquals(search.getSpanId(), emails.getParentSpanId(), "the email lookup should be a child of searchOrders");
+
+        List<SpanData> queries = trace.stream().filter(span -> span.getAttributes().get(QUERY) != null).toList();
+        assertTrue(queries.stream().anyMatch(query -> query.getParentSpanId().equals(search.getSpanId())),
+                "the order query should be a child of searchOrders: " + names(trace));
+        assertTrue(queries.stream().allMatch(query -> descendsFrom(query, request, trace)),
+                "every statement should belong to the request: " + names(trace));
+    }
+
+    private static SpanData span(List<SpanData> trace, String name) {
+        return trace.stream()
+                .filter(span -> span.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + name + " span in " + names(trace)));
+    }
+
+    private static boolean descendsFrom(SpanData span, SpanData ancestor, List<SpanData> trace) {
+        String parentId = span.getParentSpanId();
+        while (!parentId.equals(ancestor.getSpanId())) {
+            String current = parentId;
+            SpanData parent = trace.stream().filter(candidate -> candidate.getSpanId().equals(current)).findFirst().orElse(null);
+            if (parent == null) {
+                return false;
+            }
+            parentId = parent.getParentSpanId();
+        }
+        return true;
+    }
+
+    private static List<String> names(List<SpanData> spans) {
+        return spans.stream().map(SpanData::getName).toList();
+    }
+}
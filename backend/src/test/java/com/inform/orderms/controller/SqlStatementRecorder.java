@@ -0,0 +1,36 @@
+package com.inform.orderms.controller;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate prepares while recording is on, from any thread. Registered through
+ * {@code hibernate.session_factory.statement_inspector}, which instantiates it by class name.
+ */
+public class SqlStatementRecorder implements StatementInspector {
+
+    private static final List<String> statements = new ArrayList<>();
+    private static boolean recording;
+
+    static synchronized void start() {
+        statements.clear();
+        recording = true;
+    }
+
+    static synchronized List<String> stop() {
+        recording = false;
+        return List.copyOf(statements);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (SqlStatementRecorder.class) {
+            if (recording) {
+                statements.add(sql);
+            }
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,108 @@
+package com.inform.orderms.inventory;
+
+import com.inform.orderms.repository.LocationStockRepository.LocationRow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockAllocatorTest {
+
+    private static final UUID PRODUCT = UUID.randomUUID();
+
+    private final Location near = location(10, 4);
+    private final Location middle = location(30, 8);
+    private final Location far = location(50, 20);
+    private final Location empty = location(5, 0);
+    private final List<Location> locations = List.of(far, empty, near, middle);
+
+    @Test
+    @DisplayName("Should take from the nearest locations first")
+    void shouldTakeNearestFirst() {
+        List<Allocation> allocations = StockAllocator.allocate(AllocationPolicy.NEAREST, locations, 10);
+
+        assertEquals(List.of(allocation(near, 4), allocation(middle, 6)), allocations);
+    }
+
+    @Test
+    @DisplayName("Should take from the fullest locations first")
+    void shouldTakeFullestFirst() {
+        assertEquals(List.of(allocation(far, 10)), StockAllocator.allocate(AllocationPolicy.FULLEST, locations, 10));
+        assertEquals(List.of(allocation(far, 20), allocation(middle, 5)),
+                StockAllocator.allocate(AllocationPolicy.FULLEST, locations, 25));
+    }
+
+    @Test
+    @DisplayName("Should ship from the nearest single location that holds the whole quantity")
+    void shouldPreferSingleNearestLocation() {
+        List<Allocation> allocations = StockAllocator.allocate(AllocationPolicy.FEWEST_SPLITS, locations, 6);
+
+        assertEquals(List.of(allocation(middle, 6)), allocations);
+    }
+
+    @Test
+    @DisplayName("Should split over the fullest locations when no single one holds the quantity")
+    void shouldSplitFullestFirstWhenNoLocationSuffices() {
+        List<Allocation> allocations = StockAllocator.allocate(AllocationPolicy.FEWEST_SPLITS, locations, 30);
+
+        assertEquals(List.of(allocation(far, 20), allocation(middle, 8), allocation(near, 2)), allocations);
+    }
+
+    @Test
+    @DisplayName("Should allocate nothing when the locations hold too little between them")
+    void shouldAllocateNothingWhenStockIsShort() {
+        for (AllocationPolicy policy : AllocationPolicy.values()) {
+            assertEquals(List.of(), StockAllocator.allocate(policy, locations, 33));
+        }
+        assertEquals(List.of(), StockAllocator.allocate(AllocationPolicy.NEAREST, List.of(), 1));
+    }
+
+    @Test
+    @DisplayName("Should never allocate from an empty location")
+    void shouldSkipEmptyLocations() {
+        for (AllocationPolicy policy : AllocationPolicy.values()) {
+            assertTrue(StockAllocator.allocate(policy, locations, 32).stream()
+                    .noneMatch(allocation -> allocation.locationId().equals(empty.getId())));
+        }
+    }
+
+    private static Allocation allocation(Location location, int quantity) {
+        return new Allocation(location.getId(), location.getWarehouseId(), PRODUCT, quantity,
+                location.getQuantity() - quantity);
+    }
+
+    private static Location location(int distance, int quantity) {
+        return new Location(UUID.randomUUID(), UUID.randomUUID(), PRODUCT, quantity, distance);
+    }
+
+    private record Location(UUID id, UUID warehouseId, UUID productId, int quantity, int distance) implements LocationRow {
+
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public UUID getWarehouseId() {
+            return warehouseId;
+        }
+
+        @Override
+        public UUID getProductId() {
+            return productId;
+        }
+
+        @Override
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        @Override
+        public Integer getDistance() {
+            return distance;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.inform.orderms.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrRecordingEndpointTest {
+
+    private JfrRecordingEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        endpoint = new JfrRecordingEndpoint(Duration.ofSeconds(60), Duration.ofMinutes(10), DataSize.ofMegabytes(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.discard();
+    }
+
+    @Test
+    @DisplayName("Should record domain events and serve the file once the recording has stopped")
+    void shouldRecordDomainEvents() throws Exception {
+        WebEndpointResponse<Map<String, Object>> started = endpoint.start(Duration.ofSeconds(30), "default");
+        assertEquals(WebEndpointResponse.STATUS_OK, started.getStatus());
+        long id = (Long) started.getBody().get("id");
+        assertEquals(409, endpoint.download(id).getStatus());
+
+        OrderCreationEvent event = new OrderCreationEvent();
+        event.begin();
+        event.cartLines = 3;
+        event.products = 2;
+        event.commit();
+
+        assertEquals(WebEndpointResponse.STATUS_OK, endpoint.stop().getStatus());
+        WebEndpointResponse<Resource> download = endpoint.download(id);
+        assertEquals(WebEndpointResponse.STATUS_OK, download.getStatus());
+
+        List<RecordedEvent> orders = RecordingFile.readAllEvents(download.getBody().getFile().toPath()).stream()
+                .filter(recorded -> recorded.getEventType().getName().equals("com.inform.orderms.OrderCreation"))
+                .toList();
+        assertEquals(1, orders.size());
+        assertEquals(3, orders.getFirst().getInt("cartLines"));
+        assertEquals(2, orders.getFirst().getInt("products"));
+    }
+
+    @Test
+    @DisplayName("Should allow one recording at a time")
+    void shouldRejectSecondRecording() {
+        assertEquals(WebEndpointResponse.STATUS_OK, endpoint.start(null, null).getStatus());
+        assertEquals(409, endpoint.start(null, null).getStatus());
+        assertEquals("RUNNING", endpoint.status().get("state"));
+    }
+
+    @Test
+    @DisplayName("Should reject durations over the maximum and unknown settings")
+    void shouldRejectInvalidRequests() {
+        assertEquals(WebEndpointResponse.STATUS_BAD_REQUEST, endpoint.start(Duration.ofHours(1), null).getStatus());
+        assertEquals(WebEndpointResponse.STATUS_BAD_REQUEST, endpoint.start(null, "no-such-settings").getStatus());
+        assertEquals("NONE", endpoint.status().get("state"));
+    }
+
+    @Test
+    @DisplayName("Should not stop or download when nothing was recorded")
+    void shouldReportMissingRecording() {
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.stop().getStatus());
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.download(1).getStatus());
+    }
+}
@@ -0,0 +1,128 @@
+package com.inform.orderms.journal;
+
+import com.inform.orderms.model.Money;
+import com.inform.orderms.model.Product;
+import com.inform.orderms.service.ProductService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Journals changes through the running application, then rebuilds the database from the
+ * snapshot and journal tail the way a restart does.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:journal-recovery;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "app.seed.mode=skip",
+        "app.journal.enabled=true",
+        "app.journal.segment-size=1MB",
+        "app.journal.snapshot-interval=1h"
+})
+@DirtiesContext
+class JournalRecoveryTest {
+
+    private static final Path DIRECTORY = createDirectory();
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) {
+        registry.add("app.journal.directory", DIRECTORY::toString);
+    }
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderJournal orderJournal;
+
+    @Autowired
+    private JournalSnapshotter journalSnapshotter;
+
+    @Autowired
+    private JournalRecorder journalRecorder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Should restore the snapshot plus committed changes and drop a transaction that failed to commit")
+    void shouldRecoverCommittedState() throws Exception {
+        Product laptop = productService.createProduct(product("Journaled laptop", 10));
+        Product mouse = productService.createProduct(product("Journaled mouse", 5));
+        journalSnapshotter.snapshot();
+
+        productService.updateProduct(laptop.getId(), product("Journaled laptop", 7));
+        Product keyboard = productService.createProduct(product("Journaled keyboard", 3));
+        // Journaled before the commit, which then fails
+        assertThrows(IllegalStateException.class, () -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> {
+                    productService.updateProduct(mouse.getId(), product("Journaled mouse", 1));
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void beforeCommit(boolean readOnly) {
+                            throw new IllegalStateException("Commit failed");
+                        }
+                    });
+                }));
+
+        journalSnapshotter.stop();
+        orderJournal.close();
+        jdbcTemplate.update("DELETE FROM products");
+
+        OrderJournal reopened = new OrderJournal(DIRECTORY, 1024 * 1024, true, 16);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        JournalRecovery recovery = new JournalRecovery(reopened,
+                new JournalSnapshotter(DIRECTORY, reopened, journalRecorder, jdbcTemplate, transactionTemplate),
+                jdbcTemplate, transactionTemplate, Duration.ofHours(1));
+        recovery.afterSingletonsInstantiated();
+        try {
+            assertEquals(2, recovery.lastReport().replayedEntries());
+            assertEquals(7, stockOf(laptop.getId()));
+            assertEquals(5, stockOf(mouse.getId()));
+            assertEquals(3, stockOf(keyboard.getId()));
+        } finally {
+            recovery.destroy();
+        }
+    }
+
+    private int stockOf(UUID productId) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+    }
+
+    private static Product product(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(Money.ofCents(2500));
+        product.setStock(stock);
+        return product;
+    }
+
+    private static Path createDirectory() {
+        try {
+            return Files.createTempDirectory("order-journal");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.inform.orderms.journal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should replay every appended entry in order after reopening")
+    void shouldReplayAppendedEntries() throws Exception {
+        List<JournalEntry> written = List.of(
+                new JournalEntry.ProductUpsert(UUID.randomUUID(), "Laptop Pro 16", new BigDecimal("1299.99"), 10, true),
+                new JournalEntry.UserUpsert(UUID.randomUUID(), "admin@orderflow.com", "$2a$10$hash", "Admin", Set.of("ADMIN")),
+                new JournalEntry.WarehouseUpsert(UUID.randomUUID(), "Hamburg", 120),
+                new JournalEntry.LocationStockUpsert(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), 40),
+                order(UUID.randomUUID()),
+                new JournalEntry.PromotionUpsert(UUID.randomUUID(), "Summer tiers", "VOLUME_TIER", UUID.randomUUID(),
+                        null, new BigDecimal("9.00"), 5, null, null, LocalDateTime.of(2024, 6, 1, 0, 0), null),
+                new JournalEntry.PromotionDelete(UUID.randomUUID()),
+                new JournalEntry.ProductDelete(UUID.randomUUID()));
+
+        OrderJournal journal = openJournal(1, new ArrayList<>());
+        for (JournalEntry entry : written) {
+            journal.append(entry).get();
+        }
+        journal.close();
+
+        List<JournalEntry> replayed = new ArrayList<>();
+        OrderJournal reopened = openJournal(1, replayed);
+        assertEquals(written, replayed);
+        assertEquals(9, reopened.nextLsn());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Should roll over to new segments and only replay entries from the requested sequence")
+    void shouldRollSegmentsAndReplayTail() throws Exception {
+        OrderJournal journal = openJournal(1, new ArrayList<>());
+        List<CompletableFuture<Long>> appends = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            appends.add(journal.append(product(i)));
+        }
+        CompletableFuture.allOf(appends.toArray(new CompletableFuture[0])).get();
+        assertTrue(journal.segmentCount() > 1);
+        journal.close();
+
+        List<JournalEntry> replayed = new ArrayList<>();
+        OrderJournal reopened = openJournal(91, replayed);
+        assertEquals(10, replayed.size());
+        assertEquals(product(90), replayed.getFirst());
+        assertEquals(101, reopened.nextLsn());
+
+        int before = reopened.segmentCount();
+        reopened.discardBefore(91);
+        assertTrue(reopened.segmentCount() < before);
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Should stop at a corrupt record and continue appending after the last valid one")
+    void shouldTruncateCorruptTail() throws Exception {
+        OrderJournal journal = openJournal(1, new ArrayList<>());
+        journal.append(product(1)).get();
+        journal.append(product(2)).get();
+        journal.close();
+
+        Path segment = segments().getLast();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long secondRecordPayload = 8 + 16 + JournalCodec.encode(product(1)).length + 16 + 3;
+            file.seek(secondRecordPayload);
+            file.write(0x7F);
+        }
+
+        List<JournalEntry> replayed = new ArrayList<>();
+        OrderJournal reopened = openJournal(1, replayed);
+        assertEquals(List.of(product(1)), replayed);
+        assertEquals(2, reopened.nextLsn());
+        reopened.append(product(3)).get();
+        reopened.close();
+
+        replayed.clear();
+        openJournal(1, replayed).close();
+        assertEquals(List.of(product(1), product(3)), replayed);
+    }
+
+    @Test
+    @DisplayName("Should replay the entries of committed transactions only")
+    void shouldSkipUncommittedTransactions() throws Exception {
+        UUID committed = UUID.randomUUID();
+        UUID aborted = UUID.randomUUID();
+        UUID interrupted = UUID.randomUUID();
+        OrderJournal journal = openJournal(1, new ArrayList<>());
+        for (JournalEntry entry : List.of(
+                new JournalEntry.TransactionEntry(committed, product(1)),
+                new JournalEntry.TransactionEntry(aborted, product(2)),
+                new JournalEntry.TransactionEntry(committed, product(3)),
+                new JournalEntry.TransactionAborted(aborted),
+                new JournalEntry.TransactionEntry(interrupted, product(4)),
+                product(5),
+                new JournalEntry.TransactionCommitted(committed))) {
+            journal.append(entry).get();
+        }
+        journal.close();
+
+        List<JournalEntry> replayed = new ArrayList<>();
+        OrderJournal reopened = openJournal(1, replayed);
+        assertEquals(List.of(product(1), product(3), product(5)), replayed);
+        assertEquals(8, reopened.nextLsn());
+        reopened.close();
+    }
+
+    private OrderJournal openJournal(long fromLsn, List<JournalEntry> replayed) throws IOException {
+        OrderJournal journal = new OrderJournal(directory, SEGMENT_SIZE, true, 16);
+        journal.recover(fromLsn, (lsn, entry) -> replayed.add(entry));
+        journal.start();
+        return journal;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static JournalEntry.ProductUpsert product(int index) {
+        return new JournalEntry.ProductUpsert(new UUID(0, index), "Product " + index, new BigDecimal("10.00"), index, false);
+    }
+
+    private static JournalEntry.OrderCreated order(UUID productId) {
+        return new JournalEntry.OrderCreated(UUID.randomUUID(), LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000),
+                new BigDecimal("21.00"), UUID.randomUUID(), "checkout-7f3a",
+                "4c8a1f0e9d2b7a6c5e3f1d0b9a8c7e6f5d4c3b2a1f0e9d8c7b6a5f4e3d2c1b0a",
+                List.of(new JournalEntry.Item(UUID.randomUUID(), productId, 2, new BigDecimal("10.50"), new BigDecimal("1.05"))),
+                List.of(new JournalEntry.StockLevel(productId, 8)),
+                List.of(new JournalEntry.LocationLevel(UUID.randomUUID(), 3)));
+    }
+}
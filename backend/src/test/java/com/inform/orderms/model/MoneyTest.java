@@ -0,0 +1,60 @@
+package com.inform.orderms.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should serialize like the two-decimal BigDecimal it replaces")
+    void shouldSerializeAsDecimal() throws Exception {
+        Product product = new Product();
+        product.setPrice(Money.ofCents(1950));
+
+        String json = objectMapper.writeValueAsString(product);
+
+        assertTrue(json.contains("\"price\":19.50"), json);
+        assertEquals(Money.ofCents(1950), objectMapper.readValue(json, Product.class).getPrice());
+        assertEquals(Money.ofCents(1999), objectMapper.readValue("{\"price\":\"19.99\"}", Product.class).getPrice());
+    }
+
+    @Test
+    @DisplayName("Should round to whole cents like the price columns")
+    void shouldRoundToCents() {
+        assertEquals(1235, Money.of(new BigDecimal("12.345")).cents());
+        assertEquals(1234, Money.of(new BigDecimal("12.344")).cents());
+        assertEquals(1200, Money.of(new BigDecimal("12")).cents());
+        assertEquals(1235, Money.of(new BigDecimal("12.341"), RoundingMode.CEILING).cents());
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("12.341"), RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    @DisplayName("Should throw instead of overflowing")
+    void shouldThrowOnOverflow() {
+        Money large = Money.ofCents(Long.MAX_VALUE);
+
+        assertThrows(ArithmeticException.class, () -> large.plus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> large.times(2));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1e20")));
+        assertEquals(Money.ofCents(Long.MAX_VALUE - 1), large.minus(Money.ofCents(1)));
+    }
+
+    @Test
+    @DisplayName("Should convert to and from the numeric column")
+    void shouldConvertForColumn() {
+        MoneyConverter converter = new MoneyConverter();
+
+        assertEquals(new BigDecimal("0.05"), converter.convertToDatabaseColumn(Money.ofCents(5)));
+        assertEquals(Money.ofCents(-250), converter.convertToEntityAttribute(new BigDecimal("-2.5")));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
@@ -0,0 +1,178 @@
+package com.inform.orderms.pricing;
+
+import com.inform.orderms.model.Money;
+import com.inform.orderms.model.Product;
+import com.inform.orderms.model.Promotion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceListTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private final Product product = product(1000);
+    private final Product otherProduct = product(2000);
+
+    @Test
+    @DisplayName("Should charge the list price without promotions")
+    void shouldChargeListPriceWithoutPromotions() {
+        LinePrice line = PriceList.EMPTY.price(product, 3);
+
+        assertEquals(new LinePrice(Money.ofCents(1000), Money.ZERO, Money.ofCents(3000)), line);
+    }
+
+    @Test
+    @DisplayName("Should apply the better of a percentage and a fixed discount without stacking them")
+    void shouldApplyBetterDiscountOnly() {
+        PriceList prices = PriceList.compile(List.of(percentage(null, 15), fixedAmount(null, 100)), NOW);
+
+        assertEquals(new LinePrice(Money.ofCents(1000), Money.ofCents(300), Money.ofCents(1700)),
+                prices.price(product, 2));
+        // 4.00 off per unit beats 15% of 40.00
+        assertEquals(new LinePrice(Money.ofCents(2000), Money.ofCents(800), Money.ofCents(3200)),
+                PriceList.compile(List.of(percentage(null, 15), fixedAmount(null, 400)), NOW).price(otherProduct, 2));
+    }
+
+    @Test
+    @DisplayName("Should never discount a line below zero")
+    void shouldNotDiscountBelowZero() {
+        PriceList prices = PriceList.compile(List.of(fixedAmount(product.getId(), 1500)), NOW);
+
+        assertEquals(Money.ZERO, prices.price(product, 2).total());
+    }
+
+    @Test
+    @DisplayName("Should give free units for each complete buy-X-get-Y group")
+    void shouldGiveFreeUnits() {
+        PriceList prices = PriceList.compile(List.of(buyGetFree(product.getId(), 2, 1)), NOW);
+
+        assertEquals(new LinePrice(Money.ofCents(1000), Money.ofCents(2000), Money.ofCents(5000)),
+                prices.price(product, 7));
+        assertEquals(Money.ZERO, prices.price(product, 2).discount());
+        assertEquals(Money.ZERO, prices.price(otherProduct, 7).discount());
+    }
+
+    @Test
+    @DisplayName("Should take the percentage off the units paid for only")
+    void shouldDiscountPaidUnitsOnly() {
+        PriceList prices = PriceList.compile(List.of(buyGetFree(product.getId(), 2, 1), percentage(null, 10)), NOW);
+
+        LinePrice line = prices.price(product, 3);
+
+        assertEquals(Money.ofCents(1200), line.discount());
+        assertEquals(Money.ofCents(1800), line.total());
+    }
+
+    @Test
+    @DisplayName("Should lower the unit price once a volume tier is reached")
+    void shouldApplyVolumeTiers() {
+        PriceList prices = PriceList.compile(List.of(
+                volumeTier(product.getId(), 5, 900),
+                volumeTier(product.getId(), 10, 950)), NOW);
+
+        assertEquals(Money.ofCents(1000), prices.price(product, 4).unitPrice());
+        assertEquals(Money.ofCents(900), prices.price(product, 5).unitPrice());
+        // A larger quantity never pays more per unit than a smaller tier
+        assertEquals(new LinePrice(Money.ofCents(900), Money.ZERO, Money.ofCents(10800)), prices.price(product, 12));
+    }
+
+    @Test
+    @DisplayName("Should replace the list price with the lowest override of the product")
+    void shouldApplyLowestOverride() {
+        PriceList prices = PriceList.compile(List.of(
+                priceOverride(product.getId(), 800),
+                priceOverride(product.getId(), 750)), NOW);
+
+        assertEquals(Money.ofCents(750), prices.price(product, 1).unitPrice());
+        assertEquals(Money.ofCents(2000), prices.price(otherProduct, 1).unitPrice());
+    }
+
+    @Test
+    @DisplayName("Should combine store-wide promotions with those of the product")
+    void shouldMergeStoreWidePromotions() {
+        PriceList prices = PriceList.compile(List.of(priceOverride(product.getId(), 800), percentage(null, 10),
+                percentage(product.getId(), 5)), NOW);
+
+        assertEquals(new LinePrice(Money.ofCents(800), Money.ofCents(80), Money.ofCents(720)), prices.price(product, 1));
+        assertEquals(new LinePrice(Money.ofCents(2000), Money.ofCents(200), Money.ofCents(1800)),
+                prices.price(otherProduct, 1));
+        assertEquals(3, prices.activePromotions());
+    }
+
+    @Test
+    @DisplayName("Should ignore promotions outside their window and expire when the next one starts or ends")
+    void shouldRespectTimeWindows() {
+        Promotion upcoming = percentage(null, 50);
+        upcoming.setStartsAt(NOW.plusHours(2));
+        Promotion ended = percentage(null, 40);
+        ended.setEndsAt(NOW);
+        Promotion ending = percentage(null, 10);
+        ending.setStartsAt(NOW.minusDays(1));
+        ending.setEndsAt(NOW.plusHours(1));
+
+        PriceList prices = PriceList.compile(List.of(upcoming, ended, ending), NOW);
+
+        assertEquals(Money.ofCents(100), prices.price(product, 1).discount());
+        assertEquals(1, prices.activePromotions());
+        assertTrue(prices.isValidAt(NOW.plusMinutes(59)));
+        assertFalse(prices.isValidAt(NOW.plusHours(1)));
+        assertEquals(Money.ofCents(500), PriceList.compile(List.of(upcoming, ended, ending), NOW.plusHours(2))
+                .price(product, 1).discount());
+    }
+
+    private static Product product(long cents) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("Product " + cents);
+        product.setPrice(Money.ofCents(cents));
+        product.setStock(100);
+        return product;
+    }
+
+    private static Promotion percentage(UUID productId, int percentOff) {
+        Promotion promotion = promotion(Promotion.Type.PERCENTAGE, productId);
+        promotion.setPercentOff(percentOff);
+        return promotion;
+    }
+
+    private static Promotion fixedAmount(UUID productId, long cents) {
+        Promotion promotion = promotion(Promotion.Type.FIXED_AMOUNT, productId);
+        promotion.setAmount(Money.ofCents(cents));
+        return promotion;
+    }
+
+    private static Promotion buyGetFree(UUID productId, int buyQuantity, int freeQuantity) {
+        Promotion promotion = promotion(Promotion.Type.BUY_X_GET_Y, productId);
+        promotion.setBuyQuantity(buyQuantity);
+        promotion.setFreeQuantity(freeQuantity);
+        return promotion;
+    }
+
+    private static Promotion volumeTier(UUID productId, int minQuantity, long cents) {
+        Promotion promotion = promotion(Promotion.Type.VOLUME_TIER, productId);
+        promotion.setMinQuantity(minQuantity);
+        promotion.setAmount(Money.ofCents(cents));
+        return promotion;
+    }
+
+    private static Promotion priceOverride(UUID productId, long cents) {
+        Promotion promotion = promotion(Promotion.Type.PRICE_OVERRIDE, productId);
+        promotion.setAmount(Money.ofCents(cents));
+        return promotion;
+    }
+
+    private static Promotion promotion(Promotion.Type type, UUID productId) {
+        Promotion promotion = new Promotion();
+        promotion.setId(UUID.randomUUID());
+        promotion.setName(type.name());
+        promotion.setType(type);
+        promotion.setProductId(productId);
+        return promotion;
+    }
+}
@@ -0,0 +1,73 @@
+package com.inform.orderms.pricing;
+
+import com.inform.orderms.model.Promotion;
+import com.inform.orderms.repository.PromotionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PricingEngineTest {
+
+    @Mock
+    private PromotionRepository promotionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PricingEngine pricingEngine;
+
+    @BeforeEach
+    void setUp() {
+        pricingEngine = new PricingEngine(promotionRepository, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pricingEngine.destroy();
+    }
+
+    @Test
+    @DisplayName("Should recompile when a promotion ends without querying on the pricing thread")
+    void shouldRecompileInBackgroundWhenPromotionEnds() throws Exception {
+        Promotion promotion = new Promotion();
+        promotion.setId(UUID.randomUUID());
+        promotion.setName("Ending soon");
+        promotion.setType(Promotion.Type.PERCENTAGE);
+        promotion.setPercentOff(10);
+        promotion.setEndsAt(LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(300)));
+        Thread pricingThread = Thread.currentThread();
+        AtomicBoolean queriedWhilePricing = new AtomicBoolean();
+        when(promotionRepository.findAll()).thenAnswer(invocation -> {
+            queriedWhilePricing.compareAndSet(false, Thread.currentThread() == pricingThread);
+            return List.of(promotion);
+        });
+
+        pricingEngine.onApplicationReady();
+        assertEquals(1, pricingEngine.current().activePromotions());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pricingEngine.current().activePromotions() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, pricingEngine.current().activePromotions());
+        assertFalse(queriedWhilePricing.get());
+        verify(promotionRepository, times(2)).findAll();
+    }
+}
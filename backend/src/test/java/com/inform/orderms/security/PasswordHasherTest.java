@@ -0,0 +1,74 @@
+package com.inform.orderms.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.destroy();
+    }
+
+    @Test
+    @DisplayName("Should upgrade a matching hash that uses a lower cost than configured")
+    void shouldUpgradeLowerCostHash() throws Exception {
+        passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(6), meterRegistry, 1, 4, Duration.ofSeconds(5));
+        String oldHash = new BCryptPasswordEncoder(4).encode("admin123");
+
+        PasswordHasher.Verification verification = passwordHasher.verify("admin123", oldHash).get(5, TimeUnit.SECONDS);
+
+        assertTrue(verification.matched());
+        String upgraded = verification.upgradedHash().orElseThrow();
+        assertTrue(upgraded.startsWith("$2a$06$"));
+        assertFalse(passwordHasher.verify("admin123", upgraded).get(5, TimeUnit.SECONDS).upgradedHash().isPresent());
+        assertFalse(passwordHasher.verify("wrong", upgraded).get(5, TimeUnit.SECONDS).matched());
+        assertEquals(1, meterRegistry.get("auth.password.rehash").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should fail fast once the pool and its queue are full")
+    void shouldRejectWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.matches(rawPassword, encodedPassword);
+            }
+        };
+        passwordHasher = new PasswordHasher(blockingEncoder, meterRegistry, 1, 1, Duration.ofSeconds(5));
+        String hash = blockingEncoder.encode("admin123");
+
+        CompletableFuture<PasswordHasher.Verification> running = passwordHasher.verify("admin123", hash);
+        CompletableFuture<PasswordHasher.Verification> queued = passwordHasher.verify("admin123", hash);
+        CompletableFuture<PasswordHasher.Verification> rejected = passwordHasher.verify("admin123", hash);
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(PasswordHashingOverloadedException.class, failure.getCause());
+        assertEquals(1, meterRegistry.get("executor.queued").tag("name", PasswordHasher.EXECUTOR_NAME).gauge().value());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS).matched());
+        assertTrue(queued.get(5, TimeUnit.SECONDS).matched());
+    }
+}
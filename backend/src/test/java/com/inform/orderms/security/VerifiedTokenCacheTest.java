@@ -0,0 +1,154 @@
+package com.inform.orderms.security;
+
+import com.inform.orderms.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VerifiedTokenCacheTest {
+
+    private static final String TOKEN = "header.payload.signature";
+    private static final Instant NOW = Instant.parse("2024-05-01T12:00:00Z");
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new VerifiedTokenCache(jwtUtil, meterRegistry, true, 100, 1000, Duration.ofDays(7), clock);
+    }
+
+    @Test
+    @DisplayName("Should verify the signature once and serve repeat requests from the cache")
+    void shouldServeRepeatRequestsFromCache() {
+        when(jwtUtil.verify(TOKEN)).thenReturn(Optional.of(claims(NOW.minusSeconds(60), NOW.plusSeconds(3600))));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("admin@orderflow.com", cache.verify(TOKEN).map(VerifiedClaims::email).orElseThrow());
+        }
+
+        verify(jwtUtil, times(1)).verify(TOKEN);
+        assertEquals(4, meterRegistry.get("cache.gets").tag("cache", VerifiedTokenCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should stop accepting a cached token once it expires")
+    void shouldRejectExpiredToken() {
+        when(jwtUtil.verify(TOKEN)).thenReturn(Optional.of(claims(NOW.minusSeconds(60), NOW.plusSeconds(60))));
+        assertTrue(cache.verify(TOKEN).isPresent());
+
+        clock.advance(Duration.ofSeconds(61));
+        when(jwtUtil.verify(TOKEN)).thenReturn(Optional.empty());
+
+        assertTrue(cache.verify(TOKEN).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject revoked tokens and tokens issued before a subject revocation")
+    void shouldHonorRevocation() {
+        String other = "other.token.signature";
+        when(jwtUtil.verify(TOKEN)).thenReturn(Optional.of(claims(NOW.minusSeconds(60), NOW.plusSeconds(3600))));
+        when(jwtUtil.verify(other)).thenReturn(Optional.of(claims(NOW.minusSeconds(30), NOW.plusSeconds(3600))));
+        assertTrue(cache.verify(TOKEN).isPresent());
+        assertTrue(cache.verify(other).isPresent());
+
+        cache.revoke(TOKEN);
+        assertTrue(cache.verify(TOKEN).isEmpty());
+        assertTrue(cache.verify(other).isPresent());
+
+        cache.revokeIssuedBefore("admin@orderflow.com", NOW);
+        assertTrue(cache.verify(other).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should hold revocations beyond the cache size until the longest token lifetime passes")
+    void shouldKeepRevocationsUntilTokenLifetimePasses() {
+        when(jwtUtil.verify(TOKEN)).thenReturn(Optional.of(claims(NOW.minusSeconds(60), NOW.plus(Duration.ofDays(8)))));
+        cache.revoke(TOKEN);
+        for (int i = 0; i < 500; i++) {
+            cache.revoke("revoked.token." + i);
+        }
+
+        clock.advance(Duration.ofDays(6));
+        assertTrue(cache.verify(TOKEN).isEmpty());
+        verify(jwtUtil, never()).verify(TOKEN);
+
+        clock.advance(Duration.ofDays(1));
+        assertTrue(cache.verify(TOKEN).isPresent());
+    }
+
+    @Test
+    @DisplayName("Should revoke the subject's tokens up to the one logged out once too many tokens are revoked")
+    void shouldRevokeSubjectWhenRevocationsAreFull() {
+        cache = new VerifiedTokenCache(jwtUtil, meterRegistry, true, 100, 2, Duration.ofDays(7), clock);
+        cache.revoke("first.token.signature");
+        cache.revoke("second.token.signature");
+
+        String older = "older.token.signature";
+        String newer = "newer.token.signature";
+        when(jwtUtil.verify(TOKEN)).thenReturn(Optional.of(claims(NOW.minusSeconds(60), NOW.plusSeconds(3600))));
+        when(jwtUtil.verify(older)).thenReturn(Optional.of(claims(NOW.minusSeconds(120), NOW.plusSeconds(3600))));
+        when(jwtUtil.verify(newer)).thenReturn(Optional.of(claims(NOW.plusSeconds(1), NOW.plusSeconds(3600))));
+        cache.revoke(TOKEN);
+
+        assertTrue(cache.verify(TOKEN).isEmpty());
+        assertTrue(cache.verify(older).isEmpty());
+        assertTrue(cache.verify(newer).isPresent());
+    }
+
+    private static VerifiedClaims claims(Instant issuedAt, Instant expiresAt) {
+        return new VerifiedClaims(UUID.randomUUID(), "admin@orderflow.com", Set.of("ADMIN"), null, issuedAt, expiresAt);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.inform.orderms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inform.orderms.model.Money;
+import com.inform.orderms.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MappingJackson2CborHttpMessageConverter cborConverter = new MappingJackson2CborHttpMessageConverter();
+    private final CatalogResponseCache cache = new CatalogResponseCache(objectMapper, cborConverter,
+            new SimpleMeterRegistry(), DataSize.ofMegabytes(1), true, DataSize.ofBytes(512));
+
+    @Test
+    @DisplayName("Should serve a cached body only for the ETag it was built for")
+    void shouldMatchOnETag() throws IOException {
+        Product product = product(1);
+        String key = CatalogResponseCache.productKey(product.getId());
+
+        CatalogResponseCache.SerializedResponse stored = cache.put(key, MediaType.APPLICATION_JSON, "\"a-1\"", product);
+
+        assertEquals(product, objectMapper.readValue(stored.body(), Product.class));
+        assertNull(stored.gzipped());
+        assertSame(stored, cache.get(key, MediaType.APPLICATION_JSON, "\"a-1\"").orElseThrow());
+        assertTrue(cache.get(key, MediaType.APPLICATION_JSON, "\"a-2\"").isEmpty());
+        assertTrue(cache.get(CatalogResponseCache.productKey(UUID.randomUUID()), MediaType.APPLICATION_JSON, "\"a-1\"").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep a gzip copy of large bodies")
+    void shouldCompressLargeBodies() throws IOException {
+        List<Product> page = IntStream.range(0, 50).mapToObj(CatalogResponseCacheTest::product).toList();
+
+        CatalogResponseCache.SerializedResponse stored = cache.put(CatalogResponseCache.pageKey(0, 50, "name", "asc"),
+                MediaType.APPLICATION_JSON, "\"a-1\"", page);
+
+        assertNotNull(stored.gzipped());
+        assertTrue(stored.gzipped().length < stored.body().length);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(stored.gzipped()))) {
+            assertArrayEquals(stored.body(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep CBOR and JSON bodies of the same key apart")
+    void shouldCacheEachFormatSeparately() throws IOException {
+        Product product = product(1);
+        String key = CatalogResponseCache.productKey(product.getId());
+
+        CatalogResponseCache.SerializedResponse json = cache.put(key, MediaType.APPLICATION_JSON, "\"a-1\"", product);
+        CatalogResponseCache.SerializedResponse cbor = cache.put(key, MediaType.APPLICATION_CBOR, "\"a-1-cbor\"", product);
+
+        assertEquals(MediaType.APPLICATION_CBOR, cbor.contentType());
+        assertEquals(product, cborConverter.getObjectMapper().readValue(cbor.body(), Product.class));
+        assertTrue(cbor.body().length < json.body().length);
+        assertSame(json, cache.get(key, MediaType.APPLICATION_JSON, "\"a-1\"").orElseThrow());
+        assertSame(cbor, cache.get(key, MediaType.APPLICATION_CBOR, "\"a-1-cbor\"").orElseThrow());
+    }
+
+    private static Product product(int index) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("Product " + index);
+        product.setPrice(Money.ofCents(1999));
+        product.setStock(index);
+        return product;
+    }
+}
@@ -0,0 +1,162 @@
+package com.inform.orderms.service;
+
+import com.inform.orderms.inventory.Allocation;
+import com.inform.orderms.inventory.AllocationPolicy;
+import com.inform.orderms.model.Product;
+import com.inform.orderms.repository.LocationStockRepository;
+import com.inform.orderms.repository.LocationStockRepository.LocationQuantity;
+import com.inform.orderms.repository.LocationStockRepository.LocationRow;
+import com.inform.orderms.repository.ProductRepository;
+import com.inform.orderms.repository.WarehouseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryServiceTest {
+
+    private static final UUID NEAR = UUID.randomUUID();
+    private static final UUID FAR = UUID.randomUUID();
+
+    @Mock
+    private WarehouseRepository warehouseRepository;
+
+    @Mock
+    private LocationStockRepository locationStockRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private LocationStockTotals locationStockTotals;
+
+    private final Product product = new Product();
+
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        product.setId(UUID.randomUUID());
+        product.setName("Located product");
+        product.setStockedByLocation(true);
+        inventoryService = new InventoryService(warehouseRepository, locationStockRepository, productRepository,
+                eventPublisher, locationStockTotals, AllocationPolicy.NEAREST);
+    }
+
+    @Test
+    @DisplayName("Should allocate again from fresh rows when another order took from a location first")
+    void shouldReallocateAfterLosingLocation() {
+        when(locationStockRepository.findLocationRows(List.of(product.getId())))
+                .thenReturn(List.of(location(NEAR, 5, 1), location(FAR, 10, 5)))
+                .thenReturn(List.of(location(NEAR, 1, 1), location(FAR, 10, 5)));
+        when(locationStockRepository.decrement(NEAR, 3)).thenReturn(0);
+        when(locationStockRepository.decrement(NEAR, 1)).thenReturn(1);
+        when(locationStockRepository.decrement(FAR, 2)).thenReturn(1);
+        when(locationStockRepository.findQuantities(Set.of(NEAR, FAR)))
+                .thenReturn(List.of(quantity(NEAR, 0), quantity(FAR, 7)));
+
+        List<Allocation> allocations = inventoryService.allocate(Map.of(product.getId(), 3),
+                Map.of(product.getId(), product));
+
+        // Another order took from the far location too, so its remainder is read back rather than computed
+        assertEquals(List.of(new Allocation(NEAR, NEAR, product.getId(), 1, 0),
+                new Allocation(FAR, FAR, product.getId(), 2, 7)), allocations);
+        verify(locationStockTotals).refreshAfterCommit(List.of(product.getId()));
+    }
+
+    @Test
+    @DisplayName("Should reject the order when the locations hold too little between them")
+    void shouldRejectInsufficientLocationStock() {
+        when(locationStockRepository.findLocationRows(List.of(product.getId())))
+                .thenReturn(List.of(location(NEAR, 1, 1), location(FAR, 1, 5)));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> inventoryService.allocate(
+                Map.of(product.getId(), 3), Map.of(product.getId(), product)));
+
+        assertEquals("Insufficient stock for product: Located product", exception.getMessage());
+        verify(locationStockRepository, never()).decrement(any(), anyInt());
+        verify(locationStockTotals, never()).refreshAfterCommit(any());
+    }
+
+    @Test
+    @DisplayName("Should take units removed from the total from the nearest warehouses first")
+    void shouldSetTotalStockNearestFirst() {
+        when(locationStockRepository.findLocationRows(List.of(product.getId())))
+                .thenReturn(List.of(location(FAR, 10, 5), location(NEAR, 2, 1)));
+        when(locationStockRepository.adjust(any(), anyInt())).thenReturn(1);
+        when(productRepository.findById(product.getId())).thenReturn(Optional.of(product));
+
+        assertSame(product, inventoryService.setProductStock(product.getId(), 9));
+
+        verify(locationStockRepository).adjust(NEAR, -2);
+        verify(locationStockRepository).adjust(FAR, -1);
+        verify(productRepository).refreshLocationTotals(List.of(product.getId()));
+    }
+
+    // Warehouse ids double as location ids, one location per warehouse
+    private LocationRow location(UUID id, int quantity, int distance) {
+        return new Location(id, id, product.getId(), quantity, distance);
+    }
+
+    private static LocationQuantity quantity(UUID id, int quantity) {
+        return new LocationQuantity() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getQuantity() {
+                return quantity;
+            }
+        };
+    }
+
+    private record Location(UUID id, UUID warehouseId, UUID productId, int quantity, int distance) implements LocationRow {
+
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public UUID getWarehouseId() {
+            return warehouseId;
+        }
+
+        @Override
+        public UUID getProductId() {
+            return productId;
+        }
+
+        @Override
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        @Override
+        public Integer getDistance() {
+            return distance;
+        }
+    }
+}
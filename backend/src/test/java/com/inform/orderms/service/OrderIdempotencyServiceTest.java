@@ -0,0 +1,150 @@
+package com.inform.orderms.service;
+
+import com.inform.orderms.dto.CartCalculationRequest;
+import com.inform.orderms.dto.CartItem;
+import com.inform.orderms.model.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIdempotencyServiceTest {
+
+    private static final UUID PRODUCT_ID = UUID.randomUUID();
+
+    @Mock
+    private OrderService orderService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UUID userId = UUID.randomUUID();
+    private OrderIdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new OrderIdempotencyService(orderService, meterRegistry, Duration.ofHours(1), 100, Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should create the order once and let concurrent duplicates wait for it")
+    void shouldCollapseConcurrentDuplicates() throws Exception {
+        Order order = order();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.getOrderByIdempotencyKey(userId, "key-1")).thenReturn(Optional.empty());
+        when(orderService.getOrderById(order.getId())).thenReturn(Optional.of(order));
+        when(orderService.createOrderFromCart(any(), eq(userId), eq("key-1"), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return order;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<OrderIdempotencyService.Result> first = executor.submit(() -> idempotencyService.createOrder(cart(1), userId, "key-1"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<OrderIdempotencyService.Result> duplicate = executor.submit(() -> idempotencyService.createOrder(cart(1), userId, "key-1"));
+            release.countDown();
+
+            assertFalse(first.get(5, TimeUnit.SECONDS).replayed());
+            OrderIdempotencyService.Result replayed = duplicate.get(5, TimeUnit.SECONDS);
+            assertTrue(replayed.replayed());
+            assertSame(order, replayed.order());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(idempotencyService.createOrder(cart(1), userId, "key-1").replayed());
+        verify(orderService, times(1)).createOrderFromCart(any(), eq(userId), eq("key-1"), any());
+        assertEquals(2, meterRegistry.get("orders.idempotency.replayed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for different items")
+    void shouldRejectKeyReuseWithDifferentItems() {
+        when(orderService.getOrderByIdempotencyKey(userId, "key-1")).thenReturn(Optional.empty());
+        when(orderService.createOrderFromCart(any(), eq(userId), eq("key-1"), any())).thenReturn(order());
+
+        idempotencyService.createOrder(cart(1), userId, "key-1");
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> idempotencyService.createOrder(cart(2), userId, "key-1"));
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for different items once it is only known from the database")
+    void shouldRejectPersistedKeyReuseWithDifferentItems() {
+        Order persisted = order();
+        persisted.setRequestHash(OrderIdempotencyService.requestHash(cart(1).getItems()));
+        when(orderService.getOrderByIdempotencyKey(userId, "key-1")).thenReturn(Optional.of(persisted));
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> idempotencyService.createOrder(cart(2), userId, "key-1"));
+        assertTrue(new OrderIdempotencyService(orderService, meterRegistry, Duration.ofHours(1), 100, Duration.ofSeconds(5))
+                .createOrder(cart(1), userId, "key-1").replayed());
+    }
+
+    @Test
+    @DisplayName("Should not remember failed attempts")
+    void shouldRetryAfterFailure() {
+        Order order = order();
+        when(orderService.getOrderByIdempotencyKey(userId, "key-1")).thenReturn(Optional.empty());
+        when(orderService.createOrderFromCart(any(), eq(userId), eq("key-1"), any()))
+                .thenThrow(new RuntimeException("Insufficient stock for product: Laptop"))
+                .thenReturn(order);
+
+        assertThrows(RuntimeException.class, () -> idempotencyService.createOrder(cart(1), userId, "key-1"));
+        OrderIdempotencyService.Result result = idempotencyService.createOrder(cart(1), userId, "key-1");
+
+        assertFalse(result.replayed());
+        assertSame(order, result.order());
+    }
+
+    @Test
+    @DisplayName("Should return the persisted order when the key is no longer in memory or was taken elsewhere")
+    void shouldFallBackToPersistedKey() {
+        Order persisted = order();
+        when(orderService.getOrderByIdempotencyKey(userId, "key-1")).thenReturn(Optional.of(persisted));
+        when(orderService.getOrderByIdempotencyKey(userId, "key-2"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(persisted));
+        when(orderService.createOrderFromCart(any(), eq(userId), eq("key-2"), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate idempotency key"));
+
+        OrderIdempotencyService.Result fromDatabase = idempotencyService.createOrder(cart(1), userId, "key-1");
+        OrderIdempotencyService.Result fromConflict = idempotencyService.createOrder(cart(1), userId, "key-2");
+
+        assertTrue(fromDatabase.replayed());
+        assertTrue(fromConflict.replayed());
+        assertSame(persisted, fromConflict.order());
+    }
+
+    private static Order order() {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        return order;
+    }
+
+    private static CartCalculationRequest cart(int quantity) {
+        return new CartCalculationRequest(List.of(new CartItem(PRODUCT_ID, quantity)));
+    }
+}
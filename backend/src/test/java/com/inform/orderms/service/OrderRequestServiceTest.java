@@ -0,0 +1,134 @@
+package com.inform.orderms.service;
+
+import com.inform.orderms.dto.CartCalculationRequest;
+import com.inform.orderms.dto.CartItem;
+import com.inform.orderms.model.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderRequestServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderIdempotencyService orderIdempotencyService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OrderRequestService orderRequestService;
+
+    @AfterEach
+    void tearDown() {
+        orderRequestService.stop();
+    }
+
+    @Test
+    @DisplayName("Should report created and rejected outcomes only to the submitting user")
+    void shouldCompleteRequestsInBackground() throws Exception {
+        orderRequestService = new OrderRequestService(orderService, orderIdempotencyService, meterRegistry, 1, 10, Duration.ofHours(1), Duration.ofSeconds(5));
+        UUID userId = UUID.randomUUID();
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        CartCalculationRequest good = cart();
+        CartCalculationRequest bad = cart();
+        when(orderService.createOrderFromCart(good, userId)).thenReturn(order);
+        when(orderService.createOrderFromCart(bad, userId)).thenThrow(new RuntimeException("Insufficient stock for product: Laptop"));
+
+        OrderRequestService.OrderRequest created = orderRequestService.submit(good, userId);
+        OrderRequestService.OrderRequest rejected = orderRequestService.submit(bad, userId);
+        assertEquals(OrderRequestService.Status.PENDING, created.status());
+
+        OrderRequestService.OrderRequest createdOutcome = awaitOutcome(created.id(), userId);
+        assertEquals(OrderRequestService.Status.CREATED, createdOutcome.status());
+        assertEquals(order.getId(), createdOutcome.orderId());
+        assertNotNull(createdOutcome.completedAt());
+
+        OrderRequestService.OrderRequest rejectedOutcome = awaitOutcome(rejected.id(), userId);
+        assertEquals(OrderRequestService.Status.REJECTED, rejectedOutcome.status());
+        assertEquals("Insufficient stock for product: Laptop", rejectedOutcome.message());
+
+        assertTrue(orderRequestService.findRequest(created.id(), UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should refuse new requests once the workers and queue are full")
+    void shouldRejectWhenQueueFull() throws Exception {
+        orderRequestService = new OrderRequestService(orderService, orderIdempotencyService, meterRegistry, 1, 1, Duration.ofHours(1), Duration.ofSeconds(5));
+        UUID userId = UUID.randomUUID();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.createOrderFromCart(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new Order();
+        });
+
+        orderRequestService.submit(cart(), userId);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        orderRequestService.submit(cart(), userId);
+
+        assertThrows(OrderQueueFullException.class, () -> orderRequestService.submit(cart(), userId));
+        assertEquals(1, meterRegistry.get("orders.async.overloaded").counter().count());
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should complete requests as the user who submitted them")
+    void shouldCompleteAsSubmittingUser() throws Exception {
+        orderRequestService = new OrderRequestService(orderService, orderIdempotencyService, meterRegistry, 1, 10, Duration.ofHours(1), Duration.ofSeconds(5));
+        UUID userId = UUID.randomUUID();
+        AtomicReference<Authentication> completedAs = new AtomicReference<>();
+        when(orderService.createOrderFromCart(any(), any())).thenAnswer(invocation -> {
+            completedAs.set(SecurityContextHolder.getContext().getAuthentication());
+            return new Order();
+        });
+        Authentication caller = new UsernamePasswordAuthenticationToken("buyer@example.com", null, List.of());
+
+        SecurityContextHolder.getContext().setAuthentication(caller);
+        OrderRequestService.OrderRequest pending;
+        try {
+            pending = orderRequestService.submit(cart(), userId);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        awaitOutcome(pending.id(), userId);
+        assertSame(caller, completedAs.get());
+    }
+
+    private OrderRequestService.OrderRequest awaitOutcome(UUID requestId, UUID userId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            OrderRequestService.OrderRequest request = orderRequestService.findRequest(requestId, userId).orElseThrow();
+            if (request.status() != OrderRequestService.Status.PENDING) {
+                return request;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Order request " + requestId + " did not complete");
+    }
+
+    private static CartCalculationRequest cart() {
+        return new CartCalculationRequest(List.of(new CartItem(UUID.randomUUID(), 1)));
+    }
+}
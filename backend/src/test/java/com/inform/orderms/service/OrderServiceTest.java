@@ -1,23 +1,52 @@
 package com.inform.orderms.service;
 
+import com.inform.orderms.dto.CartCalculationRequest;
+import com.inform.orderms.dto.CartCalculationResponse;
+import com.inform.orderms.dto.CartItem;
+import com.inform.orderms.dto.FieldSelection;
+import com.inform.orderms.dto.OrderSummaryResponse;
+import com.inform.orderms.event.OrderCreatedEvent;
+import com.inform.orderms.inventory.Allocation;
+import com.inform.orderms.model.Money;
+import com.inform.orderms.model.Order;
 import com.inform.orderms.model.OrderItem;
 import com.inform.orderms.model.Product;
+import com.inform.orderms.model.Promotion;
+import com.inform.orderms.pricing.PriceList;
+import com.inform.orderms.pricing.PricingEngine;
 import com.inform.orderms.repository.OrderRepository;
 import com.inform.orderms.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class OrderServiceTest {
@@ -31,11 +60,25 @@ class OrderServiceTest {
     @Mock
     private UserService userService;
     
+    @Mock
+    private PricingEngine pricingEngine;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private OrderService orderService;
 
     @BeforeEach
     void setUp() {
-        orderService = new OrderService(orderRepository, productRepository, userService);
+        lenient().when(pricingEngine.current()).thenReturn(PriceList.EMPTY);
+        lenient().when(inventoryService.allocate(any(), any())).thenReturn(List.of());
+        orderService = new OrderService(orderRepository, productRepository, userService, pricingEngine, inventoryService,
+                eventPublisher, meterRegistry);
     }
 
     @Test
@@ -44,9 +87,9 @@ class OrderServiceTest {
         OrderItem item = createOrderItem(new BigDecimal("10.50"), 2);
         List<OrderItem> orderItems = List.of(item);
 
-        BigDecimal totalPrice = orderService.calculateOrderTotalPrice(orderItems);
+        Money totalPrice = orderService.calculateOrderTotalPrice(orderItems);
 
-        assertEquals(new BigDecimal("21.00"), totalPrice);
+        assertEquals(new BigDecimal("21.00"), totalPrice.toBigDecimal());
     }
 
     @Test
@@ -57,17 +100,17 @@ class OrderServiceTest {
         OrderItem item3 = createOrderItem(new BigDecimal("5.25"), 4);
         List<OrderItem> orderItems = Arrays.asList(item1, item2, item3);
 
-        BigDecimal totalPrice = orderService.calculateOrderTotalPrice(orderItems);
+        Money totalPrice = orderService.calculateOrderTotalPrice(orderItems);
 
-        assertEquals(new BigDecimal("56.50"), totalPrice);
+        assertEquals(new BigDecimal("56.50"), totalPrice.toBigDecimal());
     }
 
     @Test
     @DisplayName("Should return zero for null order items list")
     void shouldReturnZeroForNullOrderItems() {
-        BigDecimal totalPrice = orderService.calculateOrderTotalPrice(null);
+        Money totalPrice = orderService.calculateOrderTotalPrice(null);
 
-        assertEquals(BigDecimal.ZERO, totalPrice);
+        assertEquals(Money.ZERO, totalPrice);
     }
 
     @Test
@@ -75,9 +118,20 @@ class OrderServiceTest {
     void shouldReturnZeroForEmptyOrderItems() {
         List<OrderItem> orderItems = new ArrayList<>();
 
-        BigDecimal totalPrice = orderService.calculateOrderTotalPrice(orderItems);
+        Money totalPrice = orderService.calculateOrderTotalPrice(orderItems);
+
+        assertEquals(Money.ZERO, totalPrice);
+    }
+
+    @Test
+    @DisplayName("Should subtract item discounts from the total price")
+    void shouldSubtractItemDiscounts() {
+        OrderItem item = createOrderItem(new BigDecimal("10.00"), 3);
+        item.setDiscount(Money.of(new BigDecimal("2.50")));
+
+        Money totalPrice = orderService.calculateOrderTotalPrice(List.of(item));
 
-        assertEquals(BigDecimal.ZERO, totalPrice);
+        assertEquals(new BigDecimal("27.50"), totalPrice.toBigDecimal());
     }
 
     @Test
@@ -95,7 +149,7 @@ class OrderServiceTest {
     @DisplayName("Should throw exception when quantity is null")
     void shouldThrowExceptionWhenQuantityIsNull() {
         OrderItem item = new OrderItem();
-        item.setUnitPrice(new BigDecimal("10.00"));
+        item.setUnitPrice(Money.of(new BigDecimal("10.00")));
         item.setQuantity(null);
         List<OrderItem> orderItems = List.of(item);
 
@@ -127,15 +181,25 @@ class OrderServiceTest {
     }
 
     @Test
-    @DisplayName("Should handle decimal precision correctly")
+    @DisplayName("Should price in whole cents like the price columns")
     void shouldHandleDecimalPrecisionCorrectly() {
         OrderItem item1 = createOrderItem(new BigDecimal("10.333"), 3);
         OrderItem item2 = createOrderItem(new BigDecimal("5.667"), 2);
         List<OrderItem> orderItems = Arrays.asList(item1, item2);
 
-        BigDecimal totalPrice = orderService.calculateOrderTotalPrice(orderItems);
+        Money totalPrice = orderService.calculateOrderTotalPrice(orderItems);
 
-        assertEquals(new BigDecimal("42.333"), totalPrice);
+        assertEquals(new BigDecimal("42.33"), totalPrice.toBigDecimal());
+    }
+
+    @Test
+    @DisplayName("Should throw instead of overflowing the total")
+    void shouldThrowWhenTotalOverflows() {
+        OrderItem item = createOrderItem(BigDecimal.ONE, 3);
+        item.setUnitPrice(Money.ofCents(Long.MAX_VALUE / 2));
+        List<OrderItem> orderItems = List.of(item);
+
+        assertThrows(ArithmeticException.class, () -> orderService.calculateOrderTotalPrice(orderItems));
     }
 
     @Test
@@ -144,9 +208,9 @@ class OrderServiceTest {
         OrderItem item = createOrderItem(new BigDecimal("1.00"), 1000);
         List<OrderItem> orderItems = List.of(item);
 
-        BigDecimal totalPrice = orderService.calculateOrderTotalPrice(orderItems);
+        Money totalPrice = orderService.calculateOrderTotalPrice(orderItems);
 
-        assertEquals(new BigDecimal("1000.00"), totalPrice);
+        assertEquals(new BigDecimal("1000.00"), totalPrice.toBigDecimal());
     }
 
     @Test
@@ -155,21 +219,152 @@ class OrderServiceTest {
         OrderItem item = createOrderItem(new BigDecimal("0.01"), 1);
         List<OrderItem> orderItems = List.of(item);
 
-        BigDecimal totalPrice = orderService.calculateOrderTotalPrice(orderItems);
+        Money totalPrice = orderService.calculateOrderTotalPrice(orderItems);
 
-        assertEquals(new BigDecimal("0.01"), totalPrice);
+        assertEquals(new BigDecimal("0.01"), totalPrice.toBigDecimal());
+    }
+
+    @Test
+    @DisplayName("Should read only order columns when no item fields are selected")
+    void shouldSkipItemQueriesForColumnOnlySelection() {
+        UUID orderId = UUID.randomUUID();
+        Tuple row = mock(Tuple.class);
+        when(row.get("id", UUID.class)).thenReturn(orderId);
+        when(row.get("totalPrice", Money.class)).thenReturn(Money.ofCents(4200));
+        when(orderRepository.findColumns(any(), eq(List.of("id", "totalPrice")), any()))
+                .thenReturn(new PageImpl<>(List.of(row)));
+
+        FieldSelection fields = FieldSelection.parse("id,totalPrice", FieldSelection.ORDER_FIELDS);
+        Page<OrderSummaryResponse> page = orderService.searchOrders(null, null, null, null, null, null,
+                Pageable.unpaged(), fields);
+
+        OrderSummaryResponse summary = page.getContent().getFirst();
+        assertEquals(orderId, summary.getId());
+        assertEquals(new BigDecimal("42.00"), summary.getTotalPrice().toBigDecimal());
+        assertNull(summary.getOrderItems());
+        assertNull(summary.getTotalItems());
+        verify(orderRepository, never()).findItemRows(anyCollection());
+        verify(orderRepository, never()).countItems(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should count items in one query when only totalItems is selected")
+    void shouldCountItemsWithoutLoadingThem() {
+        UUID orderId = UUID.randomUUID();
+        Tuple row = mock(Tuple.class);
+        when(row.get("id", UUID.class)).thenReturn(orderId);
+        OrderRepository.OrderItemCount count = mock(OrderRepository.OrderItemCount.class);
+        when(count.getOrderId()).thenReturn(orderId);
+        when(count.getTotalItems()).thenReturn(7L);
+        when(orderRepository.findColumns(any(), eq(List.of("id")), any())).thenReturn(new PageImpl<>(List.of(row)));
+        when(orderRepository.countItems(List.of(orderId))).thenReturn(List.of(count));
+
+        FieldSelection fields = FieldSelection.parse("id,totalItems", FieldSelection.ORDER_FIELDS);
+        Page<OrderSummaryResponse> page = orderService.searchOrders(null, null, null, null, null, null,
+                Pageable.unpaged(), fields);
+
+        assertEquals(7, page.getContent().getFirst().getTotalItems());
+        verify(orderRepository, never()).findItemRows(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should count stock rejections per product and persist nothing")
+    void shouldCountStockRejectionsPerProduct() {
+        Product product = createOrderItem(new BigDecimal("10.00"), 1).getProduct();
+        product.setStock(3);
+        when(productRepository.findAllById(List.of(product.getId()))).thenReturn(List.of(product));
+        CartCalculationRequest cart = new CartCalculationRequest(List.of(
+                new CartItem(product.getId(), 2), new CartItem(product.getId(), 2)));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> orderService.createOrderFromCart(cart, UUID.randomUUID()));
+
+        assertEquals("Insufficient stock for product: Test Product", exception.getMessage());
+        assertEquals(1.0, meterRegistry.get("orders.stock.rejected")
+                .tag("product", product.getId().toString()).counter().count());
+        assertEquals(3, product.getStock());
+        verify(productRepository).reserveStock(product.getId(), 4);
+        verify(inventoryService, never()).allocate(any(), any());
+        verify(orderRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Should time each phase of order creation")
+    void shouldTimeOrderCreationPhases() {
+        Product product = createOrderItem(new BigDecimal("10.00"), 1).getProduct();
+        when(productRepository.reserveStock(product.getId(), 2)).thenReturn(1);
+        when(productRepository.findAllById(List.of(product.getId()))).thenReturn(List.of(product));
+        when(orderRepository.saveAndFlush(any(Order.class))).then(returnsFirstArg());
+
+        Order order = orderService.createOrderFromCart(
+                new CartCalculationRequest(List.of(new CartItem(product.getId(), 2))), UUID.randomUUID());
+
+        assertEquals(new BigDecimal("20.00"), order.getTotalPrice().toBigDecimal());
+        verify(productRepository).reserveStock(product.getId(), 2);
+        for (String phase : List.of("check-stock", "load-products", "allocate", "persist")) {
+            assertEquals(1, meterRegistry.get("orders.create.phase").tag("phase", phase).timer().count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should price a cart and the order created from it identically")
+    void shouldPriceCartAndOrderIdentically() {
+        Product product = createOrderItem(new BigDecimal("10.00"), 1).getProduct();
+        Promotion percentage = new Promotion();
+        percentage.setType(Promotion.Type.PERCENTAGE);
+        percentage.setPercentOff(10);
+        Promotion buyTwoGetOne = new Promotion();
+        buyTwoGetOne.setType(Promotion.Type.BUY_X_GET_Y);
+        buyTwoGetOne.setProductId(product.getId());
+        buyTwoGetOne.setBuyQuantity(2);
+        buyTwoGetOne.setFreeQuantity(1);
+        when(pricingEngine.current()).thenReturn(
+                PriceList.compile(List.of(percentage, buyTwoGetOne), LocalDateTime.now()));
+        when(productRepository.reserveStock(product.getId(), 3)).thenReturn(1);
+        when(productRepository.findAllById(List.of(product.getId()))).thenReturn(List.of(product));
+        when(orderRepository.saveAndFlush(any(Order.class))).then(returnsFirstArg());
+        CartCalculationRequest cart = new CartCalculationRequest(List.of(new CartItem(product.getId(), 3)));
+
+        CartCalculationResponse calculated = orderService.calculateCartTotal(cart);
+        Order order = orderService.createOrderFromCart(cart, UUID.randomUUID());
+
+        // One unit free, then 10% off the two paid for
+        assertEquals(new BigDecimal("18.00"), calculated.getTotalPrice().toBigDecimal());
+        assertEquals(new BigDecimal("12.00"), calculated.getTotalDiscount().toBigDecimal());
+        assertEquals(calculated.getTotalPrice(), order.getTotalPrice());
+        OrderItem item = order.getOrderItems().getFirst();
+        assertEquals(calculated.getItems().getFirst().getUnitPrice(), item.getUnitPrice());
+        assertEquals(calculated.getItems().getFirst().getDiscount(), item.getDiscount());
+    }
+
+    @Test
+    @DisplayName("Should allocate the summed quantities and publish the allocations with the order")
+    void shouldPublishAllocationsWithOrder() {
+        Product product = createOrderItem(new BigDecimal("10.00"), 1).getProduct();
+        product.setStockedByLocation(true);
+        Allocation allocation = new Allocation(UUID.randomUUID(), UUID.randomUUID(), product.getId(), 5, 12);
+        // Reserves nothing on the product row, which is refreshed after the commit
+        when(productRepository.findAllById(List.of(product.getId()))).thenReturn(List.of(product));
+        when(inventoryService.allocate(eq(Map.of(product.getId(), 5)), any())).thenReturn(List.of(allocation));
+        when(orderRepository.saveAndFlush(any(Order.class))).then(returnsFirstArg());
+
+        Order order = orderService.createOrderFromCart(new CartCalculationRequest(List.of(
+                new CartItem(product.getId(), 2), new CartItem(product.getId(), 3))), UUID.randomUUID());
+
+        verify(eventPublisher).publishEvent(new OrderCreatedEvent(order, List.of(), List.of(allocation)));
     }
 
     private OrderItem createOrderItem(BigDecimal unitPrice, Integer quantity) {
+        Money price = unitPrice == null ? null : Money.of(unitPrice);
         OrderItem item = new OrderItem();
         item.setId(UUID.randomUUID());
-        item.setUnitPrice(unitPrice);
+        item.setUnitPrice(price);
         item.setQuantity(quantity);
         
         Product product = new Product();
         product.setId(UUID.randomUUID());
         product.setName("Test Product");
-        product.setPrice(unitPrice);
+        product.setPrice(price);
         product.setStock(100);
         item.setProduct(product);
         
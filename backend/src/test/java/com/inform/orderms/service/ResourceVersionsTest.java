@@ -0,0 +1,95 @@
+package com.inform.orderms.service;
+
+import com.inform.orderms.event.OrderCreatedEvent;
+import com.inform.orderms.event.ProductSavedEvent;
+import com.inform.orderms.model.Money;
+import com.inform.orderms.model.Order;
+import com.inform.orderms.model.OrderItem;
+import com.inform.orderms.model.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceVersionsTest {
+
+    private final ResourceVersions resourceVersions = new ResourceVersions(100);
+
+    @Test
+    @DisplayName("Should answer a product ETag from memory until the product changes")
+    void shouldForgetProductVersionOnWrite() {
+        Product product = product(3L);
+        assertTrue(resourceVersions.productETag(product.getId()).isEmpty());
+
+        String etag = resourceVersions.productETag(product, resourceVersions.catalogVersion());
+        assertEquals(Optional.of(etag), resourceVersions.productETag(product.getId()));
+
+        resourceVersions.onProductSaved(new ProductSavedEvent(product));
+        assertTrue(resourceVersions.productETag(product.getId()).isEmpty());
+
+        product.setVersion(4L);
+        assertNotEquals(etag, resourceVersions.productETag(product, resourceVersions.catalogVersion()));
+    }
+
+    @Test
+    @DisplayName("Should not remember a version read before a concurrent write committed")
+    void shouldSkipVersionReadBeforeWrite() {
+        Product product = product(3L);
+        long observed = resourceVersions.catalogVersion();
+
+        resourceVersions.onProductSaved(new ProductSavedEvent(product(1L)));
+        resourceVersions.productETag(product, observed);
+
+        assertTrue(resourceVersions.productETag(product.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should change list ETags with filters and with stock changes")
+    void shouldTagListPagesByCatalogVersionAndFilters() {
+        String firstPage = resourceVersions.catalogETag(null, null, 0, 10, "name", "asc");
+        assertEquals(firstPage, resourceVersions.catalogETag(null, null, 0, 10, "name", "asc"));
+        assertNotEquals(firstPage, resourceVersions.catalogETag(null, null, 1, 10, "name", "asc"));
+
+        resourceVersions.onOrderCreated(new OrderCreatedEvent(new Order(), List.of(product(2L)), List.of()));
+        assertNotEquals(firstPage, resourceVersions.catalogETag(null, null, 0, 10, "name", "asc"));
+    }
+
+    @Test
+    @DisplayName("Should invalidate an order ETag when one of its products changes")
+    void shouldTagOrdersWithTheirProducts() {
+        Product product = product(1L);
+        Order order = order(product);
+
+        String etag = resourceVersions.orderETag(order, resourceVersions.catalogVersion());
+        assertEquals(Optional.of(etag), resourceVersions.orderETag(order.getId()));
+
+        resourceVersions.onOrderCreated(new OrderCreatedEvent(new Order(), List.of(product), List.of()));
+        assertTrue(resourceVersions.orderETag(order.getId()).isEmpty());
+    }
+
+    private static Product product(long version) {
+        Product product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("Laptop");
+        product.setPrice(Money.ofCents(99999));
+        product.setStock(5);
+        product.setVersion(version);
+        return product;
+    }
+
+    private static Order order(Product product) {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setVersion(0L);
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(1);
+        item.setUnitPrice(product.getPrice());
+        order.setOrderItems(List.of(item));
+        return order;
+    }
+}
@@ -0,0 +1,63 @@
+package com.inform.orderms.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.inform.orderms.config.CacheConfig;
+import com.inform.orderms.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserServiceCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("Should serve repeat lookups by email and id from the cache")
+    void shouldCacheLookups() {
+        long emailHits = nativeCache(CacheConfig.USERS_BY_EMAIL).stats().hitCount();
+        long idHits = nativeCache(CacheConfig.USERS_BY_ID).stats().hitCount();
+
+        User first = userService.findByEmail("admin@orderflow.com").orElseThrow();
+        User second = userService.findByEmail("admin@orderflow.com").orElseThrow();
+        userService.findById(first.getId());
+        userService.findById(first.getId());
+
+        assertSame(first, second);
+        assertEquals(emailHits + 1, nativeCache(CacheConfig.USERS_BY_EMAIL).stats().hitCount());
+        assertEquals(idHits + 1, nativeCache(CacheConfig.USERS_BY_ID).stats().hitCount());
+    }
+
+    @Test
+    @DisplayName("Should not cache unknown emails and should evict a user once it is saved")
+    void shouldEvictOnSave() {
+        assertTrue(userService.findByEmail("nobody@orderflow.com").isEmpty());
+        assertNull(cacheManager.getCache(CacheConfig.USERS_BY_EMAIL).get("nobody@orderflow.com"));
+
+        User user = userService.findByEmail("rodrigo.perez@orderflow.com").orElseThrow();
+        userService.findById(user.getId());
+        userService.updatePasswordHash(user.getId(), user.getPassword());
+
+        assertNull(cacheManager.getCache(CacheConfig.USERS_BY_EMAIL).get(user.getEmail()));
+        assertNull(cacheManager.getCache(CacheConfig.USERS_BY_ID).get(user.getId()));
+    }
+
+    private Cache<Object, Object> nativeCache(String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+}
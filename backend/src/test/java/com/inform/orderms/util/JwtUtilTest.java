@@ -0,0 +1,87 @@
+package com.inform.orderms.util;
+
+import com.inform.orderms.security.VerifiedClaims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "orderflow-jwt-secret-key-for-secure-token-generation-and-validation-2024";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = jwtUtil(SECRET, 3_600_000);
+    }
+
+    @Test
+    @DisplayName("Should return the verified claims of a valid access token")
+    void shouldVerifyAccessToken() {
+        UUID userId = UUID.randomUUID();
+        Optional<VerifiedClaims> claims = jwtUtil.verify(jwtUtil.generateToken(userId, "admin@orderflow.com", Set.of("ADMIN")));
+
+        assertTrue(claims.isPresent());
+        assertEquals(userId, claims.get().userId());
+        assertEquals("admin@orderflow.com", claims.get().email());
+        assertEquals(Set.of("ADMIN"), claims.get().roles());
+        assertEquals("ROLE_ADMIN", claims.get().authorities().getFirst().getAuthority());
+        assertEquals("admin@orderflow.com", claims.get().getName());
+        assertFalse(claims.get().isRefreshToken());
+        assertTrue(claims.get().expiresAt().isAfter(claims.get().issuedAt()));
+    }
+
+    @Test
+    @DisplayName("Should accept tokens issued without user id and roles")
+    void shouldVerifyLegacyToken() {
+        String legacy = Jwts.builder()
+                .subject("admin@orderflow.com")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+
+        VerifiedClaims claims = jwtUtil.verify(legacy).orElseThrow();
+        assertNull(claims.userId());
+        assertEquals(Set.of(), claims.roles());
+    }
+
+    @Test
+    @DisplayName("Should mark refresh tokens as such")
+    void shouldVerifyRefreshToken() {
+        Optional<VerifiedClaims> claims = jwtUtil.verify(jwtUtil.generateRefreshToken("admin@orderflow.com"));
+
+        assertTrue(claims.map(VerifiedClaims::isRefreshToken).orElse(false));
+    }
+
+    @Test
+    @DisplayName("Should reject expired, forged and malformed tokens")
+    void shouldRejectInvalidTokens() {
+        String expired = jwtUtil(SECRET, -1_000).generateToken(UUID.randomUUID(), "admin@orderflow.com", Set.of("ADMIN"));
+        String forged = jwtUtil(SECRET.replace('o', '0'), 3_600_000).generateToken(UUID.randomUUID(), "admin@orderflow.com", Set.of("ADMIN"));
+
+        assertTrue(jwtUtil.verify(expired).isEmpty());
+        assertTrue(jwtUtil.verify(forged).isEmpty());
+        assertTrue(jwtUtil.verify("not-a-token").isEmpty());
+        assertTrue(jwtUtil.isTokenExpired(expired));
+    }
+
+    private static JwtUtil jwtUtil(String secret, long expiration) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", secret);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", expiration);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", expiration * 7);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+        return jwtUtil;
+    }
+}